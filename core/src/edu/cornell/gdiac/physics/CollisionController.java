@@ -2,6 +2,7 @@ package edu.cornell.gdiac.physics;
 
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.physics.box2d.*;
+import edu.cornell.gdiac.physics.obstacle.EnergyPillar;
 import edu.cornell.gdiac.physics.obstacle.Obstacle;
 import edu.cornell.gdiac.physics.host.HostModel;
 import edu.cornell.gdiac.physics.obstacle.OscWall;
@@ -11,6 +12,52 @@ import java.util.ArrayList;
 
 public class CollisionController implements ContactListener {
 
+    /** The categories the spirit bounces off of */
+    private static final int BOUNCE_CATEGORIES = Factory.CATEGORY_WALL | Factory.CATEGORY_EDGE
+            | Factory.CATEGORY_ENERGY_PILLAR | Factory.CATEGORY_OSC_WALL;
+
+    /** The number of events the queue starts with room for */
+    private static final int QUEUE_CAPACITY = 64;
+
+    /** Two bodies started touching (the host may be null) */
+    private static final int EVENT_BEGIN = 0;
+    /** A host stopped touching something */
+    private static final int EVENT_END = 1;
+    /** A host is over sand */
+    private static final int EVENT_SAND = 2;
+    /** The spirit bounced off of something */
+    private static final int EVENT_BOUNCE = 3;
+    /** A host entered the charge field of an energy pillar */
+    private static final int EVENT_FIELD_ENTER = 4;
+    /** A host left the charge field of an energy pillar */
+    private static final int EVENT_FIELD_EXIT = 5;
+
+    /**
+     * Something that happened during a physics step, handled after the step.
+     *
+     * The records are preallocated and reused, so they are only ever filled in.
+     */
+    private static class ContactEvent {
+        /** One of the EVENT constants */
+        int type;
+        /** The host involved, if any */
+        HostModel host;
+        /** The object the host touched (the pillar, for field events) */
+        Obstacle other;
+        /** For a begin, whether the contact was ahead of the host. For a bounce, whether it was off the bounds */
+        boolean flag;
+        /** For a bounce, where the spirit was */
+        float x;
+        float y;
+    }
+
+    /** The events of the current step, in the order they happened */
+    private ContactEvent[] queue;
+    /** The index of the oldest queued event */
+    private int queueHead;
+    /** The number of queued events */
+    private int queueSize;
+
     /**
      * Whether the host was bounced against a wall this frame
      */
@@ -34,6 +81,11 @@ public class CollisionController implements ContactListener {
      */
     private HostModel prevHostPossessed;
 
+    /**
+     * How many hosts have been possessed for the first time since last checked
+     */
+    private int firstPossessions;
+
     // Physics objects for the game
     /**
      * Reference to the hosts
@@ -45,6 +97,9 @@ public class CollisionController implements ContactListener {
      */
     private SpiritModel spirit;
 
+    /** Cache for the position of the spirit at a bounce */
+    private Vector2 bounceCache = new Vector2();
+
     /**
      * Creates and initializes a new instance of a CollisionController
      */
@@ -55,6 +110,10 @@ public class CollisionController implements ContactListener {
         hostPossessed = null;
         prevHostPossessed = null;
         inSand = false;
+        queue = new ContactEvent[QUEUE_CAPACITY];
+        for (int i = 0; i < queue.length; i++) {
+            queue[i] = new ContactEvent();
+        }
     }
 
     /**
@@ -65,6 +124,12 @@ public class CollisionController implements ContactListener {
         hostList = null;
         bounced = false;
         hostPossessed = null;
+        firstPossessions = 0;
+        while (queueSize > 0) {
+            ContactEvent e = poll();
+            e.host = null;
+            e.other = null;
+        }
     }
 
     /**
@@ -81,76 +146,222 @@ public class CollisionController implements ContactListener {
         this.spirit = spirit;
     }
 
-    // ContactListener methods
+    /// Event Queue
 
     /**
-     * Callback method for the start of a collision
+     * Returns a record at the end of the queue to fill in
      * <p>
-     * This method is called when we first get a collision between two objects.  We use
-     * this method to test if it is the "right" kind of collision.  In particular, we
-     * use it to test if the spirit bounced against a wall or if the spirit bounced into a host.
-     *
-     * @param contact The two bodies that collided
+     * The queue only grows if a single step has more events than it can hold.
      */
-    public void beginContact(Contact contact) {
-
-        // Reset all the fields to reflect this current frame if needed
-        clear();
-        prevHostPossessed = hostPossessed;
+    private ContactEvent push(int type) {
+        if (queueSize == queue.length) {
+            ContactEvent[] larger = new ContactEvent[queue.length * 2];
+            for (int i = 0; i < queue.length; i++) {
+                larger[i] = queue[(queueHead + i) % queue.length];
+            }
+            for (int i = queue.length; i < larger.length; i++) {
+                larger[i] = new ContactEvent();
+            }
+            queue = larger;
+            queueHead = 0;
+        }
+        ContactEvent e = queue[(queueHead + queueSize) % queue.length];
+        queueSize++;
+        e.type = type;
+        e.host = null;
+        e.other = null;
+        e.flag = false;
+        return e;
+    }
 
-        Fixture fix1 = contact.getFixtureA();
-        Fixture fix2 = contact.getFixtureB();
+    /**
+     * Removes the oldest record from the queue and returns it
+     */
+    private ContactEvent poll() {
+        ContactEvent e = queue[queueHead];
+        queueHead = (queueHead + 1) % queue.length;
+        queueSize--;
+        return e;
+    }
 
-        Body body1 = fix1.getBody();
-        Body body2 = fix2.getBody();
+    /**
+     * Handles every contact event of the last physics step, in order
+     * <p>
+     * This must be called after every world step. The Box2D callbacks only
+     * record what happened, and all changes to the game state are made here.
+     */
+    public void processEvents() {
+        while (queueSize > 0) {
+            ContactEvent e = poll();
+            switch (e.type) {
+                case EVENT_BEGIN:
+                    prevHostPossessed = hostPossessed;
+                    if (e.host != null) {
+                        beginHostContact(e.host, e.other, e.flag);
+                    }
+                    break;
+                case EVENT_END:
+                    // Unpossessed hosts stop when they lose contact with something
+                    if (!e.host.isPossessed()) {
+                        e.host.setLinearVelocity(Vector2.Zero);
+                    }
+                    break;
+                case EVENT_SAND:
+                    if (e.host == prevHostPossessed) {
+                        inSand = true;
+                    }
+                    break;
+                case EVENT_FIELD_ENTER:
+                    e.host.enterPillarField((EnergyPillar) e.other);
+                    break;
+                case EVENT_FIELD_EXIT:
+                    e.host.exitPillarField((EnergyPillar) e.other);
+                    break;
+                case EVENT_BOUNCE:
+                    spirit.setDidBounce(true);
+                    spirit.setPosAtBounce(bounceCache.set(e.x, e.y));
+                    bounced = true;
+                    if (e.flag) {
+                        bounceOnBounds = true;
+                    }
+                    break;
+            }
+            e.host = null;
+            e.other = null;
+        }
+    }
 
+    /**
+     * Handles the start of a collision between a host and another object
+     *
+     * @param host    The host
+     * @param other   The object the host touched
+     * @param ahead   Whether the contact was in the direction the host was moving
+     */
+    private void beginHostContact(HostModel host, Obstacle other, boolean ahead) {
         // Collision handling to determine if the spirit collides with any hosts
-        for (HostModel r : hostList) {
-            if (((body1.getUserData() == spirit && body2.getUserData() == r) ||
-                    (body1.getUserData() == r && body2.getUserData() == spirit)) & !spirit.getIsPossessing()) {
+        if (other == spirit && !spirit.getIsPossessing()) {
 
-                hostPossessed = r;
+            hostPossessed = host;
 
-                // Increment HUD if host has never been possessed before
-                if (!hostPossessed.beenPossessed()) {
-                    HUD.incrementCurrHosts();
-                }
+            // Count the host if it has never been possessed before
+            if (!hostPossessed.beenPossessed()) {
+                firstPossessions++;
+            }
 
-                // host is now possessed
-                hostPossessed.setPossessed(true);
+            // host is now possessed
+            hostPossessed.setPossessed(true);
 
-                // set impact for screen shake
-                hostPossessed.setImpact(true);
+            // set impact for screen shake
+            hostPossessed.setImpact(true);
 
-                // Spirit's life is replenished upon possessing new host
-                spirit.setCurrentLife(spirit.getDefaultLife());
+            // Spirit's life is replenished upon possessing new host
+            spirit.setCurrentLife(spirit.getDefaultLife());
 
-                // spirit is no longer in stage of being launched
-                spirit.setHasLaunched(false);
+            // spirit is no longer in stage of being launched
+            spirit.setHasLaunched(false);
 
-                // Spirit is alive whenever it is inside of a host
-                spirit.setAlive(true);
+            // Spirit is alive whenever it is inside of a host
+            spirit.setAlive(true);
 
-                // Spirit is Going to Center Now
-                spirit.setGoToCenter(true);
+            // Spirit is Going to Center Now
+            spirit.setGoToCenter(true);
 
-                // Spirit moves towards the possessed's center if wasn't already colliding with it last frame
-                if (hostPossessed != prevHostPossessed) {
-                    spirit.setGoToCenter(true);
-                }
+            // Spirit moves towards the possessed's center if wasn't already colliding with it last frame
+            if (hostPossessed != prevHostPossessed) {
+                spirit.setGoToCenter(true);
             }
+        }
 
-            if (((body2.getUserData() == r) || (body1.getUserData() == r)) && !r.isPossessed()) {
-                Vector2 c = contact.getWorldManifold().getPoints()[0].sub(r.getPosition());
-                Vector2 v = r.getLinearVelocity();
+        if (!host.isPossessed() && ahead) {
+            host.invertForwardI();
+            host.nextInstruction();
+        }
+    }
 
-                if ((Math.signum(c.x) == Math.signum(v.x) || Math.abs(v.x) < 0.1)
-                        && (Math.signum(c.y) == Math.signum(v.y) || Math.abs(v.y) < 0.1)) {
-                    r.invertForwardI();
-                    r.nextInstruction();
-                }
-            }
+    // ContactListener methods
+
+    /**
+     * Callback method for the start of a collision
+     * <p>
+     * This method is called when we first get a collision between two objects.  It
+     * only records the contact; processEvents decides what it means once the step is
+     * over, such as whether the spirit flew into a host.
+     *
+     * @param contact The two bodies that collided
+     */
+    public void beginContact(Contact contact) {
+        if (pushField(contact, EVENT_FIELD_ENTER)) {
+            return;
+        }
+
+        Obstacle bd1 = (Obstacle) contact.getFixtureA().getBody().getUserData();
+        Obstacle bd2 = (Obstacle) contact.getFixtureB().getBody().getUserData();
+
+        // Only contacts with a host need handling, so dispatch on the type of each side
+        boolean host1 = bd1.getFilterData().categoryBits == Factory.CATEGORY_HOST;
+        boolean host2 = bd2.getFilterData().categoryBits == Factory.CATEGORY_HOST;
+        if (host1) {
+            pushHostContact(contact, (HostModel) bd1, bd2);
+        }
+        if (host2) {
+            pushHostContact(contact, (HostModel) bd2, bd1);
+        }
+        if (!host1 && !host2) {
+            push(EVENT_BEGIN);
+        }
+    }
+
+    /**
+     * Records the start of a collision between a host and another object
+     * <p>
+     * Whether the contact is ahead of the host is decided now, since the host
+     * has moved on by the time the event is handled.
+     *
+     * @param contact The contact between the two
+     * @param host    The host
+     * @param other   The object the host touched
+     */
+    private void pushHostContact(Contact contact, HostModel host, Obstacle other) {
+        Vector2 c = contact.getWorldManifold().getPoints()[0].sub(host.getPosition());
+        Vector2 v = host.getLinearVelocity();
+
+        ContactEvent e = push(EVENT_BEGIN);
+        e.host = host;
+        e.other = other;
+        e.flag = (Math.signum(c.x) == Math.signum(v.x) || Math.abs(v.x) < 0.1)
+                && (Math.signum(c.y) == Math.signum(v.y) || Math.abs(v.y) < 0.1);
+    }
+
+    /**
+     * Records a host entering or leaving the charge field of an energy pillar
+     * <p>
+     * Field sensors are tagged with their pillar, and only touch hosts and the
+     * pedestal (see Factory).
+     *
+     * @param contact The contact to check
+     * @param type    EVENT_FIELD_ENTER or EVENT_FIELD_EXIT
+     *
+     * @return true if the contact was with a field, and so has been handled
+     */
+    private boolean pushField(Contact contact, int type) {
+        Fixture fix1 = contact.getFixtureA();
+        Fixture fix2 = contact.getFixtureB();
+        Fixture field;
+        Fixture host;
+        if (fix1.getUserData() instanceof EnergyPillar) {
+            field = fix1;
+            host = fix2;
+        } else if (fix2.getUserData() instanceof EnergyPillar) {
+            field = fix2;
+            host = fix1;
+        } else {
+            return false;
         }
+        ContactEvent e = push(type);
+        e.host = (HostModel) host.getBody().getUserData();
+        e.other = (EnergyPillar) field.getUserData();
+        return true;
     }
 
     /**
@@ -158,18 +369,18 @@ public class CollisionController implements ContactListener {
      * This method is called when two objects cease to touch.
      */
     public void endContact(Contact contact) {
-        Fixture fix1 = contact.getFixtureA();
-        Fixture fix2 = contact.getFixtureB();
+        if (pushField(contact, EVENT_FIELD_EXIT)) {
+            return;
+        }
 
-        Body body1 = fix1.getBody();
-        Body body2 = fix2.getBody();
+        Obstacle bd1 = (Obstacle) contact.getFixtureA().getBody().getUserData();
+        Obstacle bd2 = (Obstacle) contact.getFixtureB().getBody().getUserData();
 
-        if (hostList != null) {
-            for (HostModel r : hostList) {
-                if (((body2.getUserData() == r) || (body1.getUserData() == r)) && !r.isPossessed()) {
-                    r.setLinearVelocity(new Vector2(0, 0));
-                }
-            }
+        if (bd1.getFilterData().categoryBits == Factory.CATEGORY_HOST) {
+            push(EVENT_END).host = (HostModel) bd1;
+        }
+        if (bd2.getFilterData().categoryBits == Factory.CATEGORY_HOST) {
+            push(EVENT_END).host = (HostModel) bd2;
         }
     }
 
@@ -191,81 +402,56 @@ public class CollisionController implements ContactListener {
      * get a collision over multiple frames (instead of detecting the first frame), and
      * so play a sound repeatedly.  Fortunately, the cooldown hack in SoundController
      * prevents this from happening.
+     * <p>
+     * Contacts are enabled or disabled here, but anything else is recorded for
+     * processEvents.
      *
      * @param contact     The two bodies that collided
      * @param oldManifold The collision manifold before contact
      */
     // Will need to modify this when we include sound effects upon wall and possession collisions
     public void preSolve(Contact contact, Manifold oldManifold) {
-        Fixture fix1 = contact.getFixtureA();
-        Fixture fix2 = contact.getFixtureB();
-
-        Body body1 = fix1.getBody();
-        Body body2 = fix2.getBody();
-
-        Obstacle bd1 = (Obstacle) body1.getUserData();
-        Obstacle bd2 = (Obstacle) body2.getUserData();
-
-        // Check for Collision with Pedestal
-        if ((body1.getUserData() == spirit && bd2.getName() == "pedestal") ||
-                (bd1.getName() == "pedestal" && body2.getUserData() == spirit) ||
-                (bd1.getName() == "host" && bd2.getName() == "pedestal") ||
-                (bd1.getName() == "pedestal" && bd2.getName() == "host")) {
+        Obstacle bd1 = (Obstacle) contact.getFixtureA().getBody().getUserData();
+        Obstacle bd2 = (Obstacle) contact.getFixtureB().getBody().getUserData();
+
+        // The collision category of each body doubles as its type. Contacts
+        // that are always ignored (sand against anything but hosts, the spirit
+        // against water and anything against the pedestal) are filtered out
+        // by Factory, so they never get here.
+        int type1 = bd1.getFilterData().categoryBits;
+        int type2 = bd2.getFilterData().categoryBits;
+        int types = type1 | type2;
+
+        // Sand only touches hosts, and never blocks them
+        if ((types & Factory.CATEGORY_SAND) != 0) {
             contact.setEnabled(false);
+            push(EVENT_SAND).host = (HostModel) (type1 == Factory.CATEGORY_SAND ? bd2 : bd1);
+            return;
         }
 
-        // Check for Spirit and Host Collision with OscWall
-        if ((bd1.getName() == "oscWall" && !((OscWall) bd1).isPhysical() && body2.getUserData() == spirit) ||
-                (body2.getUserData() == spirit && bd1.getName() == "oscWall" && !((OscWall) bd1).isPhysical()) ||
-            (bd1.getName() == "oscWall" && !((OscWall) bd1).isPhysical() && bd2.getName() == "host") ||
-                    (bd1.getName() == "host" && bd2.getName() == "oscWall" && !((OscWall) bd2).isPhysical())) {
+        // The spirit passes through hosts; beginContact handles possession
+        if (types == (Factory.CATEGORY_SPIRIT | Factory.CATEGORY_HOST)) {
             contact.setEnabled(false);
+            return;
         }
 
-        // Check for Collision with Water
-        if ((body1.getUserData() == spirit && bd2.getName() == "water") ||
-                bd1.getName() == "water" && body2.getUserData() == spirit) {
-            contact.setEnabled(false);
-        }
-
-        // All collisions with Sand
-        if ((bd1.getName() == "sand") || bd2.getName() == "sand") {
-            contact.setEnabled(false);
-        }
-
-        // Check for Collision with Sand
-        if ((body1.getUserData() == prevHostPossessed && bd2.getName() == "sand") ||
-                bd1.getName() == "sand" && body2.getUserData() == prevHostPossessed) {
-                inSand = true;
-        }
-
-        for (HostModel r : hostList) {
-            if (((body1.getUserData() == spirit && body2.getUserData() == r) ||
-                    (body1.getUserData() == r && body2.getUserData() == spirit))) {
-                contact.setEnabled(false);
+        // Lowered OscWalls let the spirit and hosts through
+        if ((types & Factory.CATEGORY_OSC_WALL) != 0) {
+            OscWall wall = (OscWall) (type1 == Factory.CATEGORY_OSC_WALL ? bd1 : bd2);
+            if (!wall.isPhysical()) {
+                if ((types & (Factory.CATEGORY_SPIRIT | Factory.CATEGORY_HOST)) != 0) {
+                    contact.setEnabled(false);
+                }
+                return;
             }
         }
 
         // Recognize spirit against a wall to play sound
-        if (body1.getUserData() == spirit && bd2.getName() == "wall" ||
-                bd1.getName() == "wall" && body2.getUserData() == spirit ||
-                body1.getUserData() == spirit && bd2.getName() == "edge" ||
-                bd1.getName() == "edge" && body2.getUserData() == spirit ||
-                body1.getUserData() == spirit && bd2.getName() == "corner" ||
-                bd1.getName() == "corner" && body2.getUserData() == spirit ||
-                bd1.getName() == "energyPillar" && body2.getUserData() == spirit ||
-                body1.getUserData() == spirit && bd2.getName() == "energyPillar" ||
-                bd1.getName() == "oscWall" && ((OscWall) bd1).isPhysical() && body2.getUserData() == spirit ||
-                body1.getUserData() == spirit && bd2.getName() == "oscWall" && ((OscWall) bd2).isPhysical()) {
-                spirit.setDidBounce(true);
-                spirit.setPosAtBounce(new Vector2(spirit.getPosition()));
-                bounced = true;
-            if (body1.getUserData() == spirit && bd2.getName() == "edge" ||
-                    bd1.getName() == "edge" && body2.getUserData() == spirit ||
-                    body1.getUserData() == spirit && bd2.getName() == "corner" ||
-                    bd1.getName() == "corner" && body2.getUserData() == spirit) {
-                bounceOnBounds = true;
-            }
+        if ((types & Factory.CATEGORY_SPIRIT) != 0 && (types & BOUNCE_CATEGORIES) != 0) {
+            ContactEvent e = push(EVENT_BOUNCE);
+            e.x = spirit.getX();
+            e.y = spirit.getY();
+            e.flag = (types & Factory.CATEGORY_EDGE) != 0;
         }
     }
 
@@ -306,4 +492,14 @@ public class CollisionController implements ContactListener {
     }
 
     public boolean getBounceOnBounds() { return bounceOnBounds; }
+
+    /**
+     * Returns how many hosts were possessed for the first time since the last
+     * call, and resets the count
+     */
+    public int takeFirstPossessions() {
+        int count = firstPossessions;
+        firstPossessions = 0;
+        return count;
+    }
 }
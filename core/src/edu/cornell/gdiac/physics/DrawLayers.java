@@ -0,0 +1,280 @@
+package edu.cornell.gdiac.physics;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.physics.box2d.BodyDef;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.IntMap;
+import edu.cornell.gdiac.physics.host.HostModel;
+import edu.cornell.gdiac.physics.obstacle.*;
+import edu.cornell.gdiac.physics.spirit.SpiritModel;
+import edu.cornell.gdiac.util.PooledList;
+
+/**
+ * The objects of a level, split into the layers they are drawn in.
+ *
+ * Objects are only sorted into layers when the object list changes or the
+ * layers are invalidated (for example when an object is selected). The
+ * objects drawn with depth are kept in two lists sorted back to front: one
+ * for objects that never move, sorted when the layers are built, and one for
+ * objects that do, sorted again every frame. Since the second list is short
+ * and almost sorted already, an insertion sort is close to linear.
+ *
+ * Only depth sorted objects in view are drawn. The ones that never move are
+ * kept in a uniform grid, so objects far off screen are never looked at.
+ */
+public class DrawLayers {
+
+    /** The width and height of a grid cell, in tiles */
+    private static final int CELL_TILES = 8;
+    /** The width and height of a grid cell, in world units */
+    private static final float CELL_SIZE = CELL_TILES * Constants.TILE_WIDTH;
+
+    /** Tiles drawn flat on the ground that are not in the static cache */
+    private Array<Obstacle> ground;
+    /** Roots that are not in the static cache */
+    private Array<Obstacle> roots;
+    /** Border edges that are not in the static cache */
+    private Array<BorderEdge> edges;
+    /** Walls whose tops are not in the static cache */
+    private Array<Wall> walls;
+    /** Hosts, whose charge is drawn above everything in the level */
+    private Array<HostModel> hosts;
+    /** Objects drawn above everything else (HUD elements, selected objects) */
+    private Array<Obstacle> top;
+    /** Depth sorted objects that never move, back to front */
+    private Array<Obstacle> fixed;
+    /** Depth sorted objects that may move, back to front */
+    private Array<Obstacle> moving;
+    /** Objects whose drawing position may change between steps */
+    private Array<Obstacle> interpolated;
+
+    /** The indices into fixed of the objects in each grid cell */
+    private IntMap<IntArray> cells;
+    /** The indices into fixed of the objects in view, back to front */
+    private IntArray visible;
+    /** The visible area in world units, or null if everything is visible */
+    private Rectangle view;
+
+    /** The object list the layers were built from */
+    private PooledList<Obstacle> source;
+    /** The modification count of the object list when the layers were built */
+    private int version;
+    /** Whether the layers must be built again */
+    private boolean dirty;
+
+    /**
+     * Creates empty draw layers
+     */
+    public DrawLayers() {
+        ground = new Array<Obstacle>(true, 16, Obstacle.class);
+        roots = new Array<Obstacle>(true, 16, Obstacle.class);
+        edges = new Array<BorderEdge>(true, 16, BorderEdge.class);
+        walls = new Array<Wall>(true, 16, Wall.class);
+        hosts = new Array<HostModel>(true, 16, HostModel.class);
+        top = new Array<Obstacle>(true, 16, Obstacle.class);
+        fixed = new Array<Obstacle>(true, 64, Obstacle.class);
+        moving = new Array<Obstacle>(true, 16, Obstacle.class);
+        interpolated = new Array<Obstacle>(true, 16, Obstacle.class);
+        cells = new IntMap<IntArray>();
+        visible = new IntArray();
+        dirty = true;
+    }
+
+    /**
+     * Builds the layers again on the next update
+     *
+     * This must be called when an object changes layer without being added or
+     * removed, such as when it is selected or deselected.
+     */
+    public void invalidate() {
+        dirty = true;
+    }
+
+    /**
+     * Prepares the layers for drawing the given objects
+     *
+     * Objects are culled by their positions, so the view should be large
+     * enough to cover the tallest sprite.
+     *
+     * @param objects The objects of the level
+     * @param alpha   The fraction of a step to interpolate positions by
+     * @param view    The visible area in world units, or null to draw everything
+     */
+    public void update(PooledList<Obstacle> objects, float alpha, Rectangle view) {
+        if (dirty || objects != source || objects.getModificationCount() != version) {
+            build(objects, alpha);
+        }
+        for (int ii = 0; ii < interpolated.size; ii++) {
+            interpolated.items[ii].interpolate(alpha);
+        }
+        sortBackToFront(moving);
+
+        this.view = view;
+        visible.clear();
+        if (view == null) {
+            return;
+        }
+        int cx1 = MathUtils.floor((view.x + view.width) / CELL_SIZE);
+        int cy1 = MathUtils.floor((view.y + view.height) / CELL_SIZE);
+        for (int cx = MathUtils.floor(view.x / CELL_SIZE); cx <= cx1; cx++) {
+            for (int cy = MathUtils.floor(view.y / CELL_SIZE); cy <= cy1; cy++) {
+                IntArray cell = cells.get(key(cx, cy));
+                if (cell != null) {
+                    visible.addAll(cell);
+                }
+            }
+        }
+        // Indices into a sorted list, so sorting them restores the depth order
+        visible.sort();
+    }
+
+    /**
+     * Sorts every object into its layer
+     */
+    private void build(PooledList<Obstacle> objects, float alpha) {
+        ground.clear();
+        roots.clear();
+        edges.clear();
+        walls.clear();
+        hosts.clear();
+        top.clear();
+        fixed.clear();
+        moving.clear();
+        interpolated.clear();
+        for (IntArray cell : cells.values()) {
+            cell.clear();
+        }
+
+        // Static tiles are drawn from the cache, except for the fronts of
+        // walls, which are depth sorted with everything else
+        for (Obstacle obj : objects) {
+            obj.interpolate(alpha);
+            boolean cached = StaticLayerCache.isCached(obj);
+            // Hosts switch between static and dynamic bodies as they are
+            // possessed, so they and the spirit are always treated as moving
+            boolean still = obj.getBodyType() == BodyDef.BodyType.StaticBody
+                    && !(obj instanceof HostModel) && !(obj instanceof SpiritModel);
+            if (obj.inHUD || obj.selected) {
+                top.add(obj);
+                interpolated.add(obj);
+            } else if (obj instanceof Terrain || obj instanceof BorderCorner) {
+                if (!cached) ground.add(obj);
+            } else if (obj instanceof DecorativeRoots) {
+                if (!cached) roots.add(obj);
+            } else if (obj instanceof BorderEdge) {
+                if (!cached) edges.add((BorderEdge) obj);
+            } else {
+                if (still) {
+                    fixed.add(obj);
+                } else {
+                    moving.add(obj);
+                    interpolated.add(obj);
+                }
+                if (obj instanceof HostModel) {
+                    hosts.add((HostModel) obj);
+                } else if (obj instanceof Wall) {
+                    if (!cached) walls.add((Wall) obj);
+                }
+            }
+        }
+        sortBackToFront(fixed);
+        for (int ii = 0; ii < fixed.size; ii++) {
+            Obstacle obj = fixed.items[ii];
+            int key = key(MathUtils.floor(obj.getX() / CELL_SIZE), MathUtils.floor(obj.getY() / CELL_SIZE));
+            IntArray cell = cells.get(key);
+            if (cell == null) {
+                cell = new IntArray();
+                cells.put(key, cell);
+            }
+            cell.add(ii);
+        }
+
+        source = objects;
+        version = objects.getModificationCount();
+        dirty = false;
+    }
+
+    /**
+     * Sorts objects so the furthest away (highest) are first
+     *
+     * This is a stable insertion sort, which is fast on a list that is
+     * already nearly sorted.
+     */
+    private static void sortBackToFront(Array<Obstacle> layer) {
+        Obstacle[] items = layer.items;
+        for (int ii = 1; ii < layer.size; ii++) {
+            Obstacle obj = items[ii];
+            float y = obj.getY();
+            int jj = ii - 1;
+            while (jj >= 0 && items[jj].getY() < y) {
+                items[jj + 1] = items[jj];
+                jj--;
+            }
+            items[jj + 1] = obj;
+        }
+    }
+
+    /**
+     * Draws the depth sorted objects in view back to front
+     *
+     * @param canvas Drawing context
+     */
+    public void drawDepthSorted(GameCanvas canvas) {
+        Obstacle[] still = fixed.items;
+        Obstacle[] moved = moving.items;
+        int count = view == null ? fixed.size : visible.size;
+        int ii = 0;
+        int jj = 0;
+        while (ii < count || jj < moving.size) {
+            Obstacle next = ii < count ? still[view == null ? ii : visible.items[ii]] : null;
+            if (jj == moving.size || (next != null && next.getY() >= moved[jj].getY())) {
+                next.draw(canvas);
+                ii++;
+            } else {
+                Obstacle obj = moved[jj++];
+                if (view == null || view.contains(obj.getDrawX(), obj.getDrawY())) {
+                    obj.draw(canvas);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the map key of the grid cell at the given cell coordinates
+     */
+    private static int key(int cx, int cy) {
+        return (cx << 16) ^ (cy & 0xFFFF);
+    }
+
+    /** Returns the ground tiles that are not in the static cache */
+    public Array<Obstacle> getGround() {
+        return ground;
+    }
+
+    /** Returns the roots that are not in the static cache */
+    public Array<Obstacle> getRoots() {
+        return roots;
+    }
+
+    /** Returns the border edges that are not in the static cache */
+    public Array<BorderEdge> getEdges() {
+        return edges;
+    }
+
+    /** Returns the walls whose tops are not in the static cache */
+    public Array<Wall> getWalls() {
+        return walls;
+    }
+
+    /** Returns the hosts of the level */
+    public Array<HostModel> getHosts() {
+        return hosts;
+    }
+
+    /** Returns the objects drawn above everything else */
+    public Array<Obstacle> getTop() {
+        return top;
+    }
+}
@@ -5,6 +5,8 @@ import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.physics.box2d.BodyDef;
+import com.badlogic.gdx.physics.box2d.Filter;
+import com.badlogic.gdx.utils.Pool;
 import edu.cornell.gdiac.physics.host.HostModel;
 import edu.cornell.gdiac.physics.obstacle.*;
 import edu.cornell.gdiac.physics.spirit.SpiritModel;
@@ -16,36 +18,73 @@ public class Factory {
     private static int SPIRIT_BOUNCES = 8;
     private static int DEFAULT_LIFE = 250;
 
-    private Texture hostChargeTexture;
-    private Texture hostShadow;
-    private Texture hostTextureE;
-    private Texture hostTextureN;
-    private Texture hostTextureNE;
-    private Texture hostTextureNW;
-    private Texture hostTextureS;
-    private Texture hostTextureSE;
-    private Texture hostTextureSW;
-    private Texture hostTextureW;
-    private Texture glyphTextureE;
-    private Texture glyphTextureN;
-    private Texture glyphTextureNE;
-    private Texture glyphTextureNW;
-    private Texture glyphTextureS;
-    private Texture glyphTextureSE;
-    private Texture glyphTextureSW;
-    private Texture glyphTextureW;
-    private Texture hostDeathTextureE;
-    private Texture hostDeathTextureN;
-    private Texture hostDeathTextureNE;
-    private Texture hostDeathTextureNW;
-    private Texture hostDeathTextureS;
-    private Texture hostDeathTextureSE;
-    private Texture hostDeathTextureSW;
-    private Texture hostDeathTextureW;
-    private Texture hostWakingUp;
-    private Texture hostNewPossession;
-    private Texture hostGenPossession;
-    private Texture hostArmTexture;
+    /*
+     * Collision categories. Each kind of object has its own bit, so the
+     * category doubles as a type tag in CollisionController. Bit 0x0001 is
+     * left for objects not made here, which keep the Box2D default filter.
+     */
+    public static final short CATEGORY_WALL = 0x0002;
+    /** Border edges and corners */
+    public static final short CATEGORY_EDGE = 0x0004;
+    public static final short CATEGORY_ENERGY_PILLAR = 0x0008;
+    public static final short CATEGORY_OSC_WALL = 0x0010;
+    public static final short CATEGORY_WATER = 0x0020;
+    public static final short CATEGORY_SAND = 0x0040;
+    public static final short CATEGORY_PEDESTAL = 0x0080;
+    public static final short CATEGORY_HOST = 0x0100;
+    public static final short CATEGORY_SPIRIT = 0x0200;
+    /** The charge field sensor around an energy pillar */
+    public static final short CATEGORY_PILLAR_FIELD = 0x0400;
+
+    /*
+     * Collision filters. Contacts that are always ignored are masked out so
+     * Box2D never creates them. Sand still touches hosts, since that is how a
+     * host knows it is in sand, and the spirit still touches hosts to possess
+     * them; both are disabled in CollisionController instead.
+     */
+    private static final Filter FILTER_WALL = makeFilter(CATEGORY_WALL, ~CATEGORY_SAND);
+    private static final Filter FILTER_EDGE = makeFilter(CATEGORY_EDGE, ~CATEGORY_SAND);
+    private static final Filter FILTER_ENERGY_PILLAR = makeFilter(CATEGORY_ENERGY_PILLAR, ~CATEGORY_SAND);
+    private static final Filter FILTER_PILLAR_FIELD = makeFilter(CATEGORY_PILLAR_FIELD, CATEGORY_HOST | CATEGORY_PEDESTAL);
+    private static final Filter FILTER_OSC_WALL = makeFilter(CATEGORY_OSC_WALL, ~CATEGORY_SAND);
+    private static final Filter FILTER_WATER = makeFilter(CATEGORY_WATER, ~(CATEGORY_SPIRIT | CATEGORY_SAND));
+    private static final Filter FILTER_SAND = makeFilter(CATEGORY_SAND, CATEGORY_HOST);
+    private static final Filter FILTER_PEDESTAL = makeFilter(CATEGORY_PEDESTAL,
+            ~(CATEGORY_SPIRIT | CATEGORY_HOST | CATEGORY_SAND));
+    private static final Filter FILTER_HOST = makeFilter(CATEGORY_HOST, ~CATEGORY_PEDESTAL);
+    private static final Filter FILTER_SPIRIT = makeFilter(CATEGORY_SPIRIT,
+            ~(CATEGORY_WATER | CATEGORY_PEDESTAL | CATEGORY_SAND));
+
+    private TextureRegion hostChargeTexture;
+    private TextureRegion hostShadow;
+    private TextureRegion hostTextureE;
+    private TextureRegion hostTextureN;
+    private TextureRegion hostTextureNE;
+    private TextureRegion hostTextureNW;
+    private TextureRegion hostTextureS;
+    private TextureRegion hostTextureSE;
+    private TextureRegion hostTextureSW;
+    private TextureRegion hostTextureW;
+    private TextureRegion glyphTextureE;
+    private TextureRegion glyphTextureN;
+    private TextureRegion glyphTextureNE;
+    private TextureRegion glyphTextureNW;
+    private TextureRegion glyphTextureS;
+    private TextureRegion glyphTextureSE;
+    private TextureRegion glyphTextureSW;
+    private TextureRegion glyphTextureW;
+    private TextureRegion hostDeathTextureE;
+    private TextureRegion hostDeathTextureN;
+    private TextureRegion hostDeathTextureNE;
+    private TextureRegion hostDeathTextureNW;
+    private TextureRegion hostDeathTextureS;
+    private TextureRegion hostDeathTextureSE;
+    private TextureRegion hostDeathTextureSW;
+    private TextureRegion hostDeathTextureW;
+    private TextureRegion hostWakingUp;
+    private TextureRegion hostNewPossession;
+    private TextureRegion hostGenPossession;
+    private TextureRegion hostArmTexture;
     private Texture wallDayTexture;
     private Texture wallNightTexture;
     private Texture waterTexture;
@@ -56,24 +95,24 @@ public class Factory {
     private Texture sandNightTexture;
     private Texture cornerSandTexture;
     private Texture cornerSandNightTexture;
-    private Texture pedestalTexture;
-    private Texture pedestalNightTexture;
+    private TextureRegion pedestalTexture;
+    private TextureRegion pedestalNightTexture;
     private Texture spiritBodyTexture;
-    private Texture spiritHeadTexture;
-    private Texture spiritTailTexture;
+    private TextureRegion spiritHeadTexture;
+    private TextureRegion spiritTailTexture;
     private Texture borderEdgeTexture;
     private Texture borderEdgeNightTexture;
     private Texture borderCornerTexture;
     private Texture borderCornerNightTexture;
-    private Texture energyPillarBodyTexture;
-    private Texture energyPillarBodyChargeTexture;
-    private Texture energyPillarRadiusTexture;
+    private TextureRegion energyPillarBodyTexture;
+    private TextureRegion energyPillarBodyChargeTexture;
+    private TextureRegion energyPillarRadiusTexture;
     private Texture oscWallVertTexture;
     private Texture oscWallVertNightTexture;
     private Texture oscWallVertGaugeTexture;
-    private Texture oscWallHorzTexture;
-    private Texture oscWallHorzNightTexture;
-    private Texture oscWallHorzGaugeTexture;
+    private TextureRegion oscWallHorzTexture;
+    private TextureRegion oscWallHorzNightTexture;
+    private TextureRegion oscWallHorzGaugeTexture;
     private Texture rootsTexture;
     private Texture rootsNightTexture;
 
@@ -229,6 +268,60 @@ public class Factory {
     /** Opacity of night */
     private Color opacity;
 
+    /** Tile opacity once the night tile sheets are blended into the day ones */
+    private static final Color NO_NIGHT = new Color(1, 1, 1, 0);
+
+    /** Blends the night tile sheets into the day ones, if set */
+    private NightCompositor compositor;
+    /** Opacity of night for tiles; clear when the sheets are blended */
+    private Color tileOpacity;
+    /** The roots sheet tiles are made from, blended or not */
+    private Texture rootsTileTexture;
+
+
+    /*
+     * Frames of the tile sheets. Tiles never animate, so every tile of a kind
+     * shares these and only keeps its frame numbers.
+     */
+    private TextureRegion[] wallFrames;
+    private TextureRegion[] wallNightFrames;
+    private TextureRegion[] waterFrames;
+    private TextureRegion[] waterNightFrames;
+    private TextureRegion[] waterCornerFrames;
+    private TextureRegion[] waterCornerNightFrames;
+    private TextureRegion[] sandFrames;
+    private TextureRegion[] sandNightFrames;
+    private TextureRegion[] sandCornerFrames;
+    private TextureRegion[] sandCornerNightFrames;
+    private TextureRegion[] borderEdgeFrames;
+    private TextureRegion[] borderEdgeNightFrames;
+    private TextureRegion[] borderCornerFrames;
+    private TextureRegion[] borderCornerNightFrames;
+
+    /** Walls, water and sand of old levels, reused by the next level loaded */
+    private Pool<Wall> wallPool = new Pool<Wall>() {
+        protected Wall newObject() {
+            return new Wall(0, 0, Constants.TILE_WIDTH, Constants.TILE_HEIGHT, wallFrames, wallNightFrames);
+        }
+    };
+    private Pool<WaterTile> waterPool = new Pool<WaterTile>() {
+        protected WaterTile newObject() {
+            WaterTile water = new WaterTile(0, 0, Constants.TILE_WIDTH, Constants.TILE_HEIGHT);
+            water.setTerrainFrames(waterFrames);
+            water.setTerrainNightFrames(waterNightFrames, tileOpacity);
+            water.setCornerFrames(waterCornerFrames, waterCornerNightFrames);
+            return water;
+        }
+    };
+    private Pool<SandTile> sandPool = new Pool<SandTile>() {
+        protected SandTile newObject() {
+            SandTile sand = new SandTile(0, 0, Constants.TILE_WIDTH, Constants.TILE_HEIGHT);
+            sand.setTerrainFrames(sandFrames);
+            sand.setTerrainNightFrames(sandNightFrames, tileOpacity);
+            sand.setCornerFrames(sandCornerFrames, sandCornerNightFrames);
+            return sand;
+        }
+    };
 
     /** Can be set. If true, instantiated objects are sensors */
     public boolean makeSensors;
@@ -240,38 +333,38 @@ public class Factory {
     public Factory(
             Vector2 scale,
             Texture spiritBodyTexture,
-            Texture spiritHeadTexture,
-            Texture spiritTailTexture,
-            Texture hostChargeTexture,
-            Texture hostShadow,
-            Texture hostTextureE,
-            Texture hostTextureN,
-            Texture hostTextureNE,
-            Texture hostTextureNW,
-            Texture hostTextureS,
-            Texture hostTextureSE,
-            Texture hostTextureSW,
-            Texture hostTextureW,
-            Texture hostGlyphTextureE,
-            Texture hostGlyphTextureN,
-            Texture hostGlyphTextureNE,
-            Texture hostGlyphTextureNW,
-            Texture hostGlyphTextureS,
-            Texture hostGlyphTextureSE,
-            Texture hostGlyphTextureSW,
-            Texture hostGlyphTextureW,
-            Texture hostDeathTextureE,
-            Texture hostDeathTextureN,
-            Texture hostDeathTextureNE,
-            Texture hostDeathTextureNW,
-            Texture hostDeathTextureS,
-            Texture hostDeathTextureSE,
-            Texture hostDeathTextureSW,
-            Texture hostDeathTextureW,
-            Texture hostArmTexture,
-            Texture hostNewPossession,
-            Texture hostGenPossession,
-            Texture hostWakeUp,
+            TextureRegion spiritHeadTexture,
+            TextureRegion spiritTailTexture,
+            TextureRegion hostChargeTexture,
+            TextureRegion hostShadow,
+            TextureRegion hostTextureE,
+            TextureRegion hostTextureN,
+            TextureRegion hostTextureNE,
+            TextureRegion hostTextureNW,
+            TextureRegion hostTextureS,
+            TextureRegion hostTextureSE,
+            TextureRegion hostTextureSW,
+            TextureRegion hostTextureW,
+            TextureRegion hostGlyphTextureE,
+            TextureRegion hostGlyphTextureN,
+            TextureRegion hostGlyphTextureNE,
+            TextureRegion hostGlyphTextureNW,
+            TextureRegion hostGlyphTextureS,
+            TextureRegion hostGlyphTextureSE,
+            TextureRegion hostGlyphTextureSW,
+            TextureRegion hostGlyphTextureW,
+            TextureRegion hostDeathTextureE,
+            TextureRegion hostDeathTextureN,
+            TextureRegion hostDeathTextureNE,
+            TextureRegion hostDeathTextureNW,
+            TextureRegion hostDeathTextureS,
+            TextureRegion hostDeathTextureSE,
+            TextureRegion hostDeathTextureSW,
+            TextureRegion hostDeathTextureW,
+            TextureRegion hostArmTexture,
+            TextureRegion hostNewPossession,
+            TextureRegion hostGenPossession,
+            TextureRegion hostWakeUp,
             Texture wallDayTexture,
             Texture wallNightTexture,
             Texture waterTexture,
@@ -282,21 +375,21 @@ public class Factory {
             Texture sandNightTexture,
             Texture cornerSandTexture,
             Texture cornerSandNightTexture,
-            Texture pedestalTexture,
-            Texture pedestalNightTexture,
+            TextureRegion pedestalTexture,
+            TextureRegion pedestalNightTexture,
             Texture borderEdgeTexture,
             Texture borderEdgeNightTexture,
             Texture borderCornerTexture,
             Texture borderCornerNightTexture,
-            Texture energyPillarBodyTexture,
-            Texture energyPillarBodyChargeTexture,
-            Texture energyPillarRadiusTexture,
+            TextureRegion energyPillarBodyTexture,
+            TextureRegion energyPillarBodyChargeTexture,
+            TextureRegion energyPillarRadiusTexture,
             Texture oscWallVertTexture,
             Texture oscWallVertNightTexture,
             Texture oscWallVertGaugeTexture,
-            Texture oscWallHorzTexture,
-            Texture oscWallHorzNightTexture,
-            Texture oscWallHorzGaugeTexture,
+            TextureRegion oscWallHorzTexture,
+            TextureRegion oscWallHorzNightTexture,
+            TextureRegion oscWallHorzGaugeTexture,
             Texture rootsTexture,
             Texture rootsNightTexture
     ) {
@@ -364,11 +457,88 @@ public class Factory {
 
         this.hostShadowRegion = new TextureRegion(hostShadow);
 
+        wallFrames = FilmStrip.split(wallDayTexture, WALL_ROWS, WALL_COLUMNS, WALL_SIZE);
+        wallNightFrames = FilmStrip.split(wallNightTexture, WALL_ROWS, WALL_COLUMNS, WALL_SIZE);
+        waterFrames = FilmStrip.split(waterTexture, WATER_ROWS, WATER_COLUMNS, WATER_SIZE);
+        waterNightFrames = FilmStrip.split(waterNightTexture, WATER_ROWS, WATER_COLUMNS, WATER_SIZE);
+        waterCornerFrames = FilmStrip.split(cornerTexture, WATER_CORNER_ROWS, WATER_CORNER_COLUMNS, WATER_CORNER_SIZE);
+        waterCornerNightFrames = FilmStrip.split(cornerNightTexture, WATER_CORNER_ROWS, WATER_CORNER_COLUMNS, WATER_CORNER_SIZE);
+        sandFrames = FilmStrip.split(sandTexture, WATER_ROWS, WATER_COLUMNS, WATER_SIZE);
+        sandNightFrames = FilmStrip.split(sandNightTexture, WATER_ROWS, WATER_COLUMNS, WATER_SIZE);
+        sandCornerFrames = FilmStrip.split(cornerSandTexture, WATER_CORNER_ROWS, WATER_CORNER_COLUMNS, WATER_CORNER_SIZE);
+        sandCornerNightFrames = FilmStrip.split(cornerSandNightTexture, WATER_CORNER_ROWS, WATER_CORNER_COLUMNS, WATER_CORNER_SIZE);
+        borderEdgeFrames = FilmStrip.split(borderEdgeTexture, BORDER_EDGE_ROWS, BORDER_EDGE_COLUMNS,
+                BORDER_EDGE_ROWS * BORDER_EDGE_COLUMNS);
+        borderEdgeNightFrames = FilmStrip.split(borderEdgeNightTexture, BORDER_EDGE_ROWS, BORDER_EDGE_COLUMNS,
+                BORDER_EDGE_ROWS * BORDER_EDGE_COLUMNS);
+        borderCornerFrames = FilmStrip.split(borderCornerTexture, BORDER_CORNER_ROWS, BORDER_CORNER_COLUMNS,
+                BORDER_CORNER_ROWS * BORDER_CORNER_COLUMNS);
+        borderCornerNightFrames = FilmStrip.split(borderCornerNightTexture, BORDER_CORNER_ROWS, BORDER_CORNER_COLUMNS,
+                BORDER_CORNER_ROWS * BORDER_CORNER_COLUMNS);
+
         this.opacity = Color.WHITE;
+        this.tileOpacity = opacity;
+        this.rootsTileTexture = rootsTexture;
+    }
+
+    /**
+     * Sets the compositor used to blend the night tile sheets ahead of time
+     *
+     * Without one, tiles draw their night texture over the day one every frame.
+     */
+    public void setNightCompositor(NightCompositor compositor) {
+        this.compositor = compositor;
     }
 
     public void setOpacity(Color opacity) {
         this.opacity = opacity;
+        compositeTiles();
+    }
+
+    /**
+     * Blends the night tile sheets into the day ones at the current opacity
+     *
+     * The shared frame tables are moved to the blended sheets, which have the
+     * same layout, and tiles are given a clear night opacity so they draw once.
+     * Objects made before this call keep their opacity, so it should be called
+     * before a level is made. If the sheets cannot be blended, the tables go back
+     * to the day sheets and tiles draw both.
+     */
+    private void compositeTiles() {
+        Texture wall = null, water = null, waterCorner = null, sand = null, sandCorner = null;
+        Texture edge = null, corner = null, roots = null;
+        float night = opacity.a;
+        if (compositor != null && night > 0) {
+            wall = compositor.composite(wallDayTexture, wallNightTexture, night);
+            water = compositor.composite(waterTexture, waterNightTexture, night);
+            waterCorner = compositor.composite(cornerTexture, cornerNightTexture, night);
+            sand = compositor.composite(sandTexture, sandNightTexture, night);
+            sandCorner = compositor.composite(cornerSandTexture, cornerSandNightTexture, night);
+            edge = compositor.composite(borderEdgeTexture, borderEdgeNightTexture, night);
+            corner = compositor.composite(borderCornerTexture, borderCornerNightTexture, night);
+            roots = compositor.composite(rootsTexture, rootsNightTexture, night);
+        }
+
+        boolean blended = wall != null && water != null && waterCorner != null && sand != null
+                && sandCorner != null && edge != null && corner != null && roots != null;
+        retexture(wallFrames, blended ? wall : wallDayTexture);
+        retexture(waterFrames, blended ? water : waterTexture);
+        retexture(waterCornerFrames, blended ? waterCorner : cornerTexture);
+        retexture(sandFrames, blended ? sand : sandTexture);
+        retexture(sandCornerFrames, blended ? sandCorner : cornerSandTexture);
+        retexture(borderEdgeFrames, blended ? edge : borderEdgeTexture);
+        retexture(borderCornerFrames, blended ? corner : borderCornerTexture);
+        rootsTileTexture = blended ? roots : rootsTexture;
+        tileOpacity = blended ? NO_NIGHT : opacity;
+    }
+
+    /**
+     * Moves every frame to a texture of the same size, keeping its coordinates
+     */
+    private static void retexture(TextureRegion[] frames, Texture texture) {
+        for (TextureRegion frame : frames) {
+            frame.setTexture(texture);
+        }
     }
 
     public DecorativeRoots makeDecorativeRoot(float x, float y, int frame) {
@@ -379,12 +549,12 @@ public class Factory {
                 Constants.TILE_HEIGHT,
                 frame
         );
-        FilmStrip tex = new FilmStrip(rootsTexture, ROOTS_ROWS, ROOTS_COLUMNS);
+        FilmStrip tex = new FilmStrip(rootsTileTexture, ROOTS_ROWS, ROOTS_COLUMNS);
         FilmStrip texNight = new FilmStrip(rootsNightTexture, ROOTS_ROWS, ROOTS_COLUMNS);
         tex.setFrame(frame);
         texNight.setFrame(frame);
         roots.setTexture(tex);
-        roots.setNightTexture(texNight, opacity);
+        roots.setNightTexture(texNight, tileOpacity);
         roots.setDrawScale(scale);
         roots.setBodyType(BodyDef.BodyType.StaticBody);
         roots.setSensor(true); // They should never obstruct other objects
@@ -407,6 +577,8 @@ public class Factory {
         engPill.setBodyType(BodyDef.BodyType.StaticBody);
         engPill.setSensor(makeSensors);
         engPill.setName("energyPillar");
+        engPill.setFilterData(FILTER_ENERGY_PILLAR);
+        engPill.setFieldFilterData(FILTER_PILLAR_FIELD);
         return engPill;
     }
 
@@ -416,13 +588,14 @@ public class Factory {
                 y,
                 Constants.TILE_WIDTH,
                 Constants.TILE_HEIGHT,
-                new FilmStrip(wallNightTexture, WALL_ROWS, WALL_COLUMNS, WALL_SIZE),
-                new FilmStrip(wallDayTexture, WALL_ROWS, WALL_COLUMNS, WALL_SIZE)
+                wallNightFrames,
+                wallFrames
         );
         wall.setDrawScale(scale);
         wall.setBodyType(BodyDef.BodyType.StaticBody);
         wall.setSensor(makeSensors);
         wall.setName("wall");
+        wall.setFilterData(FILTER_WALL);
         if(makeTileSized) {
             wall.setWidth(Constants.TILE_WIDTH);
             wall.setHeight(Constants.TILE_HEIGHT);
@@ -434,14 +607,15 @@ public class Factory {
                          int frontEdgeFrame, int backEdgeFrame,
                          int lowerLeftCornerFrame, int lowerRightCornerFrame, Color opacity) {
 
-        this.opacity = opacity;
-        Wall wall = new Wall(
+        if (opacity != this.opacity) {
+            setOpacity(opacity);
+        }
+        Wall wall = wallPool.obtain();
+        wall.recycle(
                 x,
                 y,
                 Constants.TILE_WIDTH,
                 Constants.TILE_HEIGHT,
-                new FilmStrip(wallDayTexture, WALL_ROWS, WALL_COLUMNS, WALL_SIZE),
-                new FilmStrip(wallNightTexture, WALL_ROWS, WALL_COLUMNS, WALL_SIZE),
                 primaryFrame,
                 leftFrame,
                 rightFrame,
@@ -449,13 +623,14 @@ public class Factory {
                 backEdgeFrame,
                 lowerLeftCornerFrame,
                 lowerRightCornerFrame,
-                opacity
+                tileOpacity
         );
 
         wall.setDrawScale(scale);
         wall.setBodyType(BodyDef.BodyType.StaticBody);
         wall.setSensor(makeSensors);
         wall.setName("wall");
+        wall.setFilterData(FILTER_WALL);
         if(makeTileSized) {
             wall.setWidth(Constants.TILE_WIDTH);
             wall.setHeight(Constants.TILE_HEIGHT);
@@ -470,14 +645,15 @@ public class Factory {
                 Constants.TILE_WIDTH,
                 Constants.TILE_HEIGHT,
                 side,
-                new FilmStrip(borderEdgeTexture, BORDER_EDGE_ROWS, BORDER_EDGE_COLUMNS),
-                new FilmStrip(borderEdgeNightTexture, BORDER_EDGE_ROWS, BORDER_EDGE_COLUMNS)
+                borderEdgeFrames,
+                borderEdgeNightFrames
         );
         edge.selectable = false;
         edge.setDrawScale(scale);
         edge.setBodyType(BodyDef.BodyType.StaticBody);
         edge.setSensor(makeSensors);
         edge.setName("edge");
+        edge.setFilterData(FILTER_EDGE);
         return edge;
     }
 
@@ -489,9 +665,9 @@ public class Factory {
                 Constants.TILE_HEIGHT,
                 side,
                 frame,
-                new FilmStrip(borderEdgeTexture, BORDER_EDGE_ROWS, BORDER_EDGE_COLUMNS),
-                new FilmStrip(borderEdgeNightTexture, BORDER_EDGE_ROWS, BORDER_EDGE_COLUMNS),
-                opacity
+                borderEdgeFrames,
+                borderEdgeNightFrames,
+                tileOpacity
                 //new FilmStrip(borderEdgeNightTexture, BORDER_EDGE_ROWS, BORDER_EDGE_COLUMNS),
                 //opacity
         );
@@ -500,6 +676,7 @@ public class Factory {
         edge.setBodyType(BodyDef.BodyType.StaticBody);
         edge.setSensor(makeSensors);
         edge.setName("edge");
+        edge.setFilterData(FILTER_EDGE);
         return edge;
     }
 
@@ -510,15 +687,16 @@ public class Factory {
                 Constants.TILE_WIDTH,
                 Constants.TILE_HEIGHT,
                 c,
-                new FilmStrip(borderCornerTexture, BORDER_CORNER_ROWS, BORDER_CORNER_COLUMNS),
-                new FilmStrip(borderCornerNightTexture, BORDER_CORNER_ROWS, BORDER_CORNER_COLUMNS),
-                opacity
+                borderCornerFrames,
+                borderCornerNightFrames,
+                tileOpacity
         );
         corner.selectable = false;
         corner.setDrawScale(scale);
         corner.setBodyType(BodyDef.BodyType.StaticBody);
         corner.setSensor(makeSensors);
         corner.setName("corner");
+        corner.setFilterData(FILTER_EDGE);
         return corner;
     }
 
@@ -527,22 +705,13 @@ public class Factory {
     }
 
     public WaterTile makeWater(float x, float y, int frame) {
-        WaterTile water = new WaterTile(
-                x,
-                y,
-                Constants.TILE_WIDTH,
-                Constants.TILE_HEIGHT
-        );
-
-        water.setTerrainStrip(new FilmStrip(waterTexture, WATER_ROWS, WATER_COLUMNS, WATER_SIZE));
-        water.setTerrainNightStrip(new FilmStrip(waterNightTexture, WATER_ROWS, WATER_COLUMNS, WATER_SIZE), opacity);
-        water.setCornerStrip(new FilmStrip(cornerTexture, WATER_CORNER_ROWS, WATER_CORNER_COLUMNS, WATER_CORNER_SIZE),
-                             new FilmStrip(cornerNightTexture, WATER_CORNER_ROWS, WATER_CORNER_COLUMNS, WATER_CORNER_SIZE));
+        WaterTile water = waterPool.obtain();
+        water.recycle(x, y, frame, tileOpacity);
         water.setDrawScale(scale);
-        water.setFrame(frame);
         water.setBodyType(BodyDef.BodyType.StaticBody);
         water.setSensor(makeSensors);
         water.setName("water");
+        water.setFilterData(FILTER_WATER);
         if(makeTileSized) {
             water.setWidth(Constants.TILE_WIDTH);
             water.setHeight(Constants.TILE_HEIGHT);
@@ -555,21 +724,13 @@ public class Factory {
     }
 
     public SandTile makeSand(float x, float y, int frame) {
-        SandTile sand = new SandTile(
-                x,
-                y,
-                Constants.TILE_WIDTH,
-                Constants.TILE_HEIGHT
-        );
-        sand.setTerrainStrip(new FilmStrip(sandTexture, WATER_ROWS, WATER_COLUMNS, WATER_SIZE));
-        sand.setTerrainNightStrip(new FilmStrip(sandNightTexture, WATER_ROWS, WATER_COLUMNS, WATER_SIZE), opacity);
-        sand.setCornerStrip(new FilmStrip(cornerSandTexture, WATER_CORNER_ROWS, WATER_CORNER_COLUMNS, WATER_CORNER_SIZE),
-                            new FilmStrip(cornerSandNightTexture, WATER_CORNER_ROWS, WATER_CORNER_COLUMNS, WATER_CORNER_SIZE));
+        SandTile sand = sandPool.obtain();
+        sand.recycle(x, y, frame, tileOpacity);
         sand.setDrawScale(scale);
-        sand.setFrame(frame);
         sand.setBodyType(BodyDef.BodyType.KinematicBody);
         sand.setSensor(makeSensors);
         sand.setName("sand");
+        sand.setFilterData(FILTER_SAND);
         if(makeTileSized) {
             sand.setWidth(Constants.TILE_WIDTH);
             sand.setHeight(Constants.TILE_HEIGHT);
@@ -613,6 +774,7 @@ public class Factory {
         oscWall.setBodyType(BodyDef.BodyType.KinematicBody);
         oscWall.setSensor(makeSensors);
         oscWall.setName("oscWall");
+        oscWall.setFilterData(FILTER_OSC_WALL);
         if(makeTileSized) {
             oscWall.setWidth(Constants.TILE_WIDTH);
             oscWall.setHeight(Constants.TILE_HEIGHT);
@@ -625,8 +787,8 @@ public class Factory {
         SpiritModel spirit = new SpiritModel(
                 x,
                 y,
-                (spiritHeadTexture.getWidth() / (SPIRIT_COLUMNS * 12)) / scale.x,
-                (spiritHeadTexture.getHeight() / (SPIRIT_ROWS * 4)) / scale.y,
+                (spiritHeadTexture.getRegionWidth() / (SPIRIT_COLUMNS * 12)) / scale.x,
+                (spiritHeadTexture.getRegionHeight() / (SPIRIT_ROWS * 4)) / scale.y,
                 SPIRIT_LIVES,
                 SPIRIT_BOUNCES,
                 DEFAULT_LIFE
@@ -639,24 +801,42 @@ public class Factory {
                 new FilmStrip(spiritHeadTexture, SPIRIT_ROWS, SPIRIT_COLUMNS, SPIRIT_SIZE),
                 new FilmStrip(spiritTailTexture, SPIRIT_ROWS, SPIRIT_COLUMNS, SPIRIT_SIZE));
         spirit.setSensor(makeSensors);
+        spirit.setFilterData(FILTER_SPIRIT);
         return spirit;
     }
 
     public HostModel makeSmallHost(float x, float y) {
-        return makeSmallHost(x, y, null, 0);
+        return makeSmallHost(x, y, (Vector2[]) null, 0);
     }
 
     public HostModel makeSmallHost(float x, float y, Vector2[] instructions, int currentCharge) {
         return makeHostInternal(x, y, instructions, SMALL_MAX_CHARGE, currentCharge);
     }
 
+    /**
+     * Makes a small host whose instructions are given as x, y pairs
+     *
+     * A NaN x coordinate stands for a missing instruction.
+     */
+    public HostModel makeSmallHost(float x, float y, float[] path, int currentCharge) {
+        Vector2[] instructions = null;
+        if (path != null) {
+            instructions = new Vector2[path.length / 2];
+            for (int i = 0; i < instructions.length; i++) {
+                float ix = path[2 * i];
+                instructions[i] = Float.isNaN(ix) ? null : new Vector2(ix, path[2 * i + 1]);
+            }
+        }
+        return makeHostInternal(x, y, instructions, SMALL_MAX_CHARGE, currentCharge);
+    }
+
     public HostModel makePedestal(float x, float y) {
         return makePedestalInternal(x, y, pedestalTexture, pedestalNightTexture);
     }
 
     // TODO: add medium and large host make functions
 
-    private HostModel makePedestalInternal(float x, float y, Texture pedestalTexture, Texture pedestalNightTexture) {
+    private HostModel makePedestalInternal(float x, float y, TextureRegion pedestalTexture, TextureRegion pedestalNightTexture) {
         HostModel ped = new HostModel(
                 x,
                 y,
@@ -668,6 +848,7 @@ public class Factory {
         ped.setPedestalStrip(new FilmStrip(pedestalTexture, PEDESTAL_ROWS, PEDESTAL_COLS, PEDESTAL_SIZE));
         ped.setPedestalNightStrip(new FilmStrip(pedestalNightTexture, PEDESTAL_ROWS, PEDESTAL_COLS, PEDESTAL_SIZE), opacity);
         ped.setName("pedestal");
+        ped.setFilterData(FILTER_PEDESTAL);
         ped.setSensor(makeSensors);
         if(makeTileSized) {
             ped.setWidth(Constants.TILE_WIDTH);
@@ -709,6 +890,7 @@ public class Factory {
                 new FilmStrip(hostWakingUp, HOST_WAKE_UP_ROWS, HOST_WAKE_UP_COLS, HOST_WAKE_UP_SIZE));
         host.setCurrentCharge(currentCharge);
         host.setName("host");
+        host.setFilterData(FILTER_HOST);
         host.setSensor(makeSensors);
         if(makeTileSized) {
             host.setWidth(Constants.TILE_WIDTH);
@@ -716,4 +898,34 @@ public class Factory {
         }
         return host;
     }
-}
\ No newline at end of file
+
+    /**
+     * Takes back the walls, water and sand of a level that is no longer used
+     * <p>
+     * The next levels made by this factory reuse them. The level must already
+     * be out of the world, and nothing may use its obstacles afterwards.
+     *
+     * @param level The level to take apart
+     */
+    public void free(Level level) {
+        for (Wall wall : level.walls) {
+            wallPool.free(wall);
+        }
+        for (WaterTile water : level.water) {
+            waterPool.free(water);
+        }
+        for (SandTile sand : level.sand) {
+            sandPool.free(sand);
+        }
+    }
+
+    /**
+     * Returns a collision filter with the given category and mask
+     */
+    private static Filter makeFilter(int category, int mask) {
+        Filter filter = new Filter();
+        filter.categoryBits = (short) category;
+        filter.maskBits = (short) mask;
+        return filter;
+    }
+}
@@ -9,6 +9,7 @@ import com.badlogic.gdx.Screen;
 import com.badlogic.gdx.assets.AssetManager;
 import com.badlogic.gdx.assets.loaders.FileHandleResolver;
 import com.badlogic.gdx.assets.loaders.resolvers.InternalFileHandleResolver;
+import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator;
 import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGeneratorLoader;
@@ -16,6 +17,9 @@ import com.badlogic.gdx.graphics.g2d.freetype.FreetypeFontLoader;
 import com.badlogic.gdx.math.Vector2;
 import edu.cornell.gdiac.util.MusicController;
 import edu.cornell.gdiac.util.ScreenListener;
+import edu.cornell.gdiac.util.SpriteAtlas;
+
+import java.util.ArrayList;
 
 
 /**
@@ -49,6 +53,11 @@ public class GDXRoot extends Game implements ScreenListener {
 	private boolean goLevelDesigner = false;
 
 	private GameOver gameOver;
+
+	/** Whether to run the level solver over every level and quit, instead of playing */
+	private boolean solveLevels;
+	/** A replay to play back headlessly and quit, instead of playing; may be null */
+	private String replayFile;
 	
 	/**
 	 * Creates a new game from the configuration settings.
@@ -57,6 +66,18 @@ public class GDXRoot extends Game implements ScreenListener {
 	 * or assign any screen.
 	 */
 	public GDXRoot() {
+		this(false, null);
+	}
+
+	/**
+	 * Creates a new game from the configuration settings.
+	 *
+	 * @param solveLevels Whether to solve every level and quit once assets load
+	 * @param replayFile  A replay to play back and quit once assets load, or null
+	 */
+	public GDXRoot(boolean solveLevels, String replayFile) {
+		this.solveLevels = solveLevels;
+		this.replayFile = replayFile;
 		// Start loading with the asset manager
 		manager = new AssetManager();
 
@@ -64,6 +85,9 @@ public class GDXRoot extends Game implements ScreenListener {
 		FileHandleResolver resolver = new InternalFileHandleResolver();
 		manager.setLoader(FreeTypeFontGenerator.class, new FreeTypeFontGeneratorLoader(resolver));
 		manager.setLoader(BitmapFont.class, ".ttf", new FreetypeFontLoader(resolver));
+
+		// Add support for sprites packed at load time
+		manager.setLoader(SpriteAtlas.class, new SpriteAtlas.Loader(resolver));
 	}
 
 	/** 
@@ -106,6 +130,7 @@ public class GDXRoot extends Game implements ScreenListener {
 		levelSelect.dispose();
 		levelDesigner.dispose();
 		MusicController.getInstance().removeAll();
+		LevelCatalog.disposeInstance();
 
 		canvas.dispose();
 		canvas = null;
@@ -130,6 +155,51 @@ public class GDXRoot extends Game implements ScreenListener {
 		super.resize(width,height);
 	}
 
+	/**
+	 * Called when the Application should render itself.
+	 *
+	 * In solver or replay mode, this waits for the assets and then runs the tool.
+	 */
+	public void render() {
+		if ((solveLevels || replayFile != null) && manager.update()) {
+			controller.loadContent(manager);
+			controller.setCanvas(canvas);
+			if (solveLevels) { solveAllLevels(); }
+			if (replayFile != null) { playReplay(); }
+			solveLevels = false;
+			replayFile = null;
+			Gdx.app.exit();
+			return;
+		}
+		super.render();
+	}
+
+	/**
+	 * Runs the level solver over the preset and custom levels, printing a report
+	 */
+	private void solveAllLevels() {
+		ArrayList<FileHandle> files = new ArrayList<FileHandle>();
+		controller.getLevels(false);
+		files.addAll(controller.levels);
+		controller.getLevels(true);
+		files.addAll(controller.levels);
+
+		LevelSolver solver = new LevelSolver(controller.loader, Runtime.getRuntime().availableProcessors());
+		solver.solveAll(files);
+		solver.dispose();
+	}
+
+	/**
+	 * Plays the replay file back as fast as possible, printing how it ended
+	 */
+	private void playReplay() {
+		ReplayDriver driver = new ReplayDriver(controller.loader);
+		ReplayDriver.Result result = driver.play(Gdx.files.local(replayFile));
+		if (result != null) {
+			System.out.println(result);
+		}
+	}
+
 	private void reset() {
 	    canvas.forceZoom(DEFAULT_ZOOM);
 		controller.setIsActiveScreen(false);
@@ -236,7 +306,8 @@ public class GDXRoot extends Game implements ScreenListener {
 		controller.setScreenListener(this);
 		controller.setCanvas(canvas);
 		controller.setCurrentLevel(level);
-		controller.reset();
+		// Reuses the loaded level if this is a retry of it
+		controller.retry();
 
 		setScreen(controller);
 	}
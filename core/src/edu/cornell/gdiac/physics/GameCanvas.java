@@ -39,7 +39,11 @@ public class GameCanvas {
 		/** We are drawing sprites */
 		STANDARD,
 		/** We are drawing outlines */
-		DEBUG
+		DEBUG,
+		/** We are recording sprites instead of drawing them */
+		RECORD,
+		/** We are drawing from a SpriteCache */
+		CACHE
 	}
 	
 	/**
@@ -121,8 +125,16 @@ public class GameCanvas {
 	private Vector2 vertex;
 	/** Cache object to handle raw textures */
 	private TextureRegion holder;
+	/** Cache object to lay out text */
+	private GlyphLayout layoutCache;
 	/** The current camera center returned by update camera function */
 	private Vector2 camPos;
+	/** Where sprites go during a RECORD pass */
+	private StaticLayerCache.Recording recording;
+	/** Counters for the drawing done with this canvas */
+	private RenderStats stats;
+	/** The texture of the last sprite drawn this pass, for counting texture switches */
+	private Texture lastTexture;
 
 
 	/**
@@ -148,10 +160,12 @@ public class GameCanvas {
 
 		// Initialize the cache objects
 		holder = new TextureRegion();
+		layoutCache = new GlyphLayout();
 		local  = new Affine2();
 		global = new Matrix4();
 		vertex = new Vector2();
 		camPos = new Vector2();
+		stats  = new RenderStats();
 
 		camera.zoom = ZOOM_IN_MULTIPLIER;
 		targetZoom = ZOOM_IN_MULTIPLIER;
@@ -498,6 +512,7 @@ public class GameCanvas {
 		
 		setBlendState(BlendState.NO_PREMULT);
 		spriteBatch.begin();
+		lastTexture = null;
     	active = DrawPass.STANDARD;
     }
 
@@ -516,6 +531,7 @@ public class GameCanvas {
 		spriteBatch.setProjectionMatrix(global);
 		
     	spriteBatch.begin();
+    	lastTexture = null;
     	active = DrawPass.STANDARD;
     }
     
@@ -527,6 +543,7 @@ public class GameCanvas {
     public void begin() {
 		spriteBatch.setProjectionMatrix(camera.combined);
     	spriteBatch.begin();
+    	lastTexture = null;
     	active = DrawPass.STANDARD;
     }
 
@@ -535,9 +552,66 @@ public class GameCanvas {
 	 */
     public void end() {
     	spriteBatch.end();
+    	stats.addFlushes(spriteBatch.renderCalls);
     	active = DrawPass.INACTIVE;
     }
 
+	/**
+	 * Start recording sprites instead of drawing them.
+	 *
+	 * Only the region drawing methods used by tiles can be recorded.  Nothing
+	 * is drawn until the recording is put in a SpriteCache.
+	 *
+	 * @param recording the recording to add sprites to
+	 */
+	public void beginRecord(StaticLayerCache.Recording recording) {
+		if (active != DrawPass.INACTIVE) {
+			Gdx.app.error("GameCanvas", "Cannot record while drawing", new IllegalStateException());
+			return;
+		}
+		this.recording = recording;
+		active = DrawPass.RECORD;
+	}
+
+	/**
+	 * Ends a recording sequence.
+	 */
+	public void endRecord() {
+		recording = null;
+		active = DrawPass.INACTIVE;
+	}
+
+	/**
+	 * Start drawing from a SpriteCache with the canvas camera.
+	 *
+	 * The SpriteCache uses the same blend function as the sprite batch.
+	 *
+	 * @param cache the cache to draw from
+	 */
+	public void beginCache(SpriteCache cache) {
+		if (active != DrawPass.INACTIVE) {
+			Gdx.app.error("GameCanvas", "Cannot draw a cache while drawing", new IllegalStateException());
+			return;
+		}
+		Gdx.gl.glEnable(GL20.GL_BLEND);
+		Gdx.gl.glBlendFuncSeparate(spriteBatch.getBlendSrcFunc(), spriteBatch.getBlendDstFunc(),
+				spriteBatch.getBlendSrcFuncAlpha(), spriteBatch.getBlendDstFuncAlpha());
+		cache.setProjectionMatrix(camera.combined);
+		cache.begin();
+		active = DrawPass.CACHE;
+	}
+
+	/**
+	 * Ends drawing from a SpriteCache.
+	 *
+	 * @param cache the cache being drawn from
+	 */
+	public void endCache(SpriteCache cache) {
+		cache.end();
+		stats.addDrawCalls(cache.renderCalls);
+		active = DrawPass.INACTIVE;
+	}
+
 	/**
 	 * Draws the tinted texture at the given position.
 	 *
@@ -560,6 +634,7 @@ public class GameCanvas {
 		
 		// Unlike Lab 1, we can shortcut without a master drawing method
     	spriteBatch.setColor(Color.WHITE);
+		countSprite(image);
 		spriteBatch.draw(image, x,  y);
 	}
 	
@@ -588,6 +663,7 @@ public class GameCanvas {
 		
 		// Unlike Lab 1, we can shortcut without a master drawing method
     	spriteBatch.setColor(tint);
+		countSprite(image);
 		spriteBatch.draw(image, x,  y, width, height);
 	}
 	
@@ -713,6 +789,7 @@ public class GameCanvas {
 		
 		// Unlike Lab 1, we can shortcut without a master drawing method
     	spriteBatch.setColor(Color.WHITE);
+		countSprite(region.getTexture());
 		spriteBatch.draw(region, x,  y);
 	}
 
@@ -734,6 +811,10 @@ public class GameCanvas {
 	 * @param height The texture height
 	 */
 	public void draw(TextureRegion region, Color tint, float x, float y, float width, float height) {
+		if (active == DrawPass.RECORD) {
+			recording.add(region, tint, x, y, width, height);
+			return;
+		}
 		if (active != DrawPass.STANDARD) {
 			Gdx.app.error("GameCanvas", "Cannot draw without active begin()", new IllegalStateException());
 			return;
@@ -741,6 +822,7 @@ public class GameCanvas {
 		
 		// Unlike Lab 1, we can shortcut without a master drawing method
     	spriteBatch.setColor(tint);
+		countSprite(region.getTexture());
 		spriteBatch.draw(region, x,  y, width, height);
 	}
 	
@@ -771,6 +853,7 @@ public class GameCanvas {
 		
 		// Unlike Lab 1, we can shortcut without a master drawing method
     	spriteBatch.setColor(tint);
+		countSprite(region.getTexture());
 		spriteBatch.draw(region, x-ox, y-oy, width, height);
 	}
 
@@ -803,6 +886,11 @@ public class GameCanvas {
 	 */	
 	public void draw(TextureRegion region, Color tint, float ox, float oy, 
 					 float x, float y, float angle, float sx, float sy) {
+		if (active == DrawPass.RECORD) {
+			computeTransform(ox,oy,x,y,angle,sx,sy);
+			recording.add(region, tint, local);
+			return;
+		}
 		if (active != DrawPass.STANDARD) {
 			Gdx.app.error("GameCanvas", "Cannot draw without active begin()", new IllegalStateException());
 			return;
@@ -813,6 +901,7 @@ public class GameCanvas {
 		// For now, it is better to set the affine transform directly.
 		computeTransform(ox,oy,x,y,angle,sx,sy);
 		spriteBatch.setColor(tint);
+		countSprite(region.getTexture());
 		spriteBatch.draw(region, region.getRegionWidth(), region.getRegionHeight(), local);
 	}
 
@@ -844,6 +933,7 @@ public class GameCanvas {
 		local.set(affine);
 		local.translate(-ox,-oy);				
 		spriteBatch.setColor(tint);
+		countSprite(region.getTexture());
 		spriteBatch.draw(region, region.getRegionWidth(), region.getRegionHeight(), local);
 	}
 
@@ -869,6 +959,7 @@ public class GameCanvas {
 		}
 
 		spriteBatch.setColor(tint);
+		countSprite(texture);
 		spriteBatch.draw(texture, x, y, width, height, u, v, u2, v2);
 	}
 
@@ -900,6 +991,7 @@ public class GameCanvas {
 		
 		// Unlike Lab 1, we can shortcut without a master drawing method
     	spriteBatch.setColor(Color.WHITE);
+		countSprite(region.getRegion().getTexture());
 		spriteBatch.draw(region, x,  y);
 	}
 	
@@ -934,6 +1026,7 @@ public class GameCanvas {
 		
 		// Unlike Lab 1, we can shortcut without a master drawing method
     	spriteBatch.setColor(tint);
+		countSprite(region.getRegion().getTexture());
 		spriteBatch.draw(region, x,  y, width, height);
 	}
 	
@@ -970,6 +1063,7 @@ public class GameCanvas {
 		
 		// Unlike Lab 1, we can shortcut without a master drawing method
     	spriteBatch.setColor(tint);
+		countSprite(region.getRegion().getTexture());
 		spriteBatch.draw(region, x-ox, y-oy, width, height);
 	}
 	
@@ -1008,6 +1102,7 @@ public class GameCanvas {
 		
 		TextureRegion bounds = region.getRegion();
 		spriteBatch.setColor(tint);
+		countSprite(region.getRegion().getTexture());
 		spriteBatch.draw(region, x, y, ox, oy, 
 						 bounds.getRegionWidth(), bounds.getRegionHeight(), 
 						 sx, sy, 180.0f*angle/(float)Math.PI);
@@ -1046,6 +1141,7 @@ public class GameCanvas {
 		computeVertices(local,region.getVertices());
 
 		spriteBatch.setColor(tint);
+		countSprite(region.getRegion().getTexture());
 		spriteBatch.draw(region, 0, 0);
 		
 		// Invert and restore
@@ -1078,12 +1174,11 @@ public class GameCanvas {
 			Gdx.app.error("GameCanvas", "Cannot draw without active begin()", new IllegalStateException());
 			return;
 		}
-		GlyphLayout layout = new GlyphLayout(font,text);
-
-		GlyphLayout glyphLayout = new GlyphLayout();
-		glyphLayout.setText(font,text);
-		float w = glyphLayout.width;
+		GlyphLayout layout = layoutCache;
+		layout.setText(font,text);
+		float w = layout.width;
 
+		countSprite(font.getRegion().getTexture());
 		font.draw(spriteBatch, layout, x-(w/2), y);
     }
 
@@ -1100,9 +1195,11 @@ public class GameCanvas {
 			return;
 		}
 		
-		GlyphLayout layout = new GlyphLayout(font,text);
+		GlyphLayout layout = layoutCache;
+		layout.setText(font,text);
 		float x = (getWidth()  - layout.width) / 2.0f;
 		float y = (getHeight() + layout.height) / 2.0f;
+		countSprite(font.getRegion().getTexture());
 		font.draw(spriteBatch, layout, x, y+offset);
     }
     
@@ -1151,6 +1248,8 @@ public class GameCanvas {
     	debugRender.setColor(Color.RED);
     	debugRender.circle(0, 0, 10);
     	debugRender.end();
+    	stats.addDebugShape();
+    	stats.addDrawCalls(1);
     	
     	debugRender.begin(ShapeRenderer.ShapeType.Line);
     	active = DrawPass.DEBUG;
@@ -1161,6 +1260,7 @@ public class GameCanvas {
 	 */
     public void endDebug() {
     	debugRender.end();
+    	stats.addDrawCalls(1);
     	active = DrawPass.INACTIVE;
     }
     
@@ -1177,6 +1277,7 @@ public class GameCanvas {
 			Gdx.app.error("GameCanvas", "Cannot draw without active beginDebug()", new IllegalStateException());
 			return;
 		}
+		stats.addDebugShape();
 		
     	float x0, y0, x1, y1;
     	debugRender.setColor(color);
@@ -1209,6 +1310,7 @@ public class GameCanvas {
 			Gdx.app.error("GameCanvas", "Cannot draw without active beginDebug()", new IllegalStateException());
 			return;
 		}
+		stats.addDebugShape();
 		
 		local.setToTranslation(x,y);
 		local.rotateRad(angle);
@@ -1250,6 +1352,7 @@ public class GameCanvas {
 			Gdx.app.error("GameCanvas", "Cannot draw without active beginDebug()", new IllegalStateException());
 			return;
 		}
+		stats.addDebugShape();
 		
 		local.setToScaling(sx,sy);
 		local.translate(x,y);
@@ -1292,6 +1395,7 @@ public class GameCanvas {
 			Gdx.app.error("GameCanvas", "Cannot draw without active beginDebug()", new IllegalStateException());
 			return;
 		}
+		stats.addDebugShape();
 		
     	debugRender.setColor(color);
     	debugRender.circle(x, y, shape.getRadius(),12);
@@ -1315,6 +1419,7 @@ public class GameCanvas {
 			Gdx.app.error("GameCanvas", "Cannot draw without active beginDebug()", new IllegalStateException());
 			return;
 		}
+		stats.addDebugShape();
 		
 		float x0 = x*sx;
 		float y0 = y*sy;
@@ -1342,5 +1447,44 @@ public class GameCanvas {
 		local.translate(-ox,-oy);
 	}
 
+	/**
+	 * Counts a sprite drawn with the given texture in the render statistics.
+	 *
+	 * A line of text is counted as a single sprite.
+	 *
+	 * @param texture The texture of the sprite
+	 */
+	private void countSprite(Texture texture) {
+		stats.addSprite();
+		if (texture != lastTexture) {
+			if (lastTexture != null) {
+				stats.addTextureSwitch();
+			}
+			lastTexture = texture;
+		}
+	}
+
 	public OrthographicCamera getCamera() { return camera; }
+
+	/**
+	 * Returns the counters for the drawing done with this canvas.
+	 *
+	 * @return the counters for the drawing done with this canvas.
+	 */
+	public RenderStats getStats() { return stats; }
+
+	/**
+	 * Returns the area the camera shows, in screen coordinates
+	 *
+	 * This accounts for the camera position and zoom, but not rotation.
+	 *
+	 * @param result The rectangle to store the area in
+	 *
+	 * @return the given rectangle, for chaining
+	 */
+	public Rectangle getViewBounds(Rectangle result) {
+		float width = camera.viewportWidth*camera.zoom;
+		float height = camera.viewportHeight*camera.zoom;
+		return result.set(camera.position.x-width/2, camera.position.y-height/2, width, height);
+	}
 }
\ No newline at end of file
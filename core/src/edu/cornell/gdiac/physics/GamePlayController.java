@@ -9,14 +9,7 @@ import com.badlogic.gdx.assets.AssetManager;
 import com.badlogic.gdx.audio.Sound;
 import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.math.Vector2;
-import com.badlogic.gdx.physics.box2d.World;
-import edu.cornell.gdiac.physics.host.HostController;
 import edu.cornell.gdiac.physics.host.HostModel;
-import edu.cornell.gdiac.physics.obstacle.DecorativeRoots;
-import edu.cornell.gdiac.physics.obstacle.EnergyPillar;
-import edu.cornell.gdiac.physics.obstacle.Obstacle;
-import edu.cornell.gdiac.physics.obstacle.OscWall;
-import edu.cornell.gdiac.physics.obstacle.Wall;
 import edu.cornell.gdiac.physics.spirit.SpiritModel;
 import edu.cornell.gdiac.util.MusicController;
 import edu.cornell.gdiac.util.SoundController;
@@ -30,11 +23,23 @@ import edu.cornell.gdiac.util.SoundController;
  * This is the purpose of our AssetState variable; it ensures that multiple instances
  * place nicely with the static assets.
  */
-public class GamePlayController extends WorldController {
+public class GamePlayController extends WorldController implements SimulationListener {
 
-	private HostController hostController;
+	/** The headless game rules; this class only adds presentation on top */
+	private Simulation simulation;
 
-	private CollisionController collisionController;
+	/** Records the input of every simulation step, for replays */
+	private InputRecorder recorder;
+	/** The level number and folder of the level that was last loaded */
+	private int loadedLevel;
+	private boolean loadedCustom;
+	/** The file of the level that was last loaded */
+	private FileHandle loadedFile;
+	/** Reads the levels next to the one being played in the background */
+	private LevelPrefetcher prefetcher;
+
+	/** Where the recording of the last finished level is saved */
+	public static final String REPLAY_FILE = "Replays/last.rpl";
 
 	private SoundController sound;
 
@@ -79,16 +84,10 @@ public class GamePlayController extends WorldController {
 
 	protected SpiritModel spirit;
 
-	protected EnergyPillar[] energyPillars;
-
-	protected OscWall[] oscWalls;
-
 	private Vector2 cache;
 
 	private Vector2 panTarget;
 
-	private final int lifePerBounce = 40;
-
 	private final float panSpeed = 10f;
 
 	private boolean isActiveScreen;
@@ -186,8 +185,13 @@ public class GamePlayController extends WorldController {
 		setDebug(false);
 		setComplete(false);
 		setFailure(false);
-		collisionController = new CollisionController();
-		world.setContactListener(collisionController);
+		simulation = new Simulation(InputController.getInstance(), scale, Vector2.Zero);
+		simulation.setListener(this);
+		simulation.setTrajectoryPredictor(new TrajectoryPredictor());
+		world.dispose();
+		world = simulation.getWorld();
+		objects = simulation.getObjects();
+		recorder = new InputRecorder();
 
 		sound = SoundController.getInstance();
 		// Initialize vectors
@@ -203,6 +207,17 @@ public class GamePlayController extends WorldController {
 		this.isActiveScreen = isActive;
 	}
 
+	/**
+	 * Dispose of all (non-static) resources allocated to this mode.
+	 */
+	public void dispose() {
+		if (prefetcher != null) {
+			prefetcher.dispose();
+			prefetcher = null;
+		}
+		super.dispose();
+	}
+
 
 
 	/**
@@ -213,19 +228,7 @@ public class GamePlayController extends WorldController {
 	public void reset() {
 
 	    getLevels(inCustom);
-		// Reset game conditions to represent a new game
-		setComplete(false);
-		setFailure(false);
-		setMenu(false);
-
-		canvas.resetZoom();
-
-		renderHUD = true;
-		launchedFirstShot = false;
-
-		MusicController.getInstance().play("gameMusic");
-
-		Vector2 gravity = new Vector2(world.getGravity());
+		beginLevel();
 
 		FileHandle levelToLoad;
 
@@ -235,8 +238,77 @@ public class GamePlayController extends WorldController {
 		if (inCustom) { levelToLoad = levels.get(levelIndex); }
 		else { levelToLoad = levels.get(levelIndex); }
 
+		// Tear down the old level first, so the new one can reuse its tiles
+		if (level != null) {
+			writeRenderStats((loadedCustom ? "Custom " : "Level ") + loadedLevel);
+			simulation.dispose();
+			loader.freeLevel(level);
+			level = null;
+		}
+
+		if (prefetcher == null) {
+			prefetcher = new LevelPrefetcher(loader);
+		}
+		prefetcher.await(levelToLoad);
 		level = loader.loadLevel(levelToLoad, levelIndex, !inCustom);
+		loadedLevel = currentLevel;
+		loadedCustom = inCustom;
+		loadedFile = levelToLoad;
+
+		// Read the next and previous levels while this one is played
+		int count = levels.size();
+		prefetcher.prefetch(levels.get((levelIndex + 1) % count), levels.get((levelIndex + count - 1) % count));
+
+		// Hand the level to the simulation, which rebuilds the world
+		addQueue.clear();
+		simulation.setArrowTextures(arrowHeadTex, arrowDashTex);
+		simulation.setSpiritCenter(canvas.getWidth() / 2, canvas.getHeight() / 2);
+		simulation.load(level);
+		world = simulation.getWorld();
+		invalidateStaticTiles();
+		recorder.begin(levelToLoad, scale, cache.set(canvas.getWidth() / 2, canvas.getHeight() / 2));
+
+		startLevel();
+	}
+
+	/**
+	 * Plays the current level again from the start.
+	 *
+	 * If the level already loaded is the one to play, the simulation puts it
+	 * back the way it was when loaded, instead of reading and building the level
+	 * again. Otherwise this is the same as reset.
+	 */
+	public void retry() {
+		if (level == null || loadedLevel != currentLevel || loadedCustom != inCustom || !simulation.restart()) {
+			reset();
+			return;
+		}
+		beginLevel();
+		addQueue.clear();
+		recorder.restart();
+		startLevel();
+	}
+
+	/**
+	 * Resets the game conditions to represent a new game
+	 */
+	private void beginLevel() {
+		setComplete(false);
+		setFailure(false);
+		setMenu(false);
+
+		canvas.resetZoom();
+
+		renderHUD = true;
+		launchedFirstShot = false;
+
+		MusicController.getInstance().play("gameMusic");
+	}
 
+	/**
+	 * Sets up the tutorial, HUD and camera for the level just loaded or restarted
+	 */
+	private void startLevel() {
 		/* Load in Tutorial */
 		tutorial.reset();
 		TutorialData tutorialData = loader.getTutorialData(level.tutorialNum);
@@ -253,81 +325,12 @@ public class GamePlayController extends WorldController {
 
 		pedestal = level.pedestal;
 		spirit = level.spirit;
-		spirit.setName("spirit");
-
-		energyPillars = level.energyPillars;
-
-		oscWalls = level.oscWalls;
-
 		possessed = pedestal;
-		spirit.setGoToCenter(true);
-
-		spirit.setIsPossessing(true);
-
-		hostController = new HostController(level.hosts, scale, arrowHeadTex, arrowDashTex, pedestal, canvas, energyPillars);
-
-		// Reset the collision controller
-		collisionController.reset();
-
-		for (Obstacle o : objects) {
-			o.deactivatePhysics(world);
-		}
-
-		objects.clear();
-		addQueue.clear();
-		world.dispose();
-
-		world = new World(gravity,false);
-		world.setContactListener(collisionController);
-
-		populateLevel();
 
 		panTarget = new Vector2(pedestal.getPosition().x * scale.x, pedestal.getPosition().y * scale.y);
 
 	}
 
-	/**
-	 * Lays out the game geography.
-	 */
-	private void populateLevel() {
-		for(Obstacle obj : level.walls) {
-			// Set the hitbox of the wall to be dependent on its texture
-			if(obj instanceof Wall) {
-				((Wall)obj).setAltHitbox();
-			}
-			addQueue.add(obj);
-		}
-		for(Obstacle obj : level.water) {
-			addQueue.add(obj);
-		}
-		for(Obstacle obj : level.sand) {
-			addQueue.add(obj);
-		}
-		for(Obstacle obj : level.borderEdges) {
-			addQueue.add(obj);
-		}
-		for(Obstacle obj : level.borderCorners) {
-			addQueue.add(obj);
-		}
-		for(Obstacle obj : level.energyPillars) {
-			addQueue.add(obj);
-		}
-		for(Obstacle obj : level.oscWalls) {
-			addQueue.add(obj);
-		}
-		for(HostModel host : level.hosts) {
-			addQueue.add(host);
-		}
-		for(DecorativeRoots roots : level.decorativeRootTiles) {
-			addQueue.add(roots);
-		}
-		addQueue.add(level.spirit);
-		addQueue.add(level.pedestal);
-		collisionController.addHosts(level.hosts);
-		collisionController.addSpirit(level.spirit);
-	}
-
-
 	/**
 	 * The core gameplay loop of this world.
 	 *
@@ -346,46 +349,17 @@ public class GamePlayController extends WorldController {
 			return;
 		}
 
-		// Animate oscWalls
-		for(OscWall ow : oscWalls) {
-			ow.updateAnimation();
-		}
-		// Check win condition
-		if (hostController.checkAllPossessed() && !isComplete()){
-			hud.incrementCurrHosts();
-			setComplete(true);
-			sound.getInstance().play(VICTORY_SOUND,VICTORY_SOUND,false, 1.2f*sound.getVolume());
-		}
-
-		// Determine if there is any possession
-		if (collisionController.isPossessed()) {
-
-			// Play possession sound if something different is possessed this frame
-			if (possessed != collisionController.getHostPossessed()) {
-				sound.getInstance().play(POSSESSION_SOUND,POSSESSION_SOUND,false);
-			}
-
-			possessed = collisionController.getHostPossessed();
-		}
-
-		// Remove Pedestal Once Possessing a New Host
-		if(pedestal != possessed) {
-			pedestal.markRemoved(true);
-		}
-
-		// Calls update on hostController
-		hostController.update(delta, possessed, spirit, level.pedestal, collisionController.getInSand(), energyPillars, wasPaused);
-
-		if (hostController.getLaunched()){
-			SoundController.getInstance().play(LAUNCH_SOUND,LAUNCH_SOUND,false);
-		}
+		// Run the game rules; sounds and HUD changes come back as events
+		recorder.record(InputController.getInstance(), wasPaused);
+		simulation.update(delta, wasPaused);
+		possessed = simulation.getPossessed();
 
 		// If player is still playing and moving
-		if (!isFailure() && !isComplete() && hostController.isMoving()) {
+		if (!isFailure() && !isComplete() && simulation.isMoving()) {
 			// Determine if the player is in sand
-			String walkingSound = collisionController.getInSand() ? WALK_SAND_SOUND : WALK_SOUND;
+			String walkingSound = simulation.isInSand() ? WALK_SAND_SOUND : WALK_SOUND;
 			// If unmuted, then play the correct walking sound
-			if(!collisionController.getInSand()){
+			if(!simulation.isInSand()){
 				sound.stop(WALK_SAND_SOUND);
 			}
 			sound.play(walkingSound, walkingSound, true, sound.getVolume()*.30f);
@@ -396,12 +370,6 @@ public class GamePlayController extends WorldController {
 			sound.stop(WALK_SOUND);
 		}
 
-		// Check lose condition
-		if (hostController.getPossessedBlownUp() && !isComplete() && !isFailure()) {
-			setFailure(true);
-			sound.play(FAILURE_SOUND, FAILURE_SOUND, false, .25f*sound.getVolume());
-		}
-
 		// Check if HUD timer should update
 		if (!launchedFirstShot && spirit.hasLaunched) {
 			launchedFirstShot = true;
@@ -412,15 +380,9 @@ public class GamePlayController extends WorldController {
 		}
 
 		// Get arrow and set for world controller to draw, if applicable
-		arrow = hostController.getArrow();
-
-		// Update bouncing if applicable
-		if (collisionController.isBounced()) {
-			String bounceSound = collisionController.getBounceOnBounds() ? BOUNCE_BOUND_SOUND : BOUNCE_WALL_SOUND;
-			sound.play(bounceSound, bounceSound, false);
-		}
+		arrow = simulation.getArrow();
 
-		// Calculate spirit's screen coordinates from box2d coordinates
+		// Pan with the keys while aiming from the pedestal
 		if (possessed.isPedestal() && !spirit.hasLaunched) {
 			if (InputController.getInstance().didTertiary()) {
 				panTarget.x = pedestal.getPosition().x;
@@ -431,17 +393,6 @@ public class GamePlayController extends WorldController {
 
 		    panTarget.x += InputController.getInstance().getHorizontal() * panSpeed;
 		    panTarget.y += InputController.getInstance().getVertical() * panSpeed;
-		    cache.set(panTarget);
-		}
-		else {
-			cache.set(spirit.getPosition());
-			cache.scl(scale.x, scale.y);
-		}
-
-		// Handle camera panning
-        if (isActiveScreen) {
-			canvas.setCamTarget(cache);
-			canvas.updateCamera();
 		}
 
 		// Handle camera zooming
@@ -457,26 +408,6 @@ public class GamePlayController extends WorldController {
 			canvas.zoomIn();
 		}
 
-		Boolean isInPillar = false;
-		// Check if possessed is in energy pillar radius
-        for(EnergyPillar ep : energyPillars) {
-        	if((Math.pow((possessed.getPosition().x - ep.getPosition().x), 2) / Math.pow(ep.getEnergyPillarMajor(),2)) +
-					((Math.pow((possessed.getPosition().y - ep.getPosition().y), 2))/(Math.pow(ep.getEnergyPillarMinor(), 2))) <= 1)  {
-        	    if (spirit.hasLaunched) { isInPillar = false; }
-        	    else {
-					possessed.setCurrentCharge(possessed.getCurrentCharge() + 2);
-					isInPillar = true;
-				}
-			}
-		}
-
-        possessed.setInPillar(isInPillar);
-
-		if (spirit.getDidBounce()) {
-			spirit.decCurrentLife(lifePerBounce);
-			canvas.shakeCamera(15, 5);
-		}
-
 		// Deal with random ambient sounds
 		if (Math.random() > .999){
 			double test = Math.random();
@@ -517,9 +448,97 @@ public class GamePlayController extends WorldController {
 
 		// Not paused anymore
 		wasPaused = false;
+	}
 
-		// Clear collision controller
-		collisionController.clear();
-		spirit.setDidBounce(false);
+	/**
+	 * Moves the camera and draws the world
+	 *
+	 * The camera follows the spirit where it is drawn this frame, between the
+	 * last two steps, so that it moves once per frame like everything else.
+	 *
+	 * @param delta Number of seconds since last animation frame
+	 */
+	public void draw(float delta) {
+		// Calculate spirit's screen coordinates from box2d coordinates
+		if (possessed.isPedestal() && !spirit.hasLaunched) {
+			cache.set(panTarget);
+		}
+		else {
+			cache.set(spirit.getDrawX(), spirit.getDrawY());
+			cache.scl(scale.x, scale.y);
+		}
+
+		// Handle camera panning
+		if (isActiveScreen) {
+			canvas.setCamTarget(cache);
+			canvas.updateCamera();
+		}
+
+		super.draw(delta);
+	}
+
+	/**
+	 * Processes physics
+	 *
+	 * The simulation owns the world and the object list, so it does the step.
+	 * They are shared with this controller, so queued objects are added here.
+	 * Nothing is stepped on the frame pause is pressed, since update did not
+	 * record any input for it and a replay would fall out of step.
+	 *
+	 * @param dt Number of seconds since last animation frame
+	 */
+	public void postUpdate(float dt) {
+		if (pressedPause) {
+			return;
+		}
+		addQueuedObjects();
+		simulation.postUpdate(dt);
+	}
+
+	/// SimulationListener Methods
+	/**
+	 * Plays the possession sound and counts new hosts on the HUD
+	 */
+	public void onPossessed(HostModel host, boolean firstTime) {
+		if (firstTime) {
+			HUD.incrementCurrHosts();
+		}
+		sound.play(POSSESSION_SOUND,POSSESSION_SOUND,false);
+	}
+
+	/**
+	 * Plays the slingshot sound
+	 */
+	public void onLaunched() {
+		sound.play(LAUNCH_SOUND,LAUNCH_SOUND,false);
+	}
+
+	/**
+	 * Plays the bounce sound and shakes the camera
+	 */
+	public void onBounced(boolean onBounds) {
+		String bounceSound = onBounds ? BOUNCE_BOUND_SOUND : BOUNCE_WALL_SOUND;
+		sound.play(bounceSound, bounceSound, false);
+		canvas.shakeCamera(15, 5);
+	}
+
+	/**
+	 * Ends the level as a loss
+	 */
+	public void onFailed() {
+		setFailure(true);
+		recorder.save(Gdx.files.local(REPLAY_FILE));
+		sound.play(FAILURE_SOUND, FAILURE_SOUND, false, .25f*sound.getVolume());
+	}
+
+	/**
+	 * Ends the level as a win
+	 */
+	public void onComplete() {
+		hud.incrementCurrHosts();
+		setComplete(true);
+		LevelCatalog.getInstance().recordWin(loadedFile, HUD.getTime());
+		recorder.save(Gdx.files.local(REPLAY_FILE));
+		sound.play(VICTORY_SOUND,VICTORY_SOUND,false, 1.2f*sound.getVolume());
 	}
 }
\ No newline at end of file
@@ -294,6 +294,11 @@ public class HUD {
         }
     }
 
+    /** Returns the time shown on the timer, in seconds */
+    public static int getTime() {
+        return worldTimer;
+    }
+
     /** Sets the total number of hosts that need to be possessed */
     public void setNumTotalHosts(int num) {
         numTotalHosts = num;
@@ -21,7 +21,7 @@ import edu.cornell.gdiac.util.*;
 /**
  * Class for reading player input. This supports a keyboard.
  */
-public class InputController {
+public class InputController implements InputSource {
 
 	/** The singleton instance of the input controller */
 	private static InputController theController = null;
@@ -59,6 +59,9 @@ public class InputController {
 	/** Whether the debug toggle was pressed. */
 	private boolean debugPressed;
 	private boolean debugPrevious;
+	/** Whether the render statistics toggle was pressed. */
+	private boolean statsPressed;
+	private boolean statsPrevious;
 	/** Whether the exit button was pressed. */
 	private boolean exitPressed;
 	private boolean exitPrevious;
@@ -68,9 +71,11 @@ public class InputController {
 
 	/** Whether the zoom button was pressed. */
 	private boolean zoomPressed;
+	private boolean zoomPrevious;
 
 	/** Whether the pause button was pressed */
 	private boolean pausePressed;
+	private boolean pausePrevious;
 
 
 	/** If a new obstacle button was pressed */
@@ -211,6 +216,13 @@ public class InputController {
 	 */
 	public boolean didDebug() { return debugPressed && !debugPrevious; }
 
+	/**
+	 * Returns true if the player wants to toggle the render statistics.
+	 *
+	 * @return true if the player wants to toggle the render statistics.
+	 */
+	public boolean didStats() { return statsPressed && !statsPrevious; }
+
 	/**
 	 * Returns true if the exit button was pressed.
 	 *
@@ -225,14 +237,14 @@ public class InputController {
 	 *
 	 * @return true if the zoom button was pressed.
 	 */
-	public boolean didZoom() { return zoomPressed; }
+	public boolean didZoom() { return zoomPressed && !zoomPrevious; }
 
 	/**
 	 * Returns true if the pause button was pressed.
 	 *
 	 * @return true if the pause button was pressed.
 	 */
-	public boolean didPause() { return pausePressed; }
+	public boolean didPause() { return pausePressed && !pausePrevious; }
 
 
 	public boolean didIsPressed() { return mousePressed; }
@@ -394,6 +406,7 @@ public class InputController {
 		secondPrevious = secondPressed;
 		resetPrevious  = resetPressed;
 		debugPrevious  = debugPressed;
+		statsPrevious  = statsPressed;
 		exitPrevious = exitPressed;
 		nextPrevious = nextPressed;
 		prevPrevious = prevPressed;
@@ -410,6 +423,8 @@ public class InputController {
 		deletePrevious = deletePressed;
 		savePrevious = savePressed;
 		menuPrevious = menuPressed;
+		zoomPrevious = zoomPressed;
+		pausePrevious = pausePressed;
 		instructionPrevious = instructionPressed;
 		mousePressedPrevious = mousePressed;
 	}
@@ -423,12 +438,13 @@ public class InputController {
 		// Give priority to gamepad results
 		resetPressed = (secondary && resetPressed) || (Gdx.input.isKeyPressed(Input.Keys.R));
 		debugPressed = (secondary && debugPressed) || (Gdx.input.isKeyPressed(Input.Keys.H));
+		statsPressed = Gdx.input.isKeyPressed(Input.Keys.F3);
 		primePressed = (secondary && primePressed) || (Gdx.input.isKeyPressed(Input.Keys.UP));
 		secondPressed = (secondary && secondPressed) || (Gdx.input.isKeyPressed(Input.Keys.DOWN));
 		prevPressed = (secondary && prevPressed) || (Gdx.input.isKeyPressed(Input.Keys.P));
 		nextPressed = (secondary && nextPressed) || (Gdx.input.isKeyPressed(Input.Keys.N));
-		pausePressed  = (Gdx.input.isKeyJustPressed(Input.Keys.ESCAPE));
-		zoomPressed = Gdx.input.isKeyJustPressed(Input.Keys.Z);
+		pausePressed = Gdx.input.isKeyPressed(Input.Keys.ESCAPE);
+		zoomPressed = Gdx.input.isKeyPressed(Input.Keys.Z);
 
 		upPressed = Gdx.input.isKeyPressed(Input.Keys.UP);
 		downPressed = Gdx.input.isKeyPressed(Input.Keys.DOWN);
@@ -475,7 +491,9 @@ public class InputController {
 		if (tertiaryPressed) { mousePressed = true; }
 		else { mousePressed = false; }
 
-		leftJustClicked = Gdx.input.isButtonJustPressed(Input.Buttons.LEFT);
+		// Derived from the polled state (not isButtonJustPressed) so that a click
+		// is seen by exactly one simulation step, and replays see the same click
+		leftJustClicked = mousePressed && !mousePressedPrevious;
 
 		mousePosition.set(Gdx.input.getX(), height - Gdx.input.getY());
 	}
@@ -0,0 +1,196 @@
+package edu.cornell.gdiac.physics;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.math.Vector2;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.zip.CRC32;
+
+/**
+ * Records the gameplay input of every simulation step in a compact binary form.
+ *
+ * The header identifies the level (path, file type and a hash of its contents)
+ * and the aiming setup. Each step is then one flag byte, followed by the mouse
+ * position only on steps where it moved. Play a recording back with InputReplay.
+ */
+public class InputRecorder {
+
+    /** Identifies a replay file */
+    public static final int MAGIC = 0x4d445250; // "MDRP"
+    /** The current replay format version */
+    public static final int VERSION = 1;
+
+    /// Per-step flag bits
+    public static final int FLAG_PRESSED = 1;
+    public static final int FLAG_LEFT = 1 << 1;
+    public static final int FLAG_RIGHT = 1 << 2;
+    public static final int FLAG_DOWN = 1 << 3;
+    public static final int FLAG_UP = 1 << 4;
+    public static final int FLAG_UNPAUSED = 1 << 5;
+    public static final int FLAG_MOVED = 1 << 6;
+
+    /** The encoded steps */
+    private ByteArrayOutputStream buffer;
+    /** Writer over the buffer */
+    private DataOutputStream out;
+    /** The level being recorded */
+    private FileHandle level;
+    /** The hash of the level contents, computed when first saved */
+    private long levelHash;
+    /** The path and modification time levelHash was computed for */
+    private String hashedPath;
+    private long hashedModified;
+    /** The world scale and aim center the recording was made with */
+    private Vector2 scale;
+    private Vector2 spiritCenter;
+    /** The number of steps recorded */
+    private int steps;
+    /** The last mouse position written */
+    private float lastX;
+    private float lastY;
+
+    /**
+     * Creates a new, empty recorder
+     */
+    public InputRecorder() {
+        buffer = new ByteArrayOutputStream(4096);
+        out = new DataOutputStream(buffer);
+        scale = new Vector2();
+        spiritCenter = new Vector2();
+    }
+
+    /**
+     * Returns a hash of the contents of a level file
+     *
+     * @param f The level file
+     *
+     * @return the CRC32 of the file contents
+     */
+    public static long hashLevel(FileHandle f) {
+        CRC32 crc = new CRC32();
+        crc.update(f.readBytes());
+        return crc.getValue();
+    }
+
+    /**
+     * Discards any previous recording and starts a new one
+     *
+     * @param level        The level file being played
+     * @param scale        The world scale
+     * @param spiritCenter The screen position that shots are aimed relative to
+     */
+    public void begin(FileHandle level, Vector2 scale, Vector2 spiritCenter) {
+        this.level = level;
+        this.scale.set(scale);
+        this.spiritCenter.set(spiritCenter);
+        restart();
+    }
+
+    /**
+     * Discards the steps recorded so far, keeping the same level
+     */
+    public void restart() {
+        buffer.reset();
+        steps = 0;
+        lastX = Float.NaN;
+        lastY = Float.NaN;
+    }
+
+    /**
+     * Appends the input for one simulation step
+     *
+     * @param input     The input the simulation is about to read
+     * @param wasPaused Whether the game was unpaused right before this step
+     */
+    public void record(InputSource input, boolean wasPaused) {
+        if (level == null) { return; }
+
+        Vector2 mouse = input.getMousePosition();
+        boolean moved = mouse.x != lastX || mouse.y != lastY;
+
+        int flags = 0;
+        if (input.didIsPressed()) { flags |= FLAG_PRESSED; }
+        if (input.getHorizontal() < 0) { flags |= FLAG_LEFT; }
+        if (input.getHorizontal() > 0) { flags |= FLAG_RIGHT; }
+        if (input.getVertical() < 0) { flags |= FLAG_DOWN; }
+        if (input.getVertical() > 0) { flags |= FLAG_UP; }
+        if (wasPaused) { flags |= FLAG_UNPAUSED; }
+        if (moved) { flags |= FLAG_MOVED; }
+
+        try {
+            out.writeByte(flags);
+            if (moved) {
+                out.writeFloat(mouse.x);
+                out.writeFloat(mouse.y);
+                lastX = mouse.x;
+                lastY = mouse.y;
+            }
+        } catch (IOException e) {
+            // Cannot happen for an in-memory stream
+            Gdx.app.error("InputRecorder", "Could not record step", e);
+        }
+        steps++;
+    }
+
+    /**
+     * Returns the hash of the level being recorded
+     *
+     * Levels are begun on every reset and retry, but a recording is only
+     * saved at the end of an attempt. The file is read only when it has not
+     * been hashed since it was last modified.
+     *
+     * @return the CRC32 of the level contents
+     */
+    private long getLevelHash() {
+        long modified = level.lastModified();
+        if (!level.path().equals(hashedPath) || modified != hashedModified) {
+            levelHash = hashLevel(level);
+            hashedPath = level.path();
+            hashedModified = modified;
+        }
+        return levelHash;
+    }
+
+    /**
+     * Returns the number of steps recorded
+     */
+    public int getSteps() {
+        return steps;
+    }
+
+    /**
+     * Writes the recording to a file
+     *
+     * @param f The file to write
+     */
+    public void save(FileHandle f) {
+        if (level == null) { return; }
+
+        long hash = getLevelHash();
+        DataOutputStream file = new DataOutputStream(f.write(false));
+        try {
+            file.writeInt(MAGIC);
+            file.writeByte(VERSION);
+            file.writeUTF(level.path());
+            file.writeUTF(level.type().name());
+            file.writeLong(hash);
+            file.writeFloat(scale.x);
+            file.writeFloat(scale.y);
+            file.writeFloat(spiritCenter.x);
+            file.writeFloat(spiritCenter.y);
+            file.writeInt(steps);
+            buffer.writeTo(file);
+        } catch (IOException e) {
+            Gdx.app.error("InputRecorder", "Could not save replay " + f.path(), e);
+        } finally {
+            try {
+                file.close();
+            } catch (IOException e) {
+                // Nothing left to do
+            }
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package edu.cornell.gdiac.physics;
+
+import com.badlogic.gdx.Files;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.math.Vector2;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+
+/**
+ * An InputSource that plays back a file written by InputRecorder.
+ *
+ * Call advance() once before every simulation step. The mouse button follows
+ * the same edge rules as the live input, so a recording replays exactly as
+ * long as the level and the simulation are unchanged.
+ */
+public class InputReplay implements InputSource {
+
+    /** The recorded steps */
+    private DataInputStream in;
+    /** The level the recording was made on */
+    private FileHandle level;
+    /** The hash of the level contents when it was recorded */
+    private long levelHash;
+    /** The world scale and aim center the recording was made with */
+    private Vector2 scale;
+    private Vector2 spiritCenter;
+    /** The number of steps in the recording, and the number played so far */
+    private int steps;
+    private int played;
+
+    /** The movement direction */
+    private float horizontal;
+    private float vertical;
+    /** The mouse position */
+    private Vector2 mousePosition;
+    /** The mouse position cache (for using as a return value) */
+    private Vector2 mousePositionCache;
+    /** Whether the mouse is down this step and last step */
+    private boolean mousePressed;
+    private boolean mousePressedPrevious;
+    /** Whether the game was unpaused right before this step */
+    private boolean wasPaused;
+
+    /**
+     * Reads a replay file
+     *
+     * @param f The file written by InputRecorder.save
+     *
+     * @throws IOException if the file is not a replay of a known version
+     */
+    public InputReplay(FileHandle f) throws IOException {
+        in = new DataInputStream(new ByteArrayInputStream(f.readBytes()));
+        if (in.readInt() != InputRecorder.MAGIC) {
+            throw new IOException(f.path() + " is not a replay");
+        }
+        int version = in.readByte();
+        if (version != InputRecorder.VERSION) {
+            throw new IOException(f.path() + " has unknown replay version " + version);
+        }
+        String path = in.readUTF();
+        level = Gdx.files.getFileHandle(path, Files.FileType.valueOf(in.readUTF()));
+        levelHash = in.readLong();
+        scale = new Vector2(in.readFloat(), in.readFloat());
+        spiritCenter = new Vector2(in.readFloat(), in.readFloat());
+        steps = in.readInt();
+
+        mousePosition = new Vector2();
+        mousePositionCache = new Vector2();
+    }
+
+    /**
+     * Loads the input for the next step
+     *
+     * @return false if the recording has ended
+     */
+    public boolean advance() {
+        if (played >= steps) { return false; }
+
+        mousePressedPrevious = mousePressed;
+        try {
+            int flags = in.readUnsignedByte();
+            mousePressed = (flags & InputRecorder.FLAG_PRESSED) != 0;
+            horizontal = ((flags & InputRecorder.FLAG_RIGHT) != 0 ? 1 : 0)
+                    - ((flags & InputRecorder.FLAG_LEFT) != 0 ? 1 : 0);
+            vertical = ((flags & InputRecorder.FLAG_UP) != 0 ? 1 : 0)
+                    - ((flags & InputRecorder.FLAG_DOWN) != 0 ? 1 : 0);
+            wasPaused = (flags & InputRecorder.FLAG_UNPAUSED) != 0;
+            if ((flags & InputRecorder.FLAG_MOVED) != 0) {
+                mousePosition.set(in.readFloat(), in.readFloat());
+            }
+        } catch (IOException e) {
+            Gdx.app.error("InputReplay", "Replay ended early at step " + played, e);
+            steps = played;
+            return false;
+        }
+        played++;
+        return true;
+    }
+
+    /**
+     * Returns true if every recorded step has been played
+     */
+    public boolean isFinished() {
+        return played >= steps;
+    }
+
+    /**
+     * Returns whether the game was unpaused right before the current step
+     */
+    public boolean wasPaused() { return wasPaused; }
+
+    public FileHandle getLevel() { return level; }
+
+    public long getLevelHash() { return levelHash; }
+
+    public Vector2 getScale() { return scale; }
+
+    public Vector2 getSpiritCenter() { return spiritCenter; }
+
+    public int getSteps() { return steps; }
+
+    public int getPlayed() { return played; }
+
+    /// InputSource Methods
+    public float getHorizontal() { return horizontal; }
+
+    public float getVertical() { return vertical; }
+
+    public Vector2 getMousePosition() { return mousePositionCache.set(mousePosition); }
+
+    public boolean didLeftClick() { return mousePressed && !mousePressedPrevious; }
+
+    public boolean didIsPressed() { return mousePressed; }
+
+    public boolean didRelease() { return mousePressedPrevious && !mousePressed; }
+}
@@ -0,0 +1,61 @@
+package edu.cornell.gdiac.physics;
+
+import com.badlogic.gdx.math.Vector2;
+
+/**
+ * The gameplay input consumed by the simulation.
+ *
+ * InputController implements this by polling the keyboard and mouse. Other
+ * implementations can feed scripted or recorded input, so that a level can be
+ * simulated without a window.
+ */
+public interface InputSource {
+
+    /**
+     * Returns the amount of sideways movement.
+     *
+     * -1 = left, 1 = right, 0 = still
+     *
+     * @return the amount of sideways movement.
+     */
+    public float getHorizontal();
+
+    /**
+     * Returns the amount of vertical movement.
+     *
+     * -1 = down, 1 = up, 0 = still
+     *
+     * @return the amount of vertical movement.
+     */
+    public float getVertical();
+
+    /**
+     * Returns the current position of the mouse on the screen.
+     *
+     * The returned vector may be reused by the next call.
+     *
+     * @return the current position of the mouse on the screen.
+     */
+    public Vector2 getMousePosition();
+
+    /**
+     * Returns true if the left mouse button was just pressed.
+     *
+     * @return true if the left mouse button was just pressed
+     */
+    public boolean didLeftClick();
+
+    /**
+     * Returns true if the left mouse button is held down.
+     *
+     * @return true if the left mouse button is held down
+     */
+    public boolean didIsPressed();
+
+    /**
+     * Returns true if the left mouse button was just released.
+     *
+     * @return true if the left mouse button was just released
+     */
+    public boolean didRelease();
+}
@@ -0,0 +1,582 @@
+package edu.cornell.gdiac.physics;
+
+import com.badlogic.gdx.Files;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.Json;
+import com.badlogic.gdx.utils.SerializationException;
+import edu.cornell.gdiac.physics.Loader.HostData;
+import edu.cornell.gdiac.physics.Loader.LevelData;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * An index of every level the game can play, kept on disk between runs.
+ *
+ * Each level has an entry holding its name, a hash of its contents, a few
+ * facts read from the file and the best results the player got on it. The
+ * sorted lists of levels are built whenever the index changes, so listing the
+ * levels touches no files at all.
+ *
+ * The custom level folder is read once when the catalog is created, then
+ * watched for changes on a background thread, which updates only the entries
+ * of the files that changed. The preset levels never change while the game
+ * runs, so they are only checked once, in the background.
+ *
+ * Use getInstance to get the catalog; there is only one.
+ */
+public class LevelCatalog implements Disposable {
+
+    /** The local file holding the index */
+    public static final String INDEX_FILE = "level_catalog.json";
+    /** The local folder of the custom levels */
+    public static final String CUSTOM_FOLDER = "Custom";
+    /** The internal folder of the preset levels */
+    public static final String PRESET_FOLDER = "levels";
+    /** The extension of a level file */
+    private static final String EXTENSION = ".lvl";
+
+    /** The version of the index, increased whenever the entries change meaning */
+    private static final int VERSION = 1;
+
+    /** What the catalog knows about one level */
+    public static class Entry {
+        /** The name of the level, which is its file name without the extension */
+        public String name;
+        /** The path of the level file */
+        public String path;
+        /** Whether the level is a custom level (a local file) or a preset (internal) */
+        public boolean custom;
+        /** The SHA-1 hash of the contents of the file, or null if not read yet */
+        public String hash;
+        /** The modification time and length of the file when it was hashed */
+        public long modified;
+        public long length;
+
+        /** The dimensions of the board, in Box2D coordinates */
+        public Vector2 dimensions;
+        /** The number of hosts, not counting the pedestal */
+        public int hostCount;
+        /** The tutorial number of the level */
+        public int tutorialNum;
+
+        /** The fastest win, in seconds, or -1 if the level was never won */
+        public int bestTime = -1;
+        /** The number of times the level was won */
+        public int completions;
+
+        /** The level file */
+        transient FileHandle file;
+    }
+
+    /** The index as it is saved */
+    private static class Index {
+        public int version;
+        public Entry[] entries;
+    }
+
+    /**
+     * The levels of one folder, sorted by name
+     *
+     * A listing is replaced, never changed, when the folder changes, so it is
+     * safe to keep using. Its lists are shared and must not be changed.
+     */
+    public static class Listing {
+        /** The catalog entries */
+        public final ArrayList<Entry> entries = new ArrayList<Entry>();
+        /** The level files, in the same order as the entries */
+        public final ArrayList<FileHandle> files = new ArrayList<FileHandle>();
+    }
+
+    /** Sorts entries by name, as the level select screen lists them */
+    private static final Comparator<Entry> BY_NAME = new Comparator<Entry>() {
+        @Override
+        public int compare(Entry e1, Entry e2) {
+            return e1.name.compareTo(e2.name);
+        }
+    };
+
+    /** The catalog */
+    private static LevelCatalog catalog;
+
+    /** Every entry, by path */
+    private HashMap<String, Entry> entries;
+    /** The preset and custom levels, rebuilt whenever an entry is added or removed */
+    private volatile Listing presets;
+    private volatile Listing customs;
+
+    /** The json object for the index */
+    private Json json;
+    /** A json object for reading levels on each thread, since the watcher reads them too */
+    private ThreadLocal<Json> parsers;
+    /** The thread reading changed levels and saving the index */
+    private ExecutorService worker;
+    /** The thread waiting on changes to the custom folder, or null if it is not watched */
+    private Thread watchThread;
+    private WatchService watcher;
+    /** Whether a save of the index is waiting on the worker */
+    private boolean savePending;
+
+    /**
+     * Returns the catalog, creating it the first time
+     *
+     * @return the catalog of levels
+     */
+    public static LevelCatalog getInstance() {
+        if (catalog == null) {
+            catalog = new LevelCatalog();
+        }
+        return catalog;
+    }
+
+    /**
+     * Disposes of the catalog if it was ever created
+     * <p>
+     * Unlike getInstance().dispose(), this never builds a catalog just to
+     * tear it down again.
+     */
+    public static void disposeInstance() {
+        if (catalog != null) {
+            catalog.dispose();
+        }
+    }
+
+    /**
+     * Creates the catalog from the saved index and the custom folder
+     */
+    private LevelCatalog() {
+        json = new Json();
+        json.setIgnoreUnknownFields(true);
+        parsers = new ThreadLocal<Json>() {
+            @Override
+            protected Json initialValue() {
+                return new Json();
+            }
+        };
+        entries = new HashMap<String, Entry>();
+        worker = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "level-catalog");
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            }
+        });
+
+        load();
+        for (int i = 1; i <= WorldController.NUM_LEVELS; i++) {
+            // Ensure one digit number has a leading 0 in the string
+            String num = i < 10 ? "0" + i : "" + i;
+            entry(Gdx.files.internal(PRESET_FOLDER + "/" + num + EXTENSION), false);
+        }
+        scanCustom();
+        publish();
+
+        worker.submit(new Runnable() {
+            @Override
+            public void run() {
+                Listing listing = presets;
+                for (int i = 0; i < listing.files.size(); i++) {
+                    update(listing.files.get(i));
+                }
+            }
+        });
+        watch();
+    }
+
+    /**
+     * Returns the levels of a folder, sorted by name
+     *
+     * @param custom Whether to list the custom levels instead of the presets
+     *
+     * @return the current listing of the folder
+     */
+    public Listing getLevels(boolean custom) {
+        return custom ? customs : presets;
+    }
+
+    /**
+     * Returns the entry of a level file, or null if it is not in the catalog
+     *
+     * @param f The level file
+     */
+    public synchronized Entry getEntry(FileHandle f) {
+        return entries.get(f.path());
+    }
+
+    /**
+     * Reads a level file again if it changed since it was last indexed
+     *
+     * A file that no longer exists is removed from the catalog. This is
+     * called by the watcher, and may be called directly after saving a level
+     * so that it is listed at once.
+     *
+     * @param f The level file
+     */
+    public void update(FileHandle f) {
+        boolean custom = f.type() != Files.FileType.Internal;
+        if (!f.exists()) {
+            synchronized (this) {
+                if (entries.remove(f.path()) != null) {
+                    publish();
+                    save();
+                }
+            }
+            return;
+        }
+
+        long modified = f.lastModified();
+        long length = f.length();
+        synchronized (this) {
+            // Internal files have no reliable time or length, so presets are always read
+            Entry old = entries.get(f.path());
+            if (custom && old != null && old.file != null && old.hash != null
+                    && old.modified == modified && old.length == length) {
+                return;
+            }
+        }
+
+        // Read the file outside the lock, so the render thread is never held up
+        Entry entry = new Entry();
+        entry.modified = modified;
+        entry.length = length;
+        try {
+            byte[] bytes = f.readBytes();
+            entry.hash = hash(bytes);
+            LevelData data = parsers.get().fromJson(LevelData.class, new String(bytes, "UTF-8"));
+            if (data == null) {
+                // Still being written; the watcher sees the write finish
+                return;
+            }
+            entry.dimensions = data.dimensions;
+            entry.tutorialNum = data.tutorialNum;
+            if (data.hostData != null) {
+                for (HostData h : data.hostData) {
+                    if (h != null && !h.isPedestal) { entry.hostCount++; }
+                }
+            }
+        } catch (IOException e) {
+            Gdx.app.error("LevelCatalog", "Could not read " + f.path(), e);
+            return;
+        } catch (RuntimeException e) {
+            // The file may be removed or half written while it is read
+            Gdx.app.error("LevelCatalog", "Could not read " + f.path(), e);
+            return;
+        }
+
+        synchronized (this) {
+            Entry old = entry(f, custom);
+            if (entry.hash.equals(old.hash) && old.modified == modified && old.length == length) {
+                return;
+            }
+            if (!entry.hash.equals(old.hash)) {
+                // The best results were for a different level
+                old.bestTime = -1;
+                old.completions = 0;
+            }
+            old.hash = entry.hash;
+            old.modified = entry.modified;
+            old.length = entry.length;
+            old.dimensions = entry.dimensions;
+            old.hostCount = entry.hostCount;
+            old.tutorialNum = entry.tutorialNum;
+            save();
+        }
+    }
+
+    /**
+     * Records a win on a level, keeping the best time
+     *
+     * @param f       The level file
+     * @param seconds The time the level took, in seconds
+     */
+    public synchronized void recordWin(FileHandle f, int seconds) {
+        Entry entry = entries.get(f.path());
+        if (entry == null) {
+            return;
+        }
+        entry.completions++;
+        if (entry.bestTime < 0 || seconds < entry.bestTime) {
+            entry.bestTime = seconds;
+        }
+        save();
+    }
+
+    /**
+     * Stops watching the custom folder and writes the index
+     */
+    public void dispose() {
+        if (watcher != null) {
+            try {
+                watcher.close();
+            } catch (IOException e) {
+                // Closing only ends the watch thread
+            }
+            watcher = null;
+        }
+        worker.shutdownNow();
+        synchronized (this) {
+            write();
+        }
+        if (catalog == this) {
+            catalog = null;
+        }
+    }
+
+    /**
+     * Returns the entry for a level file, adding an empty one if there is none
+     * <p>
+     * The caller must hold the lock on this catalog.
+     */
+    private Entry entry(FileHandle f, boolean custom) {
+        Entry entry = entries.get(f.path());
+        if (entry == null) {
+            entry = new Entry();
+            entry.path = f.path();
+            entry.name = f.nameWithoutExtension();
+            entry.custom = custom;
+            entries.put(entry.path, entry);
+        }
+        if (entry.file == null) {
+            // Entries read from the index are only listed once the file is found
+            entry.file = f;
+            publish();
+        }
+        return entry;
+    }
+
+    /**
+     * Rebuilds the sorted lists of levels from the entries
+     * <p>
+     * The caller must hold the lock on this catalog, or be the constructor.
+     */
+    private void publish() {
+        Listing presetListing = new Listing();
+        Listing customListing = new Listing();
+        for (Entry entry : entries.values()) {
+            if (entry.file != null) {
+                (entry.custom ? customListing : presetListing).entries.add(entry);
+            }
+        }
+        Collections.sort(presetListing.entries, BY_NAME);
+        Collections.sort(customListing.entries, BY_NAME);
+        for (int i = 0; i < presetListing.entries.size(); i++) {
+            presetListing.files.add(presetListing.entries.get(i).file);
+        }
+        for (int i = 0; i < customListing.entries.size(); i++) {
+            customListing.files.add(customListing.entries.get(i).file);
+        }
+        presets = presetListing;
+        customs = customListing;
+    }
+
+    /**
+     * Reads the saved index
+     * <p>
+     * Entries are only listed once their file is known to exist, by the
+     * constructor or by a scan.
+     */
+    private void load() {
+        FileHandle f = Gdx.files.local(INDEX_FILE);
+        if (!f.exists()) {
+            return;
+        }
+        try {
+            Index index = json.fromJson(Index.class, f);
+            if (index == null || index.version != VERSION || index.entries == null) {
+                return;
+            }
+            for (Entry entry : index.entries) {
+                if (entry != null && entry.path != null && entry.name != null) {
+                    entries.put(entry.path, entry);
+                }
+            }
+        } catch (SerializationException e) {
+            Gdx.app.error("LevelCatalog", "Could not read " + INDEX_FILE + ", rebuilding it", e);
+        }
+    }
+
+    /**
+     * Brings the custom entries up to date with the custom folder
+     * <p>
+     * Entries of files that are gone are dropped, and new or changed files
+     * are read.
+     */
+    private void scanCustom() {
+        FileHandle folder = Gdx.files.local(CUSTOM_FOLDER);
+        folder.mkdirs();
+        File[] files = folder.file().listFiles(Constants.filenameFilter);
+        ArrayList<FileHandle> found = new ArrayList<FileHandle>();
+        if (files != null) {
+            for (File file : files) {
+                found.add(Gdx.files.local(CUSTOM_FOLDER + "/" + file.getName()));
+            }
+        }
+
+        synchronized (this) {
+            ArrayList<String> gone = new ArrayList<String>();
+            for (Entry entry : entries.values()) {
+                if (entry.custom) {
+                    gone.add(entry.path);
+                }
+            }
+            for (int i = 0; i < found.size(); i++) {
+                gone.remove(found.get(i).path());
+                entry(found.get(i), true);
+            }
+            for (int i = 0; i < gone.size(); i++) {
+                entries.remove(gone.get(i));
+            }
+            publish();
+        }
+        for (int i = 0; i < found.size(); i++) {
+            update(found.get(i));
+        }
+    }
+
+    /**
+     * Starts the thread that watches the custom folder for changes
+     */
+    private void watch() {
+        final Path folder;
+        try {
+            folder = Gdx.files.local(CUSTOM_FOLDER).file().getAbsoluteFile().toPath();
+            watcher = FileSystems.getDefault().newWatchService();
+            folder.register(watcher, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            // Levels saved by the designer are still added by update
+            Gdx.app.error("LevelCatalog", "Could not watch " + CUSTOM_FOLDER + " for changes", e);
+            watcher = null;
+            return;
+        }
+
+        final WatchService service = watcher;
+        watchThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    while (true) {
+                        WatchKey key = service.take();
+                        for (WatchEvent<?> event : key.pollEvents()) {
+                            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                                submit(null);
+                                continue;
+                            }
+                            String name = event.context().toString();
+                            if (name.endsWith(EXTENSION)) {
+                                submit(Gdx.files.local(CUSTOM_FOLDER + "/" + name));
+                            }
+                        }
+                        if (!key.reset()) {
+                            // The folder is gone
+                            return;
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    // Stopped
+                } catch (ClosedWatchServiceException e) {
+                    // Stopped by dispose
+                }
+            }
+        }, "level-catalog-watch");
+        watchThread.setDaemon(true);
+        watchThread.start();
+    }
+
+    /**
+     * Updates a changed custom level on the worker thread
+     *
+     * @param f The level file, or null to scan the whole custom folder
+     */
+    private void submit(final FileHandle f) {
+        if (worker.isShutdown()) {
+            return;
+        }
+        worker.submit(new Runnable() {
+            @Override
+            public void run() {
+                if (f == null) {
+                    scanCustom();
+                } else {
+                    update(f);
+                }
+            }
+        });
+    }
+
+    /**
+     * Saves the index on the worker thread, once for any number of changes in a row
+     * <p>
+     * The caller must hold the lock on this catalog.
+     */
+    private void save() {
+        if (savePending || worker.isShutdown()) {
+            return;
+        }
+        savePending = true;
+        worker.submit(new Runnable() {
+            @Override
+            public void run() {
+                synchronized (LevelCatalog.this) {
+                    savePending = false;
+                    write();
+                }
+            }
+        });
+    }
+
+    /**
+     * Writes the index to INDEX_FILE
+     * <p>
+     * The caller must hold the lock on this catalog.
+     */
+    private void write() {
+        Index index = new Index();
+        index.version = VERSION;
+        index.entries = entries.values().toArray(new Entry[entries.size()]);
+        try {
+            Gdx.files.local(INDEX_FILE).writeString(json.toJson(index), false);
+        } catch (RuntimeException e) {
+            Gdx.app.error("LevelCatalog", "Could not write " + INDEX_FILE, e);
+        }
+    }
+
+    /**
+     * Returns the SHA-1 hash of some bytes, in hexadecimal
+     */
+    private static String hash(byte[] bytes) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        byte[] sum = digest.digest(bytes);
+        StringBuilder hex = new StringBuilder(sum.length * 2);
+        for (byte b : sum) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+}
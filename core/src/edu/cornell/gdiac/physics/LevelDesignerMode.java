@@ -863,6 +863,8 @@ public class LevelDesignerMode extends WorldController {
      * @param y The y index in the board of the tile center to update
      */
     private void updateTerrainAroundRegion(int x, int y) {
+        invalidateStaticTiles(xTileToCoord(x), yTileToCoord(y));
+
         updateTerrainTile(x, y);
 
         updateTerrainTile(x - 1, y);
@@ -983,6 +985,8 @@ public class LevelDesignerMode extends WorldController {
 	 * @param y The y index in the board of the tile center to update
 	 */
 	private void updateWallAroundRegion(int x, int y) {
+		invalidateStaticTiles(xTileToCoord(x), yTileToCoord(y));
+
 		// Update the center tile
 		updateWallTile(x, y);
 
@@ -1031,6 +1035,9 @@ public class LevelDesignerMode extends WorldController {
 		final int EDGES_NEXT_TO_CORNER_RIGHT = 1;
 		final int EDGES_NEXT_TO_CORNER_TOP = 2;
 
+		// Every tile may change, so record all of them again
+		invalidateStaticTiles();
+
 		// Update terrain tiles based on the new borders and add walls
 		for(int i = board.getLeftBorder(); i < board.getRightBorder(); i++) {
 			for(int j = board.getBottomBorder(); j < board.getTopBorder(); j++) {
@@ -1293,6 +1300,7 @@ public class LevelDesignerMode extends WorldController {
 				addObject(spawnedObj);
 //				selector.select(mouseX, mouseY);
 				selector.select(spawnedObj);
+				invalidateDrawLayers();
 				if(spawnedObj instanceof OscWall) {
 					if(!showedOscWallMessage) {
 						tutorial.addTutorial(oscWallMessage);
@@ -1305,6 +1313,7 @@ public class LevelDesignerMode extends WorldController {
 
 		if (!selecting && (input.didTertiary()) && !selector.isSelected()) {
 			selector.select(mouseX, mouseY);
+			invalidateDrawLayers();
 			selecting = true;
 
             // The tile indices
@@ -1329,6 +1338,7 @@ public class LevelDesignerMode extends WorldController {
 
 		} else if (!input.didTertiary() && selector.isSelected()) {
 			Obstacle deselected = selector.deselect();
+			invalidateDrawLayers();
 
 			if(deselected instanceof CornerObstacle) {
 				processBorderChange((CornerObstacle)deselected);
@@ -1455,6 +1465,7 @@ public class LevelDesignerMode extends WorldController {
 				// Get the selection, then remove it from the selector
 				Obstacle selection = selector.getObstacle();
 				selector.deselect();
+				invalidateDrawLayers();
 
 				selection.markRemoved(true);
 			}
@@ -1579,6 +1590,8 @@ public class LevelDesignerMode extends WorldController {
 
         level.set(dimensions, wallArray, waterArray, sandArray, borderEdgeArray, borderCornerArray, energyPillarArray, oscWallArray, decorativeArray, hostList, pedestal, spirit, 0);
         loader.saveLevel(f, level);
+        // List the level at once, rather than when the watcher sees it
+        LevelCatalog.getInstance().update(f);
 
         reset();
     }
@@ -0,0 +1,381 @@
+package edu.cornell.gdiac.physics;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Json;
+import edu.cornell.gdiac.physics.Loader.*;
+import edu.cornell.gdiac.physics.obstacle.BorderCorner;
+import edu.cornell.gdiac.physics.obstacle.BorderEdge;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * A compact binary form of the level files.
+ *
+ * The JSON level files are read through reflection, which is slow for the
+ * larger levels. The binary form holds the same LevelData as a header and
+ * one list of fixed size records per kind of object, so it is read with
+ * no parsing at all. Host instructions are stored as a count followed by
+ * the coordinates, and are read back into HostData.path, a flat array of
+ * x, y pairs, rather than one vector each.
+ *
+ * The shipped levels are compiled when the game is built, by running the
+ * main method of this class on the levels folder. A compiled level sits
+ * next to its JSON file, with the extension EXTENSION. Custom levels are
+ * only ever saved as JSON.
+ */
+public class LevelFormat {
+
+    /** The first four bytes of every compiled level */
+    public static final int MAGIC = 0x4d444c56; // "MDLV"
+    /** The version of the format, increased whenever the layout changes */
+    public static final int VERSION = 1;
+    /** The extension of a compiled level */
+    public static final String EXTENSION = ".lvb";
+
+    /** The flags of a water or sand corner byte */
+    private static final int UP_LEFT = 1;
+    private static final int UP_RIGHT = 1 << 1;
+    private static final int DOWN_LEFT = 1 << 2;
+    private static final int DOWN_RIGHT = 1 << 3;
+    /** The flags of an oscillating wall byte */
+    private static final int VERTICAL = 1;
+    private static final int GOING_UP = 1 << 1;
+
+    /**
+     * Returns where the compiled form of a level file is, whether or not it exists
+     *
+     * @param level The JSON level file
+     *
+     * @return the compiled level file
+     */
+    public static FileHandle compiledFile(FileHandle level) {
+        return level.sibling(level.nameWithoutExtension() + EXTENSION);
+    }
+
+    /**
+     * Writes a level in the binary form
+     *
+     * @param data The level to write
+     * @param f    The file to write
+     *
+     * @throws IOException if the file could not be written
+     */
+    public static void write(LevelData data, FileHandle f) throws IOException {
+        DataOutputStream out = new DataOutputStream(f.write(false));
+        try {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeInt(data.tutorialNum);
+            writeVector(out, data.dimensions);
+            writeVector(out, data.startLocation);
+
+            out.writeInt(count(data.wallData));
+            if (data.wallData != null) {
+                for (WallData w : data.wallData) {
+                    if (w == null) { continue; }
+                    writeVector(out, w.origin);
+                    writeVector(out, w.dimensions);
+                    out.writeInt(w.primaryFrame);
+                    out.writeInt(w.leftFrame);
+                    out.writeInt(w.rightFrame);
+                    out.writeInt(w.frontEdgeFrame);
+                    out.writeInt(w.backEdgeFrame);
+                    out.writeInt(w.lowerLeftCornerFrame);
+                    out.writeInt(w.lowerRightCornerFrame);
+                }
+            }
+
+            out.writeInt(count(data.waterData));
+            if (data.waterData != null) {
+                for (WaterData w : data.waterData) {
+                    if (w == null) { continue; }
+                    writeVector(out, w.origin);
+                    writeVector(out, w.dimensions);
+                    out.writeInt(w.frame);
+                    out.writeByte(corners(w.upLeft, w.upRight, w.downLeft, w.downRight));
+                }
+            }
+
+            out.writeInt(count(data.sandData));
+            if (data.sandData != null) {
+                for (SandData s : data.sandData) {
+                    if (s == null) { continue; }
+                    writeVector(out, s.origin);
+                    writeVector(out, s.dimensions);
+                    out.writeInt(s.frame);
+                    out.writeByte(corners(s.upLeft, s.upRight, s.downLeft, s.downRight));
+                }
+            }
+
+            out.writeInt(count(data.borderEdgeData));
+            if (data.borderEdgeData != null) {
+                for (BorderEdgeData b : data.borderEdgeData) {
+                    if (b == null) { continue; }
+                    writeVector(out, b.origin);
+                    out.writeInt(b.frame);
+                    out.writeByte(b.side == null ? -1 : b.side.ordinal());
+                }
+            }
+
+            out.writeInt(count(data.borderCornerData));
+            if (data.borderCornerData != null) {
+                for (BorderCornerData b : data.borderCornerData) {
+                    if (b == null) { continue; }
+                    writeVector(out, b.origin);
+                    out.writeByte(b.corner == null ? -1 : b.corner.ordinal());
+                }
+            }
+
+            out.writeInt(count(data.energyPillarData));
+            if (data.energyPillarData != null) {
+                for (EnergyPillarData e : data.energyPillarData) {
+                    if (e == null) { continue; }
+                    writeVector(out, e.origin);
+                    writeVector(out, e.dimensions);
+                }
+            }
+
+            out.writeInt(count(data.oscWallData));
+            if (data.oscWallData != null) {
+                for (OscWallData o : data.oscWallData) {
+                    if (o == null) { continue; }
+                    writeVector(out, o.origin);
+                    writeVector(out, o.dimensions);
+                    out.writeByte((o.isVert ? VERTICAL : 0) | (o.isGoingUp ? GOING_UP : 0));
+                }
+            }
+
+            out.writeInt(count(data.hostData));
+            if (data.hostData != null) {
+                for (HostData h : data.hostData) {
+                    if (h == null) { continue; }
+                    writeVector(out, h.location);
+                    out.writeInt(h.currentCharge);
+                    out.writeBoolean(h.isPedestal);
+                    if (h.path != null) {
+                        out.writeInt(h.path.length / 2);
+                        for (float coord : h.path) {
+                            out.writeFloat(coord);
+                        }
+                    } else {
+                        out.writeInt(h.instructions == null ? -1 : h.instructions.length);
+                        if (h.instructions != null) {
+                            for (Vector2 v : h.instructions) {
+                                writeVector(out, v);
+                            }
+                        }
+                    }
+                }
+            }
+
+            out.writeInt(count(data.decorativeRootData));
+            if (data.decorativeRootData != null) {
+                for (DecorativeRootData d : data.decorativeRootData) {
+                    if (d == null) { continue; }
+                    writeVector(out, d.origin);
+                    writeVector(out, d.dimensions);
+                    out.writeInt(d.frame);
+                }
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Reads a level written by write
+     *
+     * @param f The compiled level file
+     *
+     * @return the level data, as it was in the JSON file
+     *
+     * @throws IOException if the file is not a compiled level of this version
+     */
+    public static LevelData read(FileHandle f) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(f.readBytes()));
+        if (in.readInt() != MAGIC) {
+            throw new IOException(f.path() + " is not a compiled level");
+        }
+        int version = in.readByte();
+        if (version != VERSION) {
+            throw new IOException(f.path() + " is compiled level version " + version + ", not " + VERSION);
+        }
+
+        LevelData data = new LevelData();
+        data.tutorialNum = in.readInt();
+        data.dimensions = readVector(in);
+        data.startLocation = readVector(in);
+
+        data.wallData = new WallData[in.readInt()];
+        for (int i = 0; i < data.wallData.length; i++) {
+            WallData w = new WallData();
+            w.origin = readVector(in);
+            w.dimensions = readVector(in);
+            w.primaryFrame = in.readInt();
+            w.leftFrame = in.readInt();
+            w.rightFrame = in.readInt();
+            w.frontEdgeFrame = in.readInt();
+            w.backEdgeFrame = in.readInt();
+            w.lowerLeftCornerFrame = in.readInt();
+            w.lowerRightCornerFrame = in.readInt();
+            data.wallData[i] = w;
+        }
+
+        data.waterData = new WaterData[in.readInt()];
+        for (int i = 0; i < data.waterData.length; i++) {
+            WaterData w = new WaterData();
+            w.origin = readVector(in);
+            w.dimensions = readVector(in);
+            w.frame = in.readInt();
+            int corners = in.readByte();
+            w.upLeft = (corners & UP_LEFT) != 0;
+            w.upRight = (corners & UP_RIGHT) != 0;
+            w.downLeft = (corners & DOWN_LEFT) != 0;
+            w.downRight = (corners & DOWN_RIGHT) != 0;
+            data.waterData[i] = w;
+        }
+
+        data.sandData = new SandData[in.readInt()];
+        for (int i = 0; i < data.sandData.length; i++) {
+            SandData s = new SandData();
+            s.origin = readVector(in);
+            s.dimensions = readVector(in);
+            s.frame = in.readInt();
+            int corners = in.readByte();
+            s.upLeft = (corners & UP_LEFT) != 0;
+            s.upRight = (corners & UP_RIGHT) != 0;
+            s.downLeft = (corners & DOWN_LEFT) != 0;
+            s.downRight = (corners & DOWN_RIGHT) != 0;
+            data.sandData[i] = s;
+        }
+
+        BorderEdge.Side[] sides = BorderEdge.Side.values();
+        data.borderEdgeData = new BorderEdgeData[in.readInt()];
+        for (int i = 0; i < data.borderEdgeData.length; i++) {
+            BorderEdgeData b = new BorderEdgeData();
+            b.origin = readVector(in);
+            b.frame = in.readInt();
+            int side = in.readByte();
+            b.side = side < 0 ? null : sides[side];
+            data.borderEdgeData[i] = b;
+        }
+
+        BorderCorner.Corner[] corners = BorderCorner.Corner.values();
+        data.borderCornerData = new BorderCornerData[in.readInt()];
+        for (int i = 0; i < data.borderCornerData.length; i++) {
+            BorderCornerData b = new BorderCornerData();
+            b.origin = readVector(in);
+            int corner = in.readByte();
+            b.corner = corner < 0 ? null : corners[corner];
+            data.borderCornerData[i] = b;
+        }
+
+        data.energyPillarData = new EnergyPillarData[in.readInt()];
+        for (int i = 0; i < data.energyPillarData.length; i++) {
+            EnergyPillarData e = new EnergyPillarData();
+            e.origin = readVector(in);
+            e.dimensions = readVector(in);
+            data.energyPillarData[i] = e;
+        }
+
+        data.oscWallData = new OscWallData[in.readInt()];
+        for (int i = 0; i < data.oscWallData.length; i++) {
+            OscWallData o = new OscWallData();
+            o.origin = readVector(in);
+            o.dimensions = readVector(in);
+            int flags = in.readByte();
+            o.isVert = (flags & VERTICAL) != 0;
+            o.isGoingUp = (flags & GOING_UP) != 0;
+            data.oscWallData[i] = o;
+        }
+
+        data.hostData = new HostData[in.readInt()];
+        for (int i = 0; i < data.hostData.length; i++) {
+            HostData h = new HostData();
+            h.location = readVector(in);
+            h.currentCharge = in.readInt();
+            h.isPedestal = in.readBoolean();
+            int count = in.readInt();
+            if (count >= 0) {
+                h.path = new float[2 * count];
+                for (int j = 0; j < h.path.length; j++) {
+                    h.path[j] = in.readFloat();
+                }
+            }
+            data.hostData[i] = h;
+        }
+
+        data.decorativeRootData = new DecorativeRootData[in.readInt()];
+        for (int i = 0; i < data.decorativeRootData.length; i++) {
+            DecorativeRootData d = new DecorativeRootData();
+            d.origin = readVector(in);
+            d.dimensions = readVector(in);
+            d.frame = in.readInt();
+            data.decorativeRootData[i] = d;
+        }
+        return data;
+    }
+
+    /**
+     * Returns the number of records in an array that may be missing or hold nulls
+     */
+    private static int count(Object[] records) {
+        int count = 0;
+        if (records != null) {
+            for (Object record : records) {
+                if (record != null) { count++; }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the corner flags of a water or sand tile
+     */
+    private static int corners(boolean upLeft, boolean upRight, boolean downLeft, boolean downRight) {
+        return (upLeft ? UP_LEFT : 0) | (upRight ? UP_RIGHT : 0) | (downLeft ? DOWN_LEFT : 0) | (downRight ? DOWN_RIGHT : 0);
+    }
+
+    /**
+     * Writes a vector as two floats, with NaN standing for a missing vector
+     */
+    private static void writeVector(DataOutputStream out, Vector2 v) throws IOException {
+        out.writeFloat(v == null ? Float.NaN : v.x);
+        out.writeFloat(v == null ? Float.NaN : v.y);
+    }
+
+    /**
+     * Reads a vector written by writeVector
+     */
+    private static Vector2 readVector(DataInputStream in) throws IOException {
+        float x = in.readFloat();
+        float y = in.readFloat();
+        return Float.isNaN(x) ? null : new Vector2(x, y);
+    }
+
+    /**
+     * Compiles every JSON level in a folder
+     *
+     * This runs without the game, so it can be part of the build.
+     *
+     * @param args The folder holding the levels (core/assets/levels by default)
+     */
+    public static void main(String[] args) throws IOException {
+        File folder = new File(args.length > 0 ? args[0] : "core/assets/levels");
+        File[] files = folder.listFiles(Constants.filenameFilter);
+        if (files == null) {
+            throw new IOException(folder.getPath() + " is not a folder");
+        }
+        Json json = new Json();
+        for (File file : files) {
+            FileHandle level = new FileHandle(file);
+            write(json.fromJson(LevelData.class, level), compiledFile(level));
+        }
+        System.out.println("Compiled " + files.length + " levels in " + folder.getPath());
+    }
+}
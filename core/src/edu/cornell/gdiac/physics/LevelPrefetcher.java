@@ -0,0 +1,120 @@
+package edu.cornell.gdiac.physics;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Disposable;
+
+import java.util.ArrayList;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Reads the levels the player is likely to play next, while the current one
+ * is being played.
+ *
+ * Only the level data is read ahead, on a single background thread, into the
+ * level cache of the Loader. Building the obstacles uses the factory, its
+ * textures and the physics world, so it stays on the render thread, where
+ * loadLevel then finds the data already parsed.
+ */
+public class LevelPrefetcher implements Disposable {
+
+    /** The loader whose cache is filled */
+    private Loader loader;
+    /** The background thread */
+    private ExecutorService worker;
+    /** The files being read ahead, and the task reading each */
+    private ArrayList<FileHandle> pendingFiles;
+    private ArrayList<Future<?>> pending;
+
+    /**
+     * Creates a prefetcher for the given loader
+     *
+     * @param loader The loader to read levels with
+     */
+    public LevelPrefetcher(Loader loader) {
+        this.loader = loader;
+        worker = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "level-prefetch");
+                // Never keep the game open or compete with the render thread
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            }
+        });
+        pendingFiles = new ArrayList<FileHandle>();
+        pending = new ArrayList<Future<?>>();
+    }
+
+    /**
+     * Reads the given levels in the background, in order
+     *
+     * Levels asked for earlier that have not started yet are dropped.
+     *
+     * @param files The level files to read
+     */
+    public void prefetch(FileHandle... files) {
+        for (int i = 0; i < pending.size(); i++) {
+            pending.get(i).cancel(false);
+        }
+        pending.clear();
+        pendingFiles.clear();
+
+        for (final FileHandle file : files) {
+            if (file == null || pendingFiles.contains(file)) {
+                continue;
+            }
+            pendingFiles.add(file);
+            pending.add(worker.submit(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        loader.readLevel(file);
+                    } catch (RuntimeException e) {
+                        // The render thread reads it again and reports the error
+                        Gdx.app.log("LevelPrefetcher", "Could not read " + file.path() + ": " + e.getMessage());
+                    }
+                }
+            }));
+        }
+    }
+
+    /**
+     * Waits for the given level if it is being read ahead right now
+     *
+     * This keeps a level from being parsed twice when it is needed just as
+     * it is being read. A level that was not asked for returns at once.
+     *
+     * @param file The level file about to be loaded
+     */
+    public void await(FileHandle file) {
+        int index = pendingFiles.indexOf(file);
+        if (index < 0) {
+            return;
+        }
+        try {
+            pending.get(index).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // Errors are handled by the task
+        } catch (CancellationException e) {
+            // It was dropped before it started, so it is read on this thread
+        }
+    }
+
+    /**
+     * Stops the background thread
+     */
+    public void dispose() {
+        worker.shutdownNow();
+        pending.clear();
+        pendingFiles.clear();
+    }
+}
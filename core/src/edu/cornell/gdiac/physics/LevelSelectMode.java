@@ -350,28 +350,28 @@ public class LevelSelectMode extends WorldController implements Screen {
         }
         levelFont.setColor(colorOne);
         try {
-            String name = levels.get(page * 4).file().getName();
+            String name = levelEntries.get(page * 4).name;
 
         Vector2 center = new Vector2((oneEnd.x+oneStart.x)/2,(oneEnd.y+oneStart.y)/2);
-        canvas.drawText(name.substring(0,name.length()-4), levelFont, center.x, center.y);
+        canvas.drawText(name, levelFont, center.x, center.y);
 
         if (page*4 + 1 < levels.size()) {
             center.x = (twoEnd.x+twoStart.x)/2;
             levelFont.setColor(colorTwo);
-            name = levels.get(page * 4 + 1).file().getName();
-            canvas.drawText(name.substring(0, name.length() - 4), levelFont, center.x, center.y+backgroundTexture.getRegionHeight()*0.1f);
+            name = levelEntries.get(page * 4 + 1).name;
+            canvas.drawText(name, levelFont, center.x, center.y+backgroundTexture.getRegionHeight()*0.1f);
         }
         if (page*4 + 2 < levels.size()) {
             center.x = (threeEnd.x+threeStart.x)/2;
             levelFont.setColor(colorThree);
-            name = levels.get(page * 4 + 2).file().getName();
-            canvas.drawText(name.substring(0, name.length() - 4), levelFont, center.x, center.y-backgroundTexture.getRegionHeight()*0.07f);
+            name = levelEntries.get(page * 4 + 2).name;
+            canvas.drawText(name, levelFont, center.x, center.y-backgroundTexture.getRegionHeight()*0.07f);
         }
         if (page*4 + 3 < levels.size()) {
             center.x = (fourEnd.x+fourStart.x)/2;
             levelFont.setColor(colorFour);
-            name = levels.get(page * 4 + 3).file().getName();
-            canvas.drawText(name.substring(0, name.length() - 4), levelFont, center.x, center.y+backgroundTexture.getRegionHeight()*0.1f);
+            name = levelEntries.get(page * 4 + 3).name;
+            canvas.drawText(name, levelFont, center.x, center.y+backgroundTexture.getRegionHeight()*0.1f);
         }
 
         center.x = (customEnd.x+customStart.x)/2;
@@ -0,0 +1,416 @@
+package edu.cornell.gdiac.physics;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector2;
+import edu.cornell.gdiac.physics.host.HostController;
+import edu.cornell.gdiac.physics.host.HostModel;
+import edu.cornell.gdiac.physics.spirit.SpiritModel;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Brute force search for the fewest shots that complete a level.
+ *
+ * The search is breadth first over shots. Every candidate shot is played
+ * through a real Simulation, aimed with a ScriptedInput, so the shot rules are
+ * exactly those of HostController. Each worker thread owns its own Simulation
+ * (and therefore its own Box2D World) and loads the level into it once; every
+ * candidate after that rewinds it with Simulation.restart. States that have
+ * already been reached with fewer or equal shots are pruned with a hash of the
+ * board.
+ *
+ * Shots are only taken from a discrete set of directions, speeds and waiting
+ * times, so "unsolvable" means unsolvable within that set.
+ */
+public class LevelSolver {
+
+    /** Most steps to wait for the spirit to settle into a host */
+    private static final int SETTLE_STEPS = 600;
+    /** Most steps a shot may take to resolve before it is abandoned */
+    private static final int FLIGHT_STEPS = 900;
+    /** Charge values closer than this are treated as the same state */
+    private static final int CHARGE_BUCKET = 30;
+    /** Positions closer than one over this are treated as the same state */
+    private static final float POSITION_BUCKETS = 2f;
+
+    /** The number of shot directions to try */
+    public int angles = 72;
+    /** The shot speeds to try, in world units per second */
+    public float[] speeds = { HostController.MAXIMUM_SHOT_SPEED,
+            (HostController.MINIMUM_SHOT_SPEED + HostController.MAXIMUM_SHOT_SPEED) / 2 };
+    /** The number of extra steps to wait before a shot */
+    public int[] delays = { 0, 60 };
+    /** Give up on levels that need more shots than this */
+    public int maxShots = 12;
+    /** Give up on levels once this many distinct states have been seen */
+    public int maxStates = 20000;
+
+    /** A single shot: wait, then launch with the given velocity */
+    public static class Shot {
+        public int delay;
+        public float vx;
+        public float vy;
+
+        public Shot(int delay, float vx, float vy) {
+            this.delay = delay;
+            this.vx = vx;
+            this.vy = vy;
+        }
+
+        public String toString() {
+            return "(" + delay + ", " + vx + ", " + vy + ")";
+        }
+    }
+
+    /** The outcome of solving one level */
+    public static class Result {
+        /** The level file name */
+        public String name;
+        /** Whether a solution was found */
+        public boolean solved;
+        /** Whether the search ran out of budget before deciding */
+        public boolean exhausted;
+        /** The shortest solution found, or null */
+        public Shot[] solution;
+        /** The number of distinct states visited */
+        public int states;
+        /** Wall clock time taken */
+        public long millis;
+
+        public String toString() {
+            String status = solved ? "solved in " + solution.length + " shots"
+                    : (exhausted ? "gave up" : "UNSOLVABLE");
+            return name + ": " + status + " (" + states + " states, " + millis + " ms)";
+        }
+    }
+
+    /** A node of the search, identified by the shots that reach it */
+    private static class Node {
+        Shot[] shots;
+        boolean complete;
+
+        Node(Shot[] shots, boolean complete) {
+            this.shots = shots;
+            this.complete = complete;
+        }
+    }
+
+    /** Used to build the level of each worker */
+    private Loader loader;
+    /** The worker threads */
+    private ExecutorService pool;
+    /** The simulation owned by each worker thread */
+    private ThreadLocal<Worker> workers;
+    /** Every worker created, so they can be disposed */
+    private List<Worker> allWorkers;
+    /** The candidate shots, built from angles, speeds and delays */
+    private ArrayList<Shot> candidates;
+
+    /**
+     * Creates a new solver
+     *
+     * @param loader  The loader to build levels with (its factory must have textures)
+     * @param threads The number of worker threads
+     */
+    public LevelSolver(Loader loader, int threads) {
+        this.loader = loader;
+        pool = Executors.newFixedThreadPool(Math.max(1, threads));
+        allWorkers = Collections.synchronizedList(new ArrayList<Worker>());
+        workers = new ThreadLocal<Worker>() {
+            @Override
+            protected Worker initialValue() {
+                Worker w = new Worker();
+                allWorkers.add(w);
+                return w;
+            }
+        };
+    }
+
+    /**
+     * Builds the list of candidate shots from the current settings
+     */
+    private void buildCandidates() {
+        candidates = new ArrayList<Shot>();
+        for (int delay : delays) {
+            for (float speed : speeds) {
+                for (int i = 0; i < angles; i++) {
+                    float angle = MathUtils.PI2 * i / angles;
+                    candidates.add(new Shot(delay, speed * MathUtils.cos(angle), speed * MathUtils.sin(angle)));
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the fewest shots that complete the given level
+     *
+     * @param file The level file
+     *
+     * @return the result of the search
+     */
+    public Result solve(final FileHandle file) {
+        long start = System.currentTimeMillis();
+        buildCandidates();
+
+        final Set<Long> visited = Collections.newSetFromMap(new ConcurrentHashMap<Long, Boolean>());
+        final AtomicBoolean found = new AtomicBoolean(false);
+
+        Result result = new Result();
+        result.name = file.name();
+
+        ArrayList<Node> frontier = new ArrayList<Node>();
+        frontier.add(new Node(new Shot[0], false));
+
+        for (int depth = 1; depth <= maxShots && !frontier.isEmpty() && result.solution == null; depth++) {
+            ArrayList<Future<List<Node>>> futures = new ArrayList<Future<List<Node>>>();
+            for (final Node node : frontier) {
+                futures.add(pool.submit(new Callable<List<Node>>() {
+                    public List<Node> call() {
+                        return workers.get().expand(file, node, visited, found);
+                    }
+                }));
+            }
+
+            ArrayList<Node> next = new ArrayList<Node>();
+            for (Future<List<Node>> future : futures) {
+                List<Node> children;
+                try {
+                    children = future.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    children = Collections.emptyList();
+                } catch (ExecutionException e) {
+                    System.out.println("Solver error on " + file.name() + ": " + e.getCause());
+                    children = Collections.emptyList();
+                }
+                for (Node child : children) {
+                    if (child.complete) {
+                        if (result.solution == null) { result.solution = child.shots; }
+                    } else {
+                        next.add(child);
+                    }
+                }
+            }
+
+            if (visited.size() > maxStates) {
+                result.exhausted = true;
+                break;
+            }
+            frontier = next;
+            if (depth == maxShots && !frontier.isEmpty()) {
+                result.exhausted = true;
+            }
+        }
+
+        result.solved = result.solution != null;
+        result.exhausted = result.exhausted && !result.solved;
+        result.states = visited.size();
+        result.millis = System.currentTimeMillis() - start;
+        return result;
+    }
+
+    /**
+     * Solves each level in turn and prints a report line for each
+     *
+     * @param files The level files
+     *
+     * @return the results, in the same order
+     */
+    public ArrayList<Result> solveAll(List<FileHandle> files) {
+        ArrayList<Result> results = new ArrayList<Result>();
+        for (FileHandle f : files) {
+            Result r = solve(f);
+            System.out.println(r);
+            results.add(r);
+        }
+        return results;
+    }
+
+    /**
+     * Stops the worker threads, disposes of their worlds and frees their levels
+     */
+    public void dispose() {
+        pool.shutdown();
+        synchronized (allWorkers) {
+            for (Worker w : allWorkers) {
+                w.dispose();
+            }
+            allWorkers.clear();
+        }
+    }
+
+    /**
+     * The per-thread state of the search
+     */
+    private class Worker {
+        /** The input that aims the shots */
+        private ScriptedInput input;
+        /** This thread's simulation */
+        private Simulation sim;
+        /** The level loaded into the simulation, or null */
+        private Level level;
+        /** The file the level was loaded from */
+        private FileHandle levelFile;
+
+        Worker() {
+            input = new ScriptedInput();
+            sim = new Simulation(input, new Vector2(1, 1), Vector2.Zero);
+        }
+
+        /**
+         * Tries every candidate shot from the given node
+         *
+         * @return the children that reached a new state
+         */
+        List<Node> expand(FileHandle file, Node node, Set<Long> visited, AtomicBoolean found) {
+            ArrayList<Node> children = new ArrayList<Node>();
+            for (Shot shot : candidates) {
+                if (found.get()) { break; }
+                if (!replay(file, node.shots) || !fire(shot)) { continue; }
+
+                Shot[] shots = new Shot[node.shots.length + 1];
+                System.arraycopy(node.shots, 0, shots, 0, node.shots.length);
+                shots[node.shots.length] = shot;
+
+                if (allPossessed()) {
+                    found.set(true);
+                    children.add(new Node(shots, true));
+                } else if (visited.add(stateKey())) {
+                    children.add(new Node(shots, false));
+                }
+            }
+            return children;
+        }
+
+        /**
+         * Rewinds the level to its start and plays the given shots
+         * <p>
+         * The level is only loaded the first time a worker sees the file.
+         *
+         * @return true if every shot resolved without failing
+         */
+        boolean replay(FileHandle file, Shot[] shots) {
+            input.reset();
+            if (level == null || !file.equals(levelFile) || !sim.restart()) {
+                release();
+                // Loader and factory are shared, and loadLevel changes factory state
+                synchronized (loader) {
+                    level = loader.loadLevel(file, 0, false);
+                }
+                levelFile = file;
+                sim.load(level);
+            }
+            for (Shot shot : shots) {
+                if (!fire(shot)) { return false; }
+            }
+            return true;
+        }
+
+        /**
+         * Waits for the spirit to settle, takes the shot and waits for it to land
+         *
+         * @return true if the shot was taken and resolved without failing
+         */
+        boolean fire(Shot shot) {
+            SpiritModel spirit = sim.getSpirit();
+
+            for (int i = 0; i < SETTLE_STEPS && !(spirit.getIsPossessing() && !spirit.getGoToCenter()); i++) {
+                step(false);
+            }
+            if (!spirit.getIsPossessing()) { return false; }
+
+            for (int i = 0; i < shot.delay && !sim.isFailed(); i++) {
+                step(false);
+            }
+
+            // HostController shoots with SHOOTING_MULTIPLIER * (center - mouse) / scale,
+            // and the center is the origin with unit scale here
+            input.setMousePosition(-shot.vx / HostController.SHOOTING_MULTIPLIER,
+                    -shot.vy / HostController.SHOOTING_MULTIPLIER);
+            step(true);
+            step(false);
+            if (!spirit.hasLaunched || sim.isFailed()) { return false; }
+
+            for (int i = 0; i < FLIGHT_STEPS && spirit.hasLaunched && !sim.isFailed(); i++) {
+                step(false);
+            }
+            return !spirit.hasLaunched && !sim.isFailed();
+        }
+
+        /**
+         * Runs one simulation step with the mouse in the given state
+         */
+        void step(boolean pressed) {
+            input.advance();
+            input.setMousePressed(pressed);
+            sim.step(WorldController.WORLD_STEP);
+        }
+
+        /**
+         * Returns true if every host in the level has been possessed
+         */
+        boolean allPossessed() {
+            for (HostModel h : sim.getLevel().hosts) {
+                if (!h.beenPossessed()) { return false; }
+            }
+            return true;
+        }
+
+        /**
+         * Returns a hash of the parts of the board that matter for the search
+         */
+        long stateKey() {
+            ArrayList<HostModel> hosts = sim.getLevel().hosts;
+            HostModel possessed = sim.getPossessed();
+            long hash = 0xcbf29ce484222325L;
+            hash = mix(hash, hosts.indexOf(possessed));
+            hash = mix(hash, possessed.getCurrentCharge() / CHARGE_BUCKET);
+            for (HostModel h : hosts) {
+                hash = mix(hash, h.beenPossessed() ? 1 : 0);
+                hash = mix(hash, Math.round(h.getX() * POSITION_BUCKETS));
+                hash = mix(hash, Math.round(h.getY() * POSITION_BUCKETS));
+            }
+            return hash;
+        }
+
+        /**
+         * Destroys the world and gives the level back to the loader
+         */
+        void release() {
+            sim.dispose();
+            if (level != null) {
+                synchronized (loader) {
+                    loader.freeLevel(level);
+                }
+                level = null;
+                levelFile = null;
+            }
+        }
+
+        void dispose() {
+            release();
+        }
+    }
+
+    /**
+     * Folds a value into an FNV-1a style hash
+     */
+    private static long mix(long hash, long value) {
+        for (int i = 0; i < 8; i++) {
+            hash ^= (value >>> (i * 8)) & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,534 @@
+package edu.cornell.gdiac.physics;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.JsonReader;
+import com.badlogic.gdx.utils.ObjectIntMap;
+import edu.cornell.gdiac.physics.Loader.*;
+import edu.cornell.gdiac.physics.host.HostModel;
+import edu.cornell.gdiac.physics.obstacle.*;
+import edu.cornell.gdiac.physics.spirit.SpiritModel;
+
+import java.util.ArrayList;
+
+/**
+ * Builds a level straight from its JSON file, as the file is read.
+ *
+ * Reading a level through Json.fromJson first builds the whole document and
+ * then a LevelData graph, before the factory makes a single obstacle. This
+ * reader instead takes the events of the JSON parser and hands each record to
+ * the factory as soon as its closing brace is read, keeping only the fields
+ * of the current record. The file format is the one written by
+ * Loader.saveLevel.
+ *
+ * The records are also kept as the LevelData of the file, so the loader can
+ * cache it and build the level again without reading the file.
+ *
+ * Obstacles are made as they are read, so this must be used on the render
+ * thread, after the factory opacity has been set.
+ */
+public class LevelStreamReader extends JsonReader {
+
+    /** What the innermost open object or array of the file is */
+    private static final int ROOT = 0;
+    private static final int SECTION = 1;
+    private static final int RECORD = 2;
+    private static final int VECTOR = 3;
+    private static final int INSTRUCTIONS = 4;
+    private static final int INSTRUCTION = 5;
+    private static final int IGNORED = 6;
+
+    /** The kinds of record, one per array in the level file */
+    private static final int WALLS = 0;
+    private static final int WATER = 1;
+    private static final int SAND = 2;
+    private static final int BORDER_EDGES = 3;
+    private static final int BORDER_CORNERS = 4;
+    private static final int PILLARS = 5;
+    private static final int OSC_WALLS = 6;
+    private static final int HOSTS = 7;
+    private static final int ROOTS = 8;
+
+    /** The kind of record held by each array of the level file */
+    private static final ObjectIntMap<String> SECTIONS = new ObjectIntMap<String>();
+    static {
+        SECTIONS.put("wallData", WALLS);
+        SECTIONS.put("waterData", WATER);
+        SECTIONS.put("sandData", SAND);
+        SECTIONS.put("borderEdgeData", BORDER_EDGES);
+        SECTIONS.put("borderCornerData", BORDER_CORNERS);
+        SECTIONS.put("energyPillarData", PILLARS);
+        SECTIONS.put("oscWallData", OSC_WALLS);
+        SECTIONS.put("hostData", HOSTS);
+        SECTIONS.put("decorativeRootData", ROOTS);
+    }
+
+    /** The factory making the obstacles */
+    private Factory factory;
+    /** The night opacity of the level being read */
+    private Color opacity;
+
+    /** The kinds of the open objects and arrays, innermost last */
+    private IntArray stack;
+    /** The kind of record in the array being read */
+    private int section;
+    /** The name of the vector being read */
+    private String vector;
+
+    // Fields of the level
+    private int tutorialNum;
+    private Vector2 dimensions;
+    private Vector2 startLocation;
+
+    // Fields of the record being read; missing fields keep these defaults
+    private float x;
+    private float y;
+    private int frame;
+    private int primaryFrame;
+    private int leftFrame;
+    private int rightFrame;
+    private int frontEdgeFrame;
+    private int backEdgeFrame;
+    private int lowerLeftCornerFrame;
+    private int lowerRightCornerFrame;
+    private boolean upLeft;
+    private boolean upRight;
+    private boolean downLeft;
+    private boolean downRight;
+    private boolean isVert;
+    private boolean isGoingUp;
+    private int currentCharge;
+    private String side;
+    private String corner;
+    /** The dimensions of the record being read, or null if it has none */
+    private Vector2 recordDimensions;
+    /** The instructions of the host being read as x, y pairs, or null if it has none */
+    private FloatArray instructions;
+    /** The instruction being read */
+    private Vector2 instruction;
+
+    // The obstacles made so far
+    private Array<Wall> walls;
+    private Array<WaterTile> water;
+    private Array<SandTile> sand;
+    private Array<BorderEdge> borderEdges;
+    private Array<BorderCorner> borderCorners;
+    private Array<EnergyPillar> energyPillars;
+    private Array<OscWall> oscWalls;
+    private Array<DecorativeRoots> roots;
+    private ArrayList<HostModel> hosts;
+
+    // The records read so far
+    private Array<WallData> wallData;
+    private Array<WaterData> waterData;
+    private Array<SandData> sandData;
+    private Array<BorderEdgeData> borderEdgeData;
+    private Array<BorderCornerData> borderCornerData;
+    private Array<EnergyPillarData> energyPillarData;
+    private Array<OscWallData> oscWallData;
+    private Array<HostData> hostData;
+    private Array<DecorativeRootData> rootData;
+
+    /** The data of the last level read */
+    private LevelData levelData;
+
+    /**
+     * Creates a reader that makes obstacles with the given factory
+     *
+     * @param factory The factory making the obstacles
+     */
+    public LevelStreamReader(Factory factory) {
+        this.factory = factory;
+        stack = new IntArray();
+        instruction = new Vector2();
+    }
+
+    /**
+     * Reads a level file, making every obstacle in it
+     *
+     * @param f       A json file written by Loader.saveLevel
+     * @param opacity The night opacity of the level, already given to the factory
+     *
+     * @return the level
+     */
+    public Level read(FileHandle f, Color opacity) {
+        this.opacity = opacity;
+        stack.clear();
+        tutorialNum = 0;
+        dimensions = null;
+        startLocation = null;
+        walls = new Array<Wall>(Wall.class);
+        water = new Array<WaterTile>(WaterTile.class);
+        sand = new Array<SandTile>(SandTile.class);
+        borderEdges = new Array<BorderEdge>(BorderEdge.class);
+        borderCorners = new Array<BorderCorner>(BorderCorner.class);
+        energyPillars = new Array<EnergyPillar>(EnergyPillar.class);
+        oscWalls = new Array<OscWall>(OscWall.class);
+        roots = new Array<DecorativeRoots>(DecorativeRoots.class);
+        hosts = new ArrayList<HostModel>();
+        wallData = new Array<WallData>(WallData.class);
+        waterData = new Array<WaterData>(WaterData.class);
+        sandData = new Array<SandData>(SandData.class);
+        borderEdgeData = new Array<BorderEdgeData>(BorderEdgeData.class);
+        borderCornerData = new Array<BorderCornerData>(BorderCornerData.class);
+        energyPillarData = new Array<EnergyPillarData>(EnergyPillarData.class);
+        oscWallData = new Array<OscWallData>(OscWallData.class);
+        hostData = new Array<HostData>(HostData.class);
+        rootData = new Array<DecorativeRootData>(DecorativeRootData.class);
+
+        parse(f);
+
+        // Create the starting "host" (with no charge capacity)
+        HostModel pedestal = factory.makePedestal(startLocation.x, startLocation.y);
+        SpiritModel spirit = factory.makeSpirit(startLocation.x, startLocation.y);
+        Level level = new Level(dimensions, walls.shrink(), water.shrink(), sand.shrink(),
+                borderEdges.shrink(), borderCorners.shrink(), energyPillars.shrink(), oscWalls.shrink(),
+                roots.shrink(), hosts, pedestal, spirit, tutorialNum);
+
+        levelData = new LevelData();
+        levelData.tutorialNum = tutorialNum;
+        levelData.dimensions = dimensions == null ? null : new Vector2(dimensions);
+        levelData.startLocation = new Vector2(startLocation);
+        levelData.wallData = wallData.shrink();
+        levelData.waterData = waterData.shrink();
+        levelData.sandData = sandData.shrink();
+        levelData.borderEdgeData = borderEdgeData.shrink();
+        levelData.borderCornerData = borderCornerData.shrink();
+        levelData.energyPillarData = energyPillarData.shrink();
+        levelData.oscWallData = oscWallData.shrink();
+        levelData.hostData = hostData.shrink();
+        levelData.decorativeRootData = rootData.shrink();
+
+        // Do not hold on to the level
+        walls = null;
+        water = null;
+        sand = null;
+        borderEdges = null;
+        borderCorners = null;
+        energyPillars = null;
+        oscWalls = null;
+        roots = null;
+        hosts = null;
+        wallData = null;
+        waterData = null;
+        sandData = null;
+        borderEdgeData = null;
+        borderCornerData = null;
+        energyPillarData = null;
+        oscWallData = null;
+        hostData = null;
+        rootData = null;
+        return level;
+    }
+
+    /**
+     * Returns the data of the level last read, and forgets it
+     *
+     * The data shares no vectors with the level, so it may be cached.
+     *
+     * @return the data of the level, or null if none was read since the last call
+     */
+    public LevelData takeLevelData() {
+        LevelData data = levelData;
+        levelData = null;
+        return data;
+    }
+
+    /** Returns the kind of the innermost open object or array */
+    private int top() {
+        return stack.size == 0 ? -1 : stack.peek();
+    }
+
+    @Override
+    protected void startObject(String name) {
+        int parent = top();
+        if (parent == -1) {
+            stack.add(ROOT);
+        } else if (parent == SECTION && name == null) {
+            clearRecord();
+            stack.add(RECORD);
+        } else if (parent == INSTRUCTIONS) {
+            instruction.setZero();
+            stack.add(INSTRUCTION);
+        } else if (parent == ROOT || parent == RECORD) {
+            vector = name;
+            stack.add(VECTOR);
+        } else {
+            stack.add(IGNORED);
+        }
+    }
+
+    @Override
+    protected void startArray(String name) {
+        int parent = top();
+        if (parent == ROOT && SECTIONS.containsKey(name)) {
+            section = SECTIONS.get(name, -1);
+            stack.add(SECTION);
+        } else if (parent == RECORD && "instructions".equals(name)) {
+            instructions = new FloatArray();
+            stack.add(INSTRUCTIONS);
+        } else {
+            stack.add(IGNORED);
+        }
+    }
+
+    @Override
+    protected void pop() {
+        int kind = stack.pop();
+        if (kind == RECORD) {
+            makeRecord();
+        } else if (kind == INSTRUCTION) {
+            instructions.add(instruction.x, instruction.y);
+        }
+    }
+
+    @Override
+    protected void number(String name, double value, String stringValue) {
+        set(name, value);
+    }
+
+    @Override
+    protected void number(String name, long value, String stringValue) {
+        set(name, value);
+    }
+
+    @Override
+    protected void bool(String name, boolean value) {
+        if (top() != RECORD) {
+            return;
+        }
+        if ("upLeft".equals(name)) {
+            upLeft = value;
+        } else if ("upRight".equals(name)) {
+            upRight = value;
+        } else if ("downLeft".equals(name)) {
+            downLeft = value;
+        } else if ("downRight".equals(name)) {
+            downRight = value;
+        } else if ("isVert".equals(name)) {
+            isVert = value;
+        } else if ("isGoingUp".equals(name)) {
+            isGoingUp = value;
+        }
+    }
+
+    @Override
+    protected void string(String name, String value) {
+        if (top() != RECORD) {
+            return;
+        }
+        if ("side".equals(name)) {
+            side = value;
+        } else if ("corner".equals(name)) {
+            corner = value;
+        }
+    }
+
+    /**
+     * Sets the numeric field with the given name in the innermost object
+     */
+    private void set(String name, double value) {
+        switch (top()) {
+            case ROOT:
+                if ("tutorialNum".equals(name)) {
+                    tutorialNum = (int) value;
+                }
+                break;
+            case VECTOR:
+                setVector(name, (float) value);
+                break;
+            case INSTRUCTION:
+                if ("x".equals(name)) {
+                    instruction.x = (float) value;
+                } else if ("y".equals(name)) {
+                    instruction.y = (float) value;
+                }
+                break;
+            case RECORD:
+                setRecord(name, (int) value);
+                break;
+        }
+    }
+
+    /**
+     * Sets a coordinate of the vector being read
+     */
+    private void setVector(String name, float value) {
+        boolean isX = "x".equals(name);
+        if (!isX && !"y".equals(name)) {
+            return;
+        }
+        if (stack.size == 2) {
+            // A vector of the level itself
+            if ("dimensions".equals(vector)) {
+                if (dimensions == null) { dimensions = new Vector2(); }
+                if (isX) { dimensions.x = value; } else { dimensions.y = value; }
+            } else if ("startLocation".equals(vector)) {
+                if (startLocation == null) { startLocation = new Vector2(); }
+                if (isX) { startLocation.x = value; } else { startLocation.y = value; }
+            }
+        } else if ("origin".equals(vector) || "location".equals(vector)) {
+            // Only the position of a record is used to make its obstacle
+            if (isX) { x = value; } else { y = value; }
+        } else if ("dimensions".equals(vector)) {
+            if (recordDimensions == null) { recordDimensions = new Vector2(); }
+            if (isX) { recordDimensions.x = value; } else { recordDimensions.y = value; }
+        }
+    }
+
+    /**
+     * Sets an integer field of the record being read
+     */
+    private void setRecord(String name, int value) {
+        if ("frame".equals(name)) {
+            frame = value;
+        } else if ("primaryFrame".equals(name)) {
+            primaryFrame = value;
+        } else if ("leftFrame".equals(name)) {
+            leftFrame = value;
+        } else if ("rightFrame".equals(name)) {
+            rightFrame = value;
+        } else if ("frontEdgeFrame".equals(name)) {
+            frontEdgeFrame = value;
+        } else if ("backEdgeFrame".equals(name)) {
+            backEdgeFrame = value;
+        } else if ("lowerLeftCornerFrame".equals(name)) {
+            lowerLeftCornerFrame = value;
+        } else if ("lowerRightCornerFrame".equals(name)) {
+            lowerRightCornerFrame = value;
+        } else if ("currentCharge".equals(name)) {
+            currentCharge = value;
+        }
+    }
+
+    /**
+     * Puts every field of the record back to its default
+     */
+    private void clearRecord() {
+        x = 0;
+        y = 0;
+        frame = 0;
+        primaryFrame = 0;
+        leftFrame = 0;
+        rightFrame = 0;
+        frontEdgeFrame = 0;
+        backEdgeFrame = 0;
+        lowerLeftCornerFrame = 0;
+        lowerRightCornerFrame = 0;
+        upLeft = false;
+        upRight = false;
+        downLeft = false;
+        downRight = false;
+        isVert = false;
+        isGoingUp = false;
+        currentCharge = 0;
+        side = null;
+        corner = null;
+        recordDimensions = null;
+        instructions = null;
+    }
+
+    /**
+     * Makes the obstacle of the record that was just read, and keeps its data
+     */
+    private void makeRecord() {
+        Vector2 origin = new Vector2(x, y);
+        switch (section) {
+            case WALLS:
+                walls.add(factory.makeWall(x, y, primaryFrame, leftFrame, rightFrame,
+                        frontEdgeFrame, backEdgeFrame, lowerLeftCornerFrame, lowerRightCornerFrame, opacity));
+                WallData wallRecord = new WallData();
+                wallRecord.origin = origin;
+                wallRecord.dimensions = recordDimensions;
+                wallRecord.primaryFrame = primaryFrame;
+                wallRecord.leftFrame = leftFrame;
+                wallRecord.rightFrame = rightFrame;
+                wallRecord.frontEdgeFrame = frontEdgeFrame;
+                wallRecord.backEdgeFrame = backEdgeFrame;
+                wallRecord.lowerLeftCornerFrame = lowerLeftCornerFrame;
+                wallRecord.lowerRightCornerFrame = lowerRightCornerFrame;
+                wallData.add(wallRecord);
+                break;
+            case WATER:
+                WaterTile w = factory.makeWater(x, y, frame);
+                w.setCorners(upLeft, upRight, downLeft, downRight);
+                water.add(w);
+                WaterData waterRecord = new WaterData();
+                waterRecord.origin = origin;
+                waterRecord.dimensions = recordDimensions;
+                waterRecord.frame = frame;
+                waterRecord.upLeft = upLeft;
+                waterRecord.upRight = upRight;
+                waterRecord.downLeft = downLeft;
+                waterRecord.downRight = downRight;
+                waterData.add(waterRecord);
+                break;
+            case SAND:
+                SandTile s = factory.makeSand(x, y, frame);
+                s.setCorners(upLeft, upRight, downLeft, downRight);
+                sand.add(s);
+                SandData sandRecord = new SandData();
+                sandRecord.origin = origin;
+                sandRecord.dimensions = recordDimensions;
+                sandRecord.frame = frame;
+                sandRecord.upLeft = upLeft;
+                sandRecord.upRight = upRight;
+                sandRecord.downLeft = downLeft;
+                sandRecord.downRight = downRight;
+                sandData.add(sandRecord);
+                break;
+            case BORDER_EDGES:
+                BorderEdgeData edgeRecord = new BorderEdgeData();
+                edgeRecord.origin = origin;
+                edgeRecord.frame = frame;
+                edgeRecord.side = side == null ? null : BorderEdge.Side.valueOf(side);
+                borderEdges.add(factory.makeBorder(x, y, edgeRecord.side, frame));
+                borderEdgeData.add(edgeRecord);
+                break;
+            case BORDER_CORNERS:
+                BorderCornerData cornerRecord = new BorderCornerData();
+                cornerRecord.origin = origin;
+                cornerRecord.corner = corner == null ? null : BorderCorner.Corner.valueOf(corner);
+                borderCorners.add(factory.makeBorderCorner(x, y, cornerRecord.corner));
+                borderCornerData.add(cornerRecord);
+                break;
+            case PILLARS:
+                energyPillars.add(factory.makeEnergyPillar(x, y));
+                EnergyPillarData pillarRecord = new EnergyPillarData();
+                pillarRecord.origin = origin;
+                pillarRecord.dimensions = recordDimensions;
+                energyPillarData.add(pillarRecord);
+                break;
+            case OSC_WALLS:
+                oscWalls.add(factory.makeOscWall(x, y, isVert, isGoingUp));
+                OscWallData oscRecord = new OscWallData();
+                oscRecord.origin = origin;
+                oscRecord.dimensions = recordDimensions;
+                oscRecord.isVert = isVert;
+                oscRecord.isGoingUp = isGoingUp;
+                oscWallData.add(oscRecord);
+                break;
+            case HOSTS:
+                // The factory copies the pairs into vectors, so the record may keep them
+                HostData hostRecord = new HostData();
+                hostRecord.location = origin;
+                hostRecord.currentCharge = currentCharge;
+                hostRecord.path = instructions == null ? null : instructions.toArray();
+                hosts.add(factory.makeSmallHost(x, y, hostRecord.path, currentCharge));
+                hostData.add(hostRecord);
+                break;
+            case ROOTS:
+                roots.add(factory.makeDecorativeRoot(x, y, frame));
+                DecorativeRootData rootRecord = new DecorativeRootData();
+                rootRecord.origin = origin;
+                rootRecord.dimensions = recordDimensions;
+                rootRecord.frame = frame;
+                rootData.add(rootRecord);
+                break;
+        }
+    }
+}
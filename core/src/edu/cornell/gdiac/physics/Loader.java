@@ -16,7 +16,11 @@ import edu.cornell.gdiac.physics.host.HostModel;
 import edu.cornell.gdiac.physics.obstacle.*;
 import edu.cornell.gdiac.physics.spirit.SpiritModel;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * A class that can be used for loading and saving levels from json files
@@ -104,6 +108,8 @@ public class Loader {
         public int currentCharge;
         public Vector2[] instructions;
         public boolean isPedestal;
+        /** The instructions as x, y pairs, used instead of instructions by compiled levels */
+        public transient float[] path;
     }
 
     /** A struct that stores data for decorative roots when read from the json */
@@ -132,14 +138,40 @@ public class Loader {
 
     }
 
+    /** A parsed level kept in the level cache */
+    private static class CachedLevel {
+        /** The modification time of the file when it was parsed */
+        long modified;
+        /** The parsed level, which is never changed once cached */
+        LevelData data;
+        /** The estimated size of the parsed level in bytes */
+        long bytes;
+    }
+
+    /** The default limit on the estimated size of the level cache, in bytes */
+    public static final long DEFAULT_CACHE_BYTES = 8 * 1024 * 1024;
+    /** Rough sizes of a parsed record and of a vector, for estimating cache size */
+    private static final int RECORD_BYTES = 96;
+    private static final int VECTOR_BYTES = 24;
+
     /** The data about the tutorial level messages */
     private Tutorials tutorials;
 
+    /** Parsed levels by file, least recently used first */
+    private LinkedHashMap<String, CachedLevel> levelCache;
+    /** The estimated size of the level cache, and the most it may grow to */
+    private long cacheBytes;
+    private long cacheLimit;
+
     /** A factory that creates the game objects */
     private Factory factory;
 
     /** A json object used for loading all json files */
     private Json json;
+    /** A json object for parsing levels on each thread, since they may be prefetched */
+    private ThreadLocal<Json> parsers;
+    /** A reader building levels straight from their files, on the render thread */
+    private LevelStreamReader streamReader;
 
     /** An asset manager for loading assets */
     private AssetManager manager;
@@ -153,6 +185,15 @@ public class Loader {
         this.factory = factory;
 
         json = new Json();
+        parsers = new ThreadLocal<Json>() {
+            @Override
+            protected Json initialValue() {
+                return new Json();
+            }
+        };
+        streamReader = new LevelStreamReader(factory);
+        levelCache = new LinkedHashMap<String, CachedLevel>(16, 0.75f, true);
+        cacheLimit = DEFAULT_CACHE_BYTES;
 
 //        outputTutorials();
 
@@ -316,10 +357,23 @@ public class Loader {
         // Store the now-populated level data
         String output = json.toJson(levelData);
         f.writeString(output, false);
+
+        // The file may be saved and loaded again within its timestamp resolution
+        synchronized (levelCache) {
+            CachedLevel cached = levelCache.remove(f.type() + ":" + f.path());
+            if (cached != null) {
+                cacheBytes -= cached.bytes;
+            }
+        }
     }
 
     /**
      * A function to get a Level from a json file storing the data of the level
+     * <p>
+     * A level that is neither cached nor compiled, such as a custom level
+     * played for the first time, is streamed from its file straight into the
+     * factory, and the data read is cached for the next load. Otherwise it is
+     * built from its cached or compiled data.
      *
      * @param f A LibGDX FileHandle to a json file that holds the level data
      *          Requires: f is a json file that correctly stores the level data
@@ -327,10 +381,23 @@ public class Loader {
      * @return A complete Level object that is the json file deserialized
      */
     public Level loadLevel(FileHandle f, int level, boolean useNight) {
-        // If this ever breaks try putting .readString() at the end of internal(f)
-        // Can't load from a file handle because the file system is weird when
-        // exported to a .jar
-        LevelData levelData = json.fromJson(LevelData.class, f);
+        // Opacity of the nightmode
+        float value = useNight ? 1 - level/32.0f : 0;
+        Color opacity = new Color(1,1,1, value);
+
+        factory.setOpacity(opacity);
+
+        LevelData levelData = lookupLevel(f);
+        if (levelData == null) {
+            if (!isCompiled(f)) {
+                // Stream the first load, but keep what was read for the next
+                long modified = f.lastModified();
+                Level streamed = streamReader.read(f, opacity);
+                cacheLevel(f, modified, streamReader.takeLevelData());
+                return streamed;
+            }
+            levelData = readLevel(f);
+        }
 
         // Load the map regions
         Vector2 dimensions = levelData.dimensions;
@@ -338,12 +405,6 @@ public class Loader {
         // Load tutorial data
         int tutorialNum = levelData.tutorialNum;
 
-        // Opacity of the nightmode
-        float value = useNight ? 1 - level/32.0f : 0;
-        Color opacity = new Color(1,1,1, value);
-
-        factory.setOpacity(opacity);
-
         // Create the walls
         Wall[] walls = new Wall[levelData.wallData.length];
         WallData oData; // A simple reference to the data being processed
@@ -405,12 +466,13 @@ public class Loader {
         for (int i = 0; i < levelData.hostData.length; i++) {
             hData = levelData.hostData[i];
 
-            hosts.add(factory.makeSmallHost(hData.location.x, hData.location.y, hData.instructions, hData.currentCharge));
+            if (hData.path != null) {
+                hosts.add(factory.makeSmallHost(hData.location.x, hData.location.y, hData.path, hData.currentCharge));
+            } else {
+                hosts.add(factory.makeSmallHost(hData.location.x, hData.location.y, hData.instructions, hData.currentCharge));
+            }
         }
 
-        if(levelData.decorativeRootData == null) {
-            levelData.decorativeRootData = new DecorativeRootData[0];
-        }
         DecorativeRoots[] roots = new DecorativeRoots[levelData.decorativeRootData.length];
         DecorativeRootData dData; // A simple reference to the data being processed
         for (int i = 0; i < levelData.decorativeRootData.length; i++) {
@@ -424,6 +486,195 @@ public class Loader {
         return new Level(dimensions, walls, water, sand, borderEdges, borderCorners, energyPillars, oscWalls, roots, hosts, pedestal, spirit, tutorialNum);
     }
 
+    /**
+     * Reads the data of a level, reusing the last read if the file is unchanged
+     * <p>
+     * Levels are cached by path and modification time, so playing the same
+     * level again does not read or parse the file. The returned data is
+     * shared with the cache and must not be changed.
+     * <p>
+     * This may be called from any thread, such as by a LevelPrefetcher. It
+     * does not touch the factory.
+     *
+     * @param f A LibGDX FileHandle to a json file that holds the level data
+     *
+     * @return the data of the level
+     */
+    public LevelData readLevel(FileHandle f) {
+        long modified = f.lastModified();
+        LevelData data = lookupLevel(f, modified);
+        if (data != null) {
+            return data;
+        }
+
+        // Parse without holding the cache, so other levels can be read meanwhile
+        data = parseLevel(f);
+        cacheLevel(f, modified, data);
+        return data;
+    }
+
+    /**
+     * Puts the data of a level in the cache, replacing any older data of the file
+     *
+     * @param f        A LibGDX FileHandle to a json file that holds the level data
+     * @param modified The modification time of the file when it was read
+     * @param data     The data read from the file
+     */
+    private void cacheLevel(FileHandle f, long modified, LevelData data) {
+        String key = f.type() + ":" + f.path();
+        CachedLevel cached = new CachedLevel();
+        cached.modified = modified;
+        cached.data = data;
+        cached.bytes = estimateSize(data);
+        synchronized (levelCache) {
+            CachedLevel old = levelCache.remove(key);
+            if (old != null) {
+                cacheBytes -= old.bytes;
+            }
+            if (cached.bytes <= cacheLimit) {
+                levelCache.put(key, cached);
+                cacheBytes += cached.bytes;
+                trimCache();
+            }
+        }
+    }
+
+    /**
+     * Returns the cached data of a level, or null if it is not cached or has changed
+     *
+     * @param f A LibGDX FileHandle to a json file that holds the level data
+     */
+    private LevelData lookupLevel(FileHandle f) {
+        return lookupLevel(f, f.lastModified());
+    }
+
+    /**
+     * Returns the cached data of a level, or null if it is not cached or has changed
+     *
+     * @param f        A LibGDX FileHandle to a json file that holds the level data
+     * @param modified The modification time of the file
+     */
+    private LevelData lookupLevel(FileHandle f, long modified) {
+        synchronized (levelCache) {
+            CachedLevel cached = levelCache.get(f.type() + ":" + f.path());
+            return cached != null && cached.modified == modified ? cached.data : null;
+        }
+    }
+
+    /**
+     * Sets the most the level cache may hold, evicting the least recently used levels
+     *
+     * @param bytes The limit on the estimated size of the cached levels; 0 disables the cache
+     */
+    public void setCacheLimit(long bytes) {
+        synchronized (levelCache) {
+            cacheLimit = bytes;
+            trimCache();
+        }
+    }
+
+    /**
+     * Empties the level cache
+     */
+    public void clearCache() {
+        synchronized (levelCache) {
+            levelCache.clear();
+            cacheBytes = 0;
+        }
+    }
+
+    /**
+     * Evicts the least recently used levels until the cache is within its limit
+     * <p>
+     * The caller must hold the lock on levelCache.
+     */
+    private void trimCache() {
+        Iterator<Map.Entry<String, CachedLevel>> it = levelCache.entrySet().iterator();
+        while (cacheBytes > cacheLimit && it.hasNext()) {
+            cacheBytes -= it.next().getValue().bytes;
+            it.remove();
+        }
+    }
+
+    /**
+     * Returns a rough estimate of the memory used by the data of a level
+     */
+    private static long estimateSize(LevelData data) {
+        long records = length(data.wallData) + length(data.waterData) + length(data.sandData)
+                + length(data.borderEdgeData) + length(data.borderCornerData) + length(data.energyPillarData)
+                + length(data.oscWallData) + length(data.decorativeRootData);
+        long vectors = 0;
+        if (data.hostData != null) {
+            records += data.hostData.length;
+            for (HostData h : data.hostData) {
+                if (h != null && h.path != null) {
+                    vectors += h.path.length / 2;
+                } else if (h != null && h.instructions != null) {
+                    vectors += h.instructions.length;
+                }
+            }
+        }
+        return RECORD_BYTES * (records + 1) + VECTOR_BYTES * vectors;
+    }
+
+    /**
+     * Returns the length of an array that may be missing
+     */
+    private static int length(Object[] array) {
+        return array == null ? 0 : array.length;
+    }
+
+    /**
+     * Parses the data of a level, from its compiled form if there is one
+     * <p>
+     * A compiled level is only used if it is at least as new as the JSON
+     * file, so a level edited since the last build is still read from JSON.
+     *
+     * @param f A LibGDX FileHandle to a json file that holds the level data
+     *
+     * @return the data of the level
+     */
+    private LevelData parseLevel(FileHandle f) {
+        if (isCompiled(f)) {
+            FileHandle compiled = LevelFormat.compiledFile(f);
+            try {
+                return LevelFormat.read(compiled);
+            } catch (IOException e) {
+                Gdx.app.error("Loader", "Could not read " + compiled.path() + ", reading JSON instead", e);
+            }
+        }
+        // If this ever breaks try putting .readString() at the end of internal(f)
+        // Can't load from a file handle because the file system is weird when
+        // exported to a .jar
+        LevelData levelData = parsers.get().fromJson(LevelData.class, f);
+        if(levelData.decorativeRootData == null) {
+            levelData.decorativeRootData = new DecorativeRootData[0];
+        }
+        return levelData;
+    }
+
+    /**
+     * Returns whether a level has a compiled form at least as new as its JSON file
+     *
+     * @param f A LibGDX FileHandle to a json file that holds the level data
+     */
+    private static boolean isCompiled(FileHandle f) {
+        FileHandle compiled = LevelFormat.compiledFile(f);
+        return compiled.exists() && compiled.lastModified() >= f.lastModified();
+    }
+
+    /**
+     * Gives the obstacles of a level that is no longer used back to the factory
+     * <p>
+     * The tiles are reused by the next loadLevel. The level must already be out
+     * of the world, and must not be used afterwards.
+     *
+     * @param level The level to free
+     */
+    public void freeLevel(Level level) {
+        factory.free(level);
+    }
+
     /**
      * Get tutorial data. If no tutorial file was initially loaded, nothing will
      * be returned
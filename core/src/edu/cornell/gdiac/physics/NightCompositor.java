@@ -0,0 +1,142 @@
+package edu.cornell.gdiac.physics;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Mesh;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.VertexAttribute;
+import com.badlogic.gdx.graphics.VertexAttributes;
+import com.badlogic.gdx.graphics.glutils.FrameBuffer;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.ObjectMap;
+
+/**
+ * Blends night textures over day textures ahead of time.
+ *
+ * In a night level, objects draw their day texture and then their night
+ * texture on top at the level opacity. Since the opacity does not change
+ * during a level, the two can be blended once into a single texture of the
+ * same layout, which is then drawn alone.
+ *
+ * The blend is done on the GPU, into one framebuffer per day texture. The
+ * framebuffer is reused the next time the same day texture is blended.
+ */
+public class NightCompositor implements Disposable {
+
+    private static final String VERTEX_SHADER =
+            "attribute vec4 a_position;\n" +
+            "attribute vec2 a_texCoord0;\n" +
+            "varying vec2 v_texCoords;\n" +
+            "void main() {\n" +
+            "    v_texCoords = a_texCoord0;\n" +
+            "    gl_Position = a_position;\n" +
+            "}\n";
+
+    /** Draws night over day, as two sprites would, keeping straight alpha */
+    private static final String FRAGMENT_SHADER =
+            "#ifdef GL_ES\n" +
+            "precision mediump float;\n" +
+            "#endif\n" +
+            "varying vec2 v_texCoords;\n" +
+            "uniform sampler2D u_day;\n" +
+            "uniform sampler2D u_night;\n" +
+            "uniform float u_opacity;\n" +
+            "void main() {\n" +
+            "    vec4 day = texture2D(u_day, v_texCoords);\n" +
+            "    vec4 night = texture2D(u_night, v_texCoords);\n" +
+            "    float a = night.a * u_opacity;\n" +
+            "    float alpha = a + day.a * (1.0 - a);\n" +
+            "    vec3 color = night.rgb * a + day.rgb * day.a * (1.0 - a);\n" +
+            "    gl_FragColor = alpha > 0.0 ? vec4(color / alpha, alpha) : vec4(0.0);\n" +
+            "}\n";
+
+    /** The blending shader, made on first use */
+    private ShaderProgram shader;
+    /** A quad covering the whole framebuffer */
+    private Mesh quad;
+    /** The framebuffer for each day texture blended so far */
+    private ObjectMap<Texture, FrameBuffer> targets = new ObjectMap<Texture, FrameBuffer>();
+
+    /**
+     * Returns the day texture with the night texture blended over it
+     *
+     * The result has the same size as the day texture, so regions of the day
+     * texture can be moved to it unchanged. It is overwritten the next time
+     * the same day texture is blended.
+     *
+     * This must be called outside of any drawing pass.
+     *
+     * @param day     The day texture
+     * @param night   The night texture, the same size as the day texture
+     * @param opacity The opacity of the night texture
+     *
+     * @return the blended texture, or null if it could not be made
+     */
+    public Texture composite(Texture day, Texture night, float opacity) {
+        if (day.getWidth() != night.getWidth() || day.getHeight() != night.getHeight()) {
+            Gdx.app.error("NightCompositor", "Day and night textures differ in size", new IllegalArgumentException());
+            return null;
+        }
+        if (shader == null) {
+            shader = new ShaderProgram(VERTEX_SHADER, FRAGMENT_SHADER);
+            if (!shader.isCompiled()) {
+                Gdx.app.error("NightCompositor", shader.getLog(), new IllegalStateException());
+            }
+            quad = new Mesh(true, 4, 0,
+                    new VertexAttribute(VertexAttributes.Usage.Position, 2, ShaderProgram.POSITION_ATTRIBUTE),
+                    new VertexAttribute(VertexAttributes.Usage.TextureCoordinates, 2, ShaderProgram.TEXCOORD_ATTRIBUTE + "0"));
+            // The bottom of the framebuffer samples v = 0, so the result is
+            // laid out exactly like the day texture
+            quad.setVertices(new float[] {
+                    -1, -1, 0, 0,
+                     1, -1, 1, 0,
+                     1,  1, 1, 1,
+                    -1,  1, 0, 1 });
+        }
+        if (!shader.isCompiled()) {
+            return null;
+        }
+
+        FrameBuffer target = targets.get(day);
+        if (target == null) {
+            target = new FrameBuffer(Pixmap.Format.RGBA8888, day.getWidth(), day.getHeight(), false);
+            Texture result = target.getColorBufferTexture();
+            result.setFilter(day.getMinFilter().isMipMap() ? Texture.TextureFilter.Linear : day.getMinFilter(),
+                    day.getMagFilter());
+            result.setWrap(day.getUWrap(), day.getVWrap());
+            targets.put(day, target);
+        }
+
+        target.begin();
+        Gdx.gl.glDisable(GL20.GL_BLEND);
+        night.bind(1);
+        day.bind(0);
+        shader.begin();
+        shader.setUniformi("u_day", 0);
+        shader.setUniformi("u_night", 1);
+        shader.setUniformf("u_opacity", opacity);
+        quad.render(shader, GL20.GL_TRIANGLE_FAN);
+        shader.end();
+        target.end();
+
+        return target.getColorBufferTexture();
+    }
+
+    /**
+     * Frees the shader and every framebuffer
+     */
+    public void dispose() {
+        for (FrameBuffer target : targets.values()) {
+            target.dispose();
+        }
+        targets.clear();
+        if (shader != null) {
+            shader.dispose();
+            quad.dispose();
+            shader = null;
+            quad = null;
+        }
+    }
+}
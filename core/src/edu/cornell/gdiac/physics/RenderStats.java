@@ -0,0 +1,210 @@
+package edu.cornell.gdiac.physics;
+
+import com.badlogic.gdx.files.FileHandle;
+
+/**
+ * Counters for the drawing work done by a GameCanvas.
+ *
+ * The counters of the current frame are reset by beginFrame and added to the
+ * totals for the level by endFrame. The totals can then be written to a CSV
+ * file, one row per level, so that two runs of the same levels can be
+ * compared to spot a change in batching.
+ *
+ * Draw calls only include those made by the canvas: sprite batch flushes,
+ * SpriteCache draws and debug outlines.
+ */
+public class RenderStats {
+
+    /** The layers sprites are counted in, in drawing order */
+    public enum Layer {
+        /** The level background */
+        BACKGROUND,
+        /** Ground tiles, roots and edge tops not in the static cache */
+        GROUND,
+        /** Objects drawn back to front */
+        DEPTH,
+        /** Wall tops, edge bottoms, charges and selected objects */
+        TOP,
+        /** The arrow, tutorial and anything else drawn over the level */
+        OVERLAY
+    }
+
+    /** The header of the CSV file written by write */
+    private static final String CSV_HEADER =
+            "level,frames,drawCalls,flushes,textureSwitches,background,ground,depth,top,overlay,debugShapes,maxDrawCalls\n";
+
+    /** The number of layers */
+    private static final int LAYERS = Layer.values().length;
+
+    // Counters for the current frame
+    private int drawCalls;
+    private int flushes;
+    private int textureSwitches;
+    private int[] sprites = new int[LAYERS];
+    private int debugShapes;
+    /** The layer sprites are currently counted in */
+    private Layer layer = Layer.OVERLAY;
+
+    // Totals for the current level
+    private int frames;
+    private long totalDrawCalls;
+    private long totalFlushes;
+    private long totalTextureSwitches;
+    private long[] totalSprites = new long[LAYERS];
+    private long totalDebugShapes;
+    private int maxDrawCalls;
+
+    /**
+     * Resets the counters for a new frame
+     */
+    public void beginFrame() {
+        drawCalls = 0;
+        flushes = 0;
+        textureSwitches = 0;
+        for (int ii = 0; ii < LAYERS; ii++) {
+            sprites[ii] = 0;
+        }
+        debugShapes = 0;
+        layer = Layer.BACKGROUND;
+    }
+
+    /**
+     * Adds the counters of the current frame to the totals for the level
+     */
+    public void endFrame() {
+        frames++;
+        totalDrawCalls += drawCalls;
+        totalFlushes += flushes;
+        totalTextureSwitches += textureSwitches;
+        for (int ii = 0; ii < LAYERS; ii++) {
+            totalSprites[ii] += sprites[ii];
+        }
+        totalDebugShapes += debugShapes;
+        maxDrawCalls = Math.max(maxDrawCalls, drawCalls);
+        layer = Layer.OVERLAY;
+    }
+
+    /**
+     * Clears the totals for the level
+     */
+    public void resetLevel() {
+        frames = 0;
+        totalDrawCalls = 0;
+        totalFlushes = 0;
+        totalTextureSwitches = 0;
+        for (int ii = 0; ii < LAYERS; ii++) {
+            totalSprites[ii] = 0;
+        }
+        totalDebugShapes = 0;
+        maxDrawCalls = 0;
+    }
+
+    /**
+     * Sets the layer that sprites are counted in from now on
+     *
+     * @param layer The layer being drawn
+     */
+    public void setLayer(Layer layer) {
+        this.layer = layer;
+    }
+
+    /** Counts a sprite submitted to the batch in the current layer */
+    void addSprite() {
+        sprites[layer.ordinal()]++;
+    }
+
+    /** Counts a sprite that used a different texture than the one before it */
+    void addTextureSwitch() {
+        textureSwitches++;
+    }
+
+    /** Counts the given number of batch flushes, each of which is a draw call */
+    void addFlushes(int count) {
+        flushes += count;
+        drawCalls += count;
+    }
+
+    /** Counts draw calls that did not come from the batch */
+    void addDrawCalls(int count) {
+        drawCalls += count;
+    }
+
+    /** Counts a debug outline */
+    void addDebugShape() {
+        debugShapes++;
+    }
+
+    /** Returns the draw calls made this frame */
+    public int getDrawCalls() {
+        return drawCalls;
+    }
+
+    /** Returns the sprite batch flushes this frame */
+    public int getFlushes() {
+        return flushes;
+    }
+
+    /** Returns the number of times the batch texture changed this frame */
+    public int getTextureSwitches() {
+        return textureSwitches;
+    }
+
+    /** Returns the sprites submitted in the given layer this frame */
+    public int getSprites(Layer layer) {
+        return sprites[layer.ordinal()];
+    }
+
+    /** Returns the sprites submitted in every layer this frame */
+    public int getSprites() {
+        int total = 0;
+        for (int ii = 0; ii < LAYERS; ii++) {
+            total += sprites[ii];
+        }
+        return total;
+    }
+
+    /** Returns the debug outlines drawn this frame */
+    public int getDebugShapes() {
+        return debugShapes;
+    }
+
+    /** Returns the number of frames counted for the level */
+    public int getFrames() {
+        return frames;
+    }
+
+    /**
+     * Appends the averages for the level to the given CSV file
+     *
+     * The header is written first if the file does not exist yet.
+     *
+     * @param file  The file to append to
+     * @param level The name of the level
+     */
+    public void write(FileHandle file, String level) {
+        if (frames == 0) {
+            return;
+        }
+        StringBuilder row = new StringBuilder();
+        if (!file.exists()) {
+            row.append(CSV_HEADER);
+        }
+        row.append(level).append(',').append(frames);
+        appendAverage(row, totalDrawCalls);
+        appendAverage(row, totalFlushes);
+        appendAverage(row, totalTextureSwitches);
+        for (int ii = 0; ii < LAYERS; ii++) {
+            appendAverage(row, totalSprites[ii]);
+        }
+        appendAverage(row, totalDebugShapes);
+        row.append(',').append(maxDrawCalls).append('\n');
+        file.writeString(row.toString(), true);
+    }
+
+    /**
+     * Appends the per frame average of a total to a CSV row
+     */
+    private void appendAverage(StringBuilder row, long total) {
+        row.append(',').append(Math.round(100.0 * total / frames) / 100.0);
+    }
+}
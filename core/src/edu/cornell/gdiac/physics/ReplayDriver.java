@@ -0,0 +1,91 @@
+package edu.cornell.gdiac.physics;
+
+import com.badlogic.gdx.files.FileHandle;
+
+import java.io.IOException;
+
+/**
+ * Plays a recording made by InputRecorder back through a Simulation.
+ *
+ * Nothing is drawn and no time is waited between steps, so a replay runs as
+ * fast as the physics allows. This is the same Simulation that
+ * GamePlayController runs, so a replay ends the same way the recorded game did
+ * unless the level or the game rules have changed since.
+ */
+public class ReplayDriver {
+
+    /** The outcome of playing one replay */
+    public static class Result {
+        /** The replay file name */
+        public String name;
+        /** Whether the level file no longer matches the one recorded */
+        public boolean levelChanged;
+        /** Whether the level was completed or failed during the replay */
+        public boolean complete;
+        public boolean failed;
+        /** The number of steps played */
+        public int steps;
+        /** Wall clock time taken */
+        public long millis;
+
+        public String toString() {
+            String status = complete ? "complete" : (failed ? "failed" : "unfinished");
+            if (levelChanged) { status += " (level has changed since recording)"; }
+            float speedup = millis == 0 ? 0 : steps * WorldController.WORLD_STEP * 1000 / millis;
+            return name + ": " + status + " after " + steps + " steps (" + millis + " ms, "
+                    + Math.round(speedup) + "x real time)";
+        }
+    }
+
+    /** Used to build the recorded level */
+    private Loader loader;
+
+    /**
+     * Creates a new replay driver
+     *
+     * @param loader The loader to build levels with (its factory must have textures)
+     */
+    public ReplayDriver(Loader loader) {
+        this.loader = loader;
+    }
+
+    /**
+     * Plays a replay to the end
+     *
+     * @param file The replay file
+     *
+     * @return the outcome, or null if the file could not be read
+     */
+    public Result play(FileHandle file) {
+        InputReplay replay;
+        try {
+            replay = new InputReplay(file);
+        } catch (IOException e) {
+            System.out.println("Could not read replay " + file.path() + ": " + e.getMessage());
+            return null;
+        }
+
+        Result result = new Result();
+        result.name = file.name();
+        FileHandle levelFile = replay.getLevel();
+        if (!levelFile.exists()) {
+            System.out.println("Replay level " + levelFile.path() + " is missing");
+            return null;
+        }
+        result.levelChanged = InputRecorder.hashLevel(levelFile) != replay.getLevelHash();
+
+        long start = System.currentTimeMillis();
+        Simulation sim = new Simulation(replay, replay.getScale(), replay.getSpiritCenter());
+        sim.load(loader.loadLevel(levelFile, 0, false));
+        while (replay.advance()) {
+            sim.update(WorldController.WORLD_STEP, replay.wasPaused());
+            sim.postUpdate(WorldController.WORLD_STEP);
+        }
+        result.complete = sim.isComplete();
+        result.failed = sim.isFailed();
+        result.steps = replay.getPlayed();
+        result.millis = System.currentTimeMillis() - start;
+        sim.dispose();
+        return result;
+    }
+}
@@ -0,0 +1,90 @@
+package edu.cornell.gdiac.physics;
+
+import com.badlogic.gdx.math.Vector2;
+
+/**
+ * An InputSource whose state is set by code rather than read from devices.
+ *
+ * Tools use this to drive a Simulation. The mouse button follows the same
+ * edge rules as InputController: a press is reported by didLeftClick for one
+ * step, and a release by didRelease for one step.
+ */
+public class ScriptedInput implements InputSource {
+
+    /** The movement direction */
+    private float horizontal;
+    private float vertical;
+
+    /** The mouse position */
+    private Vector2 mousePosition;
+    /** The mouse position cache (for using as a return value) */
+    private Vector2 mousePositionCache;
+
+    /** Whether the mouse is down this step and last step */
+    private boolean mousePressed;
+    private boolean mousePressedPrevious;
+
+    /**
+     * Creates a new scripted input with nothing pressed
+     */
+    public ScriptedInput() {
+        mousePosition = new Vector2();
+        mousePositionCache = new Vector2();
+        reset();
+    }
+
+    /**
+     * Releases everything and centers the mouse
+     */
+    public void reset() {
+        horizontal = 0;
+        vertical = 0;
+        mousePosition.set(0, 0);
+        mousePressed = false;
+        mousePressedPrevious = false;
+    }
+
+    /**
+     * Advances the button history by one step
+     *
+     * Call this once before every simulation step, then set the new state.
+     */
+    public void advance() {
+        mousePressedPrevious = mousePressed;
+    }
+
+    /**
+     * Sets the movement direction, each component in [-1, 1]
+     */
+    public void setMovement(float h, float v) {
+        horizontal = h;
+        vertical = v;
+    }
+
+    /**
+     * Sets the mouse position in screen coordinates
+     */
+    public void setMousePosition(float x, float y) {
+        mousePosition.set(x, y);
+    }
+
+    /**
+     * Sets whether the mouse button is held this step
+     */
+    public void setMousePressed(boolean value) {
+        mousePressed = value;
+    }
+
+    /// InputSource Methods
+    public float getHorizontal() { return horizontal; }
+
+    public float getVertical() { return vertical; }
+
+    public Vector2 getMousePosition() { return mousePositionCache.set(mousePosition); }
+
+    public boolean didLeftClick() { return mousePressed && !mousePressedPrevious; }
+
+    public boolean didIsPressed() { return mousePressed; }
+
+    public boolean didRelease() { return mousePressedPrevious && !mousePressed; }
+}
@@ -0,0 +1,528 @@
+package edu.cornell.gdiac.physics;
+
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.BodyDef;
+import com.badlogic.gdx.physics.box2d.World;
+import com.badlogic.gdx.utils.Array;
+import edu.cornell.gdiac.physics.host.ArrowModel;
+import edu.cornell.gdiac.physics.host.HostController;
+import edu.cornell.gdiac.physics.host.HostModel;
+import edu.cornell.gdiac.physics.obstacle.BoxObstacle;
+import edu.cornell.gdiac.physics.obstacle.EnergyPillar;
+import edu.cornell.gdiac.physics.obstacle.Obstacle;
+import edu.cornell.gdiac.physics.obstacle.OscWall;
+import edu.cornell.gdiac.physics.obstacle.StaticGeometry;
+import edu.cornell.gdiac.physics.obstacle.Wall;
+import edu.cornell.gdiac.physics.spirit.SpiritModel;
+import edu.cornell.gdiac.util.PooledList;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * The gameplay rules of a level, independent of any window, audio or HUD.
+ *
+ * A Simulation owns the Box2D world, the collision and host controllers and
+ * the level being played. It reads input from an InputSource and reports
+ * what happened through a SimulationListener. GamePlayController wraps one of
+ * these with sound, camera and HUD; a tool can instead drive one directly with
+ * step() as fast as it likes.
+ */
+public class Simulation {
+
+    /**
+     * The amount of spirit life lost on every bounce
+     */
+    static final int LIFE_PER_BOUNCE = 40;
+
+    /**
+     * The amount of charge a host gains each step while in a pillar
+     */
+    private static final int PILLAR_CHARGE = 2;
+
+    /**
+     * The Box2D world
+     */
+    private World world;
+
+    /**
+     * All the objects in the world
+     */
+    private PooledList<Obstacle> objects;
+
+    /**
+     * Contact listener for the world
+     */
+    private CollisionController collisionController;
+
+    /**
+     * Controller for the spirit shots and host movement
+     */
+    private HostController hostController;
+
+    /**
+     * The level being simulated
+     */
+    private Level level;
+
+    /**
+     * Where input comes from
+     */
+    private InputSource input;
+
+    /**
+     * Who to tell about gameplay events, may be null
+     */
+    private SimulationListener listener;
+
+    /**
+     * The world scale
+     */
+    private Vector2 scale;
+
+    /**
+     * The screen position that shots are aimed relative to
+     */
+    private Vector2 spiritCenter;
+
+    /**
+     * Arrow textures handed to the host controller, null when headless
+     */
+    private Texture arrowHead;
+    private Texture arrowDash;
+
+    /**
+     * Predicts the path of the shot being aimed, null when headless
+     */
+    private TrajectoryPredictor trajectory;
+
+    /**
+     * The host the spirit is currently in
+     */
+    private HostModel possessed;
+
+    /**
+     * Whether every host has been possessed
+     */
+    private boolean complete;
+
+    /**
+     * Whether the possessed host blew up
+     */
+    private boolean failed;
+
+    /**
+     * Whether the possessed host was in sand during the last update
+     */
+    private boolean inSand;
+
+    /**
+     * Number of steps simulated since the level was loaded
+     */
+    private long steps;
+
+    /**
+     * The objects whose state was saved right after the level was loaded
+     */
+    private ArrayList<Obstacle> snapshot;
+
+    /**
+     * Creates a new simulation with an empty world
+     *
+     * @param input        The source of movement and aiming input
+     * @param scale        The world scale, used to convert aiming to velocity
+     * @param spiritCenter The screen position that shots are aimed relative to
+     */
+    public Simulation(InputSource input, Vector2 scale, Vector2 spiritCenter) {
+        this.input = input;
+        this.scale = scale;
+        this.spiritCenter = new Vector2(spiritCenter);
+        objects = new PooledList<Obstacle>();
+        snapshot = new ArrayList<Obstacle>();
+        collisionController = new CollisionController();
+        world = new World(new Vector2(0, 0), false);
+        world.setContactListener(collisionController);
+    }
+
+    /**
+     * Sets the listener for gameplay events
+     */
+    public void setListener(SimulationListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Sets the textures used by the aiming arrow
+     */
+    public void setArrowTextures(Texture head, Texture dash) {
+        arrowHead = head;
+        arrowDash = dash;
+    }
+
+    /**
+     * Sets the predictor used to show the path of the shot being aimed
+     * <p>
+     * This takes effect on the next call to load. Leave it unset when nothing
+     * is drawn, as it is of no use to the rules.
+     */
+    public void setTrajectoryPredictor(TrajectoryPredictor trajectory) {
+        this.trajectory = trajectory;
+    }
+
+    /**
+     * Sets the screen position that shots are aimed relative to
+     * <p>
+     * This takes effect on the next call to load.
+     */
+    public void setSpiritCenter(float x, float y) {
+        spiritCenter.set(x, y);
+    }
+
+    /**
+     * Replaces the current level with the given one
+     * <p>
+     * This disposes of the old world and creates a new one holding every
+     * obstacle of the level.
+     *
+     * @param level A freshly loaded level
+     */
+    public void load(Level level) {
+        this.level = level;
+        complete = false;
+        failed = false;
+        inSand = false;
+        steps = 0;
+
+        if (world != null) {
+            releaseObjects();
+            world.dispose();
+        }
+        // After the old world, so the contacts it ended are forgotten
+        collisionController.reset();
+
+        world = new World(new Vector2(0, 0), false);
+        world.setContactListener(collisionController);
+
+        level.spirit.setName("spirit");
+        level.spirit.setGoToCenter(true);
+        level.spirit.setIsPossessing(true);
+        possessed = level.pedestal;
+
+        hostController = new HostController(level.hosts, scale, arrowHead, arrowDash, level.pedestal, spiritCenter, level.energyPillars, input);
+
+        populateLevel();
+        saveSnapshot();
+        resetInterpolation();
+
+        if (trajectory != null) {
+            trajectory.setLevel(world, level.oscWalls, level.spirit.getDefaultLife());
+        }
+    }
+
+    /**
+     * Saves the state of every object that can change during play
+     * <p>
+     * Static bodies never move and are skipped, except for the pedestal,
+     * which is removed once the spirit leaves it.
+     */
+    private void saveSnapshot() {
+        snapshot.clear();
+        for (Obstacle obj : objects) {
+            if (obj.getBodyType() != BodyDef.BodyType.StaticBody || obj == level.pedestal) {
+                obj.saveState();
+                snapshot.add(obj);
+            }
+        }
+    }
+
+    /**
+     * Returns the current level to the state it was in when it was loaded
+     * <p>
+     * This is much cheaper than loading the level again: the world, the
+     * bodies and their textures are all kept, and only the state saved after
+     * load is copied back. The pedestal is the only object ever removed during
+     * play, so it is the only body that may need to be recreated.
+     *
+     * @return false if there is no level to restart
+     */
+    public boolean restart() {
+        if (level == null || world == null) { return false; }
+
+        complete = false;
+        failed = false;
+        inSand = false;
+        steps = 0;
+
+        // Bodies destroyed since the last step (the pedestal) may still have
+        // end events waiting, which keep the pillar fields of hosts right
+        collisionController.processEvents();
+
+        for (Obstacle obj : snapshot) {
+            if (obj.getBody() == null) {
+                addObject(obj);
+            }
+            obj.restoreState();
+        }
+        resetInterpolation();
+
+        collisionController.reset();
+        collisionController.addHosts(level.hosts);
+        collisionController.addSpirit(level.spirit);
+
+        possessed = level.pedestal;
+        hostController = new HostController(level.hosts, scale, arrowHead, arrowDash, level.pedestal, spiritCenter, level.energyPillars, input);
+        if (trajectory != null) { trajectory.clear(); }
+        return true;
+    }
+
+    /**
+     * Starts drawing interpolation at the current position of every object
+     * <p>
+     * Objects that were moved in place, or reused from an old level, would
+     * otherwise be drawn sliding from where they were before.
+     */
+    private void resetInterpolation() {
+        for (Obstacle obj : objects) {
+            obj.storePreviousPosition();
+        }
+    }
+
+    /**
+     * Adds every obstacle in the level to the world
+     */
+    private void populateLevel() {
+        // Walls, edges and corners are only drawn; their hitboxes are merged
+        // into one body per kind below
+        for (Wall wall : level.walls) {
+            // Set the hitbox of the wall to be dependent on its texture
+            wall.setAltHitbox();
+            objects.add(wall);
+        }
+        for (Obstacle obj : level.water) {
+            addObject(obj);
+        }
+        for (Obstacle obj : level.sand) {
+            addObject(obj);
+        }
+        for (Obstacle obj : level.borderEdges) {
+            objects.add(obj);
+        }
+        for (Obstacle obj : level.borderCorners) {
+            objects.add(obj);
+        }
+        addObject(new StaticGeometry(Arrays.asList(level.walls), "wall"));
+        ArrayList<BoxObstacle> bounds = new ArrayList<BoxObstacle>();
+        bounds.addAll(Arrays.asList(level.borderEdges));
+        bounds.addAll(Arrays.asList(level.borderCorners));
+        addObject(new StaticGeometry(bounds, "edge"));
+        for (Obstacle obj : level.energyPillars) {
+            addObject(obj);
+        }
+        for (Obstacle obj : level.oscWalls) {
+            addObject(obj);
+        }
+        for (HostModel host : level.hosts) {
+            addObject(host);
+        }
+        for (Obstacle obj : level.decorativeRootTiles) {
+            addObject(obj);
+        }
+        addObject(level.spirit);
+        addObject(level.pedestal);
+        collisionController.addHosts(level.hosts);
+        collisionController.addSpirit(level.spirit);
+    }
+
+    /**
+     * Removes every object from the world and frees the merged geometry
+     */
+    private void releaseObjects() {
+        for (Obstacle o : objects) {
+            o.deactivatePhysics(world);
+            if (o instanceof StaticGeometry) {
+                ((StaticGeometry) o).dispose();
+            }
+        }
+        objects.clear();
+    }
+
+    /**
+     * Immediately adds the object to the physics world
+     */
+    private void addObject(Obstacle obj) {
+        objects.add(obj);
+        obj.activatePhysics(world);
+    }
+
+    /**
+     * Advances the game rules by one step, then the physics by one step
+     *
+     * @param dt Number of seconds to simulate (normally WorldController.WORLD_STEP)
+     */
+    public void step(float dt) {
+        update(dt, false);
+        postUpdate(dt);
+    }
+
+    /**
+     * Applies the game rules for one step, before physics is run
+     *
+     * @param dt        Number of seconds to simulate
+     * @param wasPaused Whether the game was just unpaused (drops the aim)
+     */
+    public void update(float dt, boolean wasPaused) {
+        SpiritModel spirit = level.spirit;
+        HostModel pedestal = level.pedestal;
+        steps++;
+
+        // Animate oscWalls
+        for (OscWall ow : level.oscWalls) {
+            ow.updateAnimation();
+        }
+
+        // Check win condition
+        if (hostController.checkAllPossessed() && !complete) {
+            complete = true;
+            if (listener != null) { listener.onComplete(); }
+        }
+
+        // Determine if there is any possession
+        int firstPossessions = collisionController.takeFirstPossessions();
+        if (collisionController.isPossessed()) {
+            HostModel host = collisionController.getHostPossessed();
+            if (possessed != host && listener != null) {
+                listener.onPossessed(host, firstPossessions > 0);
+            }
+            possessed = host;
+        }
+
+        // Remove Pedestal Once Possessing a New Host
+        if (pedestal != possessed) {
+            pedestal.markRemoved(true);
+        }
+
+        inSand = collisionController.getInSand();
+        hostController.update(dt, possessed, spirit, pedestal, inSand, level.energyPillars, wasPaused);
+
+        // Show where the shot being aimed would go
+        ArrowModel arrow = hostController.getArrow();
+        if (trajectory != null && arrow != null) {
+            trajectory.update(spirit.getPosition(), hostController.getAimVelocity());
+            arrow.setTrajectory(trajectory, scale);
+        }
+
+        if (hostController.getLaunched() && listener != null) {
+            listener.onLaunched();
+        }
+
+        // Check lose condition
+        if (hostController.getPossessedBlownUp() && !complete && !failed) {
+            failed = true;
+            if (listener != null) { listener.onFailed(); }
+        }
+
+        // Check if possessed is in energy pillar radius. Only the pillars
+        // whose charge field it touches can be close enough.
+        boolean isInPillar = false;
+        Vector2 pos = possessed.getPosition();
+        Array<EnergyPillar> pillars = possessed.getPillarsInRange();
+        for (int i = 0; i < pillars.size; i++) {
+            EnergyPillar ep = pillars.get(i);
+            float dx = pos.x - ep.getX();
+            float dy = pos.y - ep.getY();
+            float major = ep.getEnergyPillarMajor();
+            float minor = ep.getEnergyPillarMinor();
+            if ((dx * dx) / (major * major) + (dy * dy) / (minor * minor) <= 1) {
+                if (spirit.hasLaunched) { isInPillar = false; }
+                else {
+                    possessed.setCurrentCharge(possessed.getCurrentCharge() + PILLAR_CHARGE);
+                    isInPillar = true;
+                }
+            }
+        }
+        possessed.setInPillar(isInPillar);
+
+        if (spirit.getDidBounce()) {
+            spirit.decCurrentLife(LIFE_PER_BOUNCE);
+            if (listener != null) { listener.onBounced(collisionController.getBounceOnBounds()); }
+        }
+
+        // Clear collision controller
+        collisionController.clear();
+        spirit.setDidBounce(false);
+    }
+
+    /**
+     * Steps the physics world and garbage collects removed objects
+     *
+     * @param dt Number of seconds to simulate
+     */
+    public void postUpdate(float dt) {
+        // Record where everything was so drawing can interpolate
+        for (Obstacle obj : objects) {
+            obj.storePreviousPosition();
+        }
+
+        world.step(WorldController.WORLD_STEP, WorldController.WORLD_VELOC, WorldController.WORLD_POSIT);
+        collisionController.processEvents();
+
+        Iterator<PooledList<Obstacle>.Entry> iterator = objects.entryIterator();
+        while (iterator.hasNext()) {
+            PooledList<Obstacle>.Entry entry = iterator.next();
+            Obstacle obj = entry.getValue();
+            if (obj.isRemoved()) {
+                obj.deactivatePhysics(world);
+                entry.remove();
+            } else {
+                obj.update(dt);
+            }
+        }
+    }
+
+    /**
+     * Destroys the world and everything in it
+     * <p>
+     * The simulation can still load another level afterwards.
+     */
+    public void dispose() {
+        if (world == null) { return; }
+        releaseObjects();
+        world.dispose();
+        world = null;
+    }
+
+    // Getters
+
+    public World getWorld() { return world; }
+
+    public PooledList<Obstacle> getObjects() { return objects; }
+
+    public Level getLevel() { return level; }
+
+    public HostModel getPossessed() { return possessed; }
+
+    public SpiritModel getSpirit() { return level.spirit; }
+
+    public ArrowModel getArrow() { return hostController.getArrow(); }
+
+    /**
+     * Returns whether the player moved the possessed host during the last update
+     */
+    public boolean isMoving() { return hostController.isMoving(); }
+
+    /**
+     * Returns whether the possessed host was in sand during the last update
+     */
+    public boolean isInSand() { return inSand; }
+
+    public boolean isComplete() { return complete; }
+
+    public boolean isFailed() { return failed; }
+
+    /**
+     * Returns the number of steps simulated since the level was loaded
+     */
+    public long getSteps() { return steps; }
+}
@@ -0,0 +1,42 @@
+package edu.cornell.gdiac.physics;
+
+import edu.cornell.gdiac.physics.host.HostModel;
+
+/**
+ * Receives the gameplay events raised by a Simulation.
+ *
+ * The simulation itself never plays sounds or touches the HUD. Whatever is
+ * presenting the game (or recording statistics about it) reacts here instead.
+ */
+public interface SimulationListener {
+
+    /**
+     * Called when the spirit takes over a different host.
+     *
+     * @param host      The host that is now possessed
+     * @param firstTime Whether this host had never been possessed before
+     */
+    public void onPossessed(HostModel host, boolean firstTime);
+
+    /**
+     * Called when the spirit is shot out of its host.
+     */
+    public void onLaunched();
+
+    /**
+     * Called when the spirit bounces off of a solid obstacle.
+     *
+     * @param onBounds Whether the obstacle was part of the level border
+     */
+    public void onBounced(boolean onBounds);
+
+    /**
+     * Called once when the possessed host blows up, failing the level.
+     */
+    public void onFailed();
+
+    /**
+     * Called once when every host has been possessed.
+     */
+    public void onComplete();
+}
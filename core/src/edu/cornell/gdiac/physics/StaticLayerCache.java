@@ -0,0 +1,448 @@
+package edu.cornell.gdiac.physics;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.SpriteCache;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.Affine2;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.IntMap;
+import edu.cornell.gdiac.physics.obstacle.*;
+import edu.cornell.gdiac.util.PooledList;
+
+/**
+ * Recorded geometry for the tiles that never move.
+ *
+ * Ground tiles, roots, border edges and the tops of walls look the same every
+ * frame, but drawing them costs several sprites per tile. This cache records
+ * what they draw once, in square chunks of the level, and replays the chunks
+ * from a SpriteCache. A chunk is only recorded again after it is marked dirty,
+ * for example when the level designer changes a tile in it.
+ *
+ * The fronts of walls are not cached, since they are depth sorted together
+ * with the hosts.
+ */
+public class StaticLayerCache implements Disposable {
+
+    /** The width and height of a chunk, in tiles */
+    public static final int CHUNK_TILES = 8;
+    /** The width and height of a chunk, in world units */
+    private static final float CHUNK_SIZE = CHUNK_TILES * Constants.TILE_WIDTH;
+
+    /** The cached layers, in the order they are drawn */
+    public static final int GROUND = 0;
+    public static final int ROOTS = 1;
+    public static final int EDGE_TOP = 2;
+    public static final int WALL_TOP = 3;
+    public static final int EDGE_BOTTOM = 4;
+    private static final int LAYERS = 5;
+
+    /** Floats per sprite: two triangles of x, y, color, u, v */
+    private static final int SPRITE_SIZE = 30;
+    /** The fewest sprites a new SpriteCache holds */
+    private static final int MIN_CAPACITY = 1024;
+
+    /**
+     * Sprites drawn to the canvas while recording, ready for a SpriteCache
+     */
+    public static class Recording {
+        /** The vertices of every sprite, in SpriteCache order */
+        private FloatArray vertices = new FloatArray();
+        /** The texture of each run of sprites */
+        private Array<Texture> textures = new Array<Texture>();
+        /** The number of floats in each run of sprites */
+        private IntArray lengths = new IntArray();
+
+        /**
+         * Removes all sprites, keeping the memory for the next recording
+         */
+        public void clear() {
+            vertices.clear();
+            textures.clear();
+            lengths.clear();
+        }
+
+        /**
+         * Returns the number of sprites recorded
+         */
+        public int size() {
+            return vertices.size / SPRITE_SIZE;
+        }
+
+        /**
+         * Records a region drawn with the given transform
+         *
+         * This matches SpriteBatch.draw(region, width, height, transform).
+         *
+         * @param region The region to draw
+         * @param tint   The color of the region
+         * @param t      The transform of the region
+         */
+        public void add(TextureRegion region, Color tint, Affine2 t) {
+            float w = region.getRegionWidth();
+            float h = region.getRegionHeight();
+            add(region, tint.toFloatBits(),
+                    t.m02, t.m12,
+                    t.m01 * h + t.m02, t.m11 * h + t.m12,
+                    t.m00 * w + t.m01 * h + t.m02, t.m10 * w + t.m11 * h + t.m12,
+                    t.m00 * w + t.m02, t.m10 * w + t.m12);
+        }
+
+        /**
+         * Records a region stretched over the given rectangle
+         *
+         * @param region The region to draw
+         * @param tint   The color of the region
+         * @param x      The left edge of the rectangle
+         * @param y      The bottom edge of the rectangle
+         * @param width  The width of the rectangle
+         * @param height The height of the rectangle
+         */
+        public void add(TextureRegion region, Color tint, float x, float y, float width, float height) {
+            add(region, tint.toFloatBits(), x, y, x, y + height, x + width, y + height, x + width, y);
+        }
+
+        /**
+         * Records a quad from its corners, going clockwise from the bottom left
+         */
+        private void add(TextureRegion region, float color, float x1, float y1, float x2, float y2,
+                         float x3, float y3, float x4, float y4) {
+            float u = region.getU();
+            float v = region.getV2();
+            float u2 = region.getU2();
+            float v2 = region.getV();
+
+            float[] items = vertices.ensureCapacity(SPRITE_SIZE);
+            int i = vertices.size;
+            i = put(items, i, x1, y1, color, u, v);
+            i = put(items, i, x2, y2, color, u, v2);
+            i = put(items, i, x3, y3, color, u2, v2);
+            i = put(items, i, x3, y3, color, u2, v2);
+            i = put(items, i, x4, y4, color, u2, v);
+            put(items, i, x1, y1, color, u, v);
+            vertices.size += SPRITE_SIZE;
+
+            Texture texture = region.getTexture();
+            if (textures.size > 0 && textures.peek() == texture) {
+                lengths.incr(lengths.size - 1, SPRITE_SIZE);
+            } else {
+                textures.add(texture);
+                lengths.add(SPRITE_SIZE);
+            }
+        }
+
+        /**
+         * Writes one vertex and returns the index after it
+         */
+        private static int put(float[] items, int i, float x, float y, float color, float u, float v) {
+            items[i] = x;
+            items[i + 1] = y;
+            items[i + 2] = color;
+            items[i + 3] = u;
+            items[i + 4] = v;
+            return i + 5;
+        }
+
+        /**
+         * Adds the recorded sprites to the cache currently being defined
+         */
+        private void addTo(SpriteCache cache) {
+            int offset = 0;
+            for (int ii = 0; ii < textures.size; ii++) {
+                cache.add(textures.get(ii), vertices.items, offset, lengths.get(ii));
+                offset += lengths.get(ii);
+            }
+        }
+    }
+
+    /** The recorded layers of one chunk of the level */
+    private static class Chunk {
+        /** The sprites of each layer */
+        Recording[] layers = new Recording[LAYERS];
+        /** The SpriteCache id of each layer, or -1 if it has no sprites */
+        int[] ids = new int[LAYERS];
+        /** The most sprites each cache id can be redefined with */
+        int[] capacity = new int[LAYERS];
+        /** Whether the tiles in this chunk must be recorded again */
+        boolean dirty = true;
+        /** The position of this chunk, in chunks */
+        int cx;
+        int cy;
+
+        Chunk(int cx, int cy) {
+            this.cx = cx;
+            this.cy = cy;
+            for (int ii = 0; ii < LAYERS; ii++) {
+                layers[ii] = new Recording();
+                ids[ii] = -1;
+            }
+        }
+    }
+
+    /** The chunks by position */
+    private IntMap<Chunk> chunks;
+    /** The chunks in the order they were made */
+    private Array<Chunk> chunkList;
+    /** Whether any chunk is dirty */
+    private boolean anyDirty;
+    /** Whether chunks should be made for every tile found, after a clear */
+    private boolean rebuild;
+
+    /** The uploaded geometry, made on the first update */
+    private SpriteCache cache;
+    /** The number of sprites the cache can hold */
+    private int cacheSize;
+
+    /** Cache for chunk bounds */
+    private Rectangle boundsCache = new Rectangle();
+
+    /**
+     * Creates an empty cache. No graphics resources are made until update.
+     */
+    public StaticLayerCache() {
+        chunks = new IntMap<Chunk>();
+        chunkList = new Array<Chunk>();
+        clear();
+    }
+
+    /**
+     * Returns whether the object is drawn from this cache
+     *
+     * Tiles in the HUD, selected tiles and removed tiles are drawn normally.
+     *
+     * @param obj The object to check
+     */
+    public static boolean isCached(Obstacle obj) {
+        if (obj.inHUD || obj.selected || obj.isRemoved()) {
+            return false;
+        }
+        return obj instanceof Terrain || obj instanceof BorderCorner || obj instanceof DecorativeRoots
+                || obj instanceof BorderEdge || obj instanceof Wall;
+    }
+
+    /**
+     * Forgets every chunk, so that all tiles are recorded on the next update
+     */
+    public void clear() {
+        chunks.clear();
+        chunkList.clear();
+        anyDirty = true;
+        rebuild = true;
+    }
+
+    /**
+     * Marks every chunk touching the given rectangle as dirty
+     *
+     * @param x0 The left edge, in world units
+     * @param y0 The bottom edge, in world units
+     * @param x1 The right edge, in world units
+     * @param y1 The top edge, in world units
+     */
+    public void markDirty(float x0, float y0, float x1, float y1) {
+        int cx1 = MathUtils.floor(x1 / CHUNK_SIZE);
+        int cy1 = MathUtils.floor(y1 / CHUNK_SIZE);
+        for (int cx = MathUtils.floor(x0 / CHUNK_SIZE); cx <= cx1; cx++) {
+            for (int cy = MathUtils.floor(y0 / CHUNK_SIZE); cy <= cy1; cy++) {
+                obtain(cx, cy).dirty = true;
+            }
+        }
+        anyDirty = true;
+    }
+
+    /**
+     * Records the tiles of every dirty chunk and uploads them
+     *
+     * This does nothing if no chunk is dirty. It must be called outside of a
+     * canvas begin-end pair.
+     *
+     * @param objects The objects of the level
+     * @param canvas  The canvas to record with
+     */
+    public void update(PooledList<Obstacle> objects, GameCanvas canvas) {
+        if (!anyDirty) {
+            return;
+        }
+
+        for (Chunk chunk : chunkList) {
+            if (chunk.dirty) {
+                for (Recording layer : chunk.layers) {
+                    layer.clear();
+                }
+            }
+        }
+
+        for (Obstacle obj : objects) {
+            if (!isCached(obj)) {
+                continue;
+            }
+            int cx = MathUtils.floor(obj.getX() / CHUNK_SIZE);
+            int cy = MathUtils.floor(obj.getY() / CHUNK_SIZE);
+            Chunk chunk = rebuild ? obtain(cx, cy) : chunks.get(key(cx, cy));
+            if (chunk == null || !chunk.dirty) {
+                continue;
+            }
+
+            if (obj instanceof Wall) {
+                canvas.beginRecord(chunk.layers[WALL_TOP]);
+                ((Wall) obj).drawTop(canvas);
+            } else if (obj instanceof BorderEdge) {
+                canvas.beginRecord(chunk.layers[EDGE_TOP]);
+                ((BorderEdge) obj).drawTop(canvas);
+                canvas.endRecord();
+                canvas.beginRecord(chunk.layers[EDGE_BOTTOM]);
+                ((BorderEdge) obj).drawNotTop(canvas);
+            } else if (obj instanceof DecorativeRoots) {
+                canvas.beginRecord(chunk.layers[ROOTS]);
+                obj.draw(canvas);
+            } else {
+                canvas.beginRecord(chunk.layers[GROUND]);
+                obj.draw(canvas);
+            }
+            canvas.endRecord();
+        }
+
+        upload();
+        for (Chunk chunk : chunkList) {
+            chunk.dirty = false;
+        }
+        anyDirty = false;
+        rebuild = false;
+    }
+
+    /**
+     * Puts the recordings of the dirty chunks in the SpriteCache
+     *
+     * Layers that did not grow are redefined in place. Otherwise every chunk
+     * is uploaded again from its recording, which needs no drawing.
+     */
+    private void upload() {
+        boolean fits = cache != null;
+        for (int ii = 0; ii < chunkList.size && fits; ii++) {
+            Chunk chunk = chunkList.get(ii);
+            for (int layer = 0; layer < LAYERS && chunk.dirty; layer++) {
+                int count = chunk.layers[layer].size();
+                if (chunk.ids[layer] < 0 ? count > 0 : count > chunk.capacity[layer]) {
+                    fits = false;
+                }
+            }
+        }
+
+        if (fits) {
+            for (Chunk chunk : chunkList) {
+                if (!chunk.dirty) {
+                    continue;
+                }
+                for (int layer = 0; layer < LAYERS; layer++) {
+                    if (chunk.ids[layer] >= 0) {
+                        cache.beginCache(chunk.ids[layer]);
+                        chunk.layers[layer].addTo(cache);
+                        cache.endCache();
+                    }
+                }
+            }
+            return;
+        }
+
+        int total = 0;
+        for (Chunk chunk : chunkList) {
+            for (Recording layer : chunk.layers) {
+                total += layer.size();
+            }
+        }
+        if (cache == null || total > cacheSize) {
+            if (cache != null) {
+                cache.dispose();
+            }
+            // Leave room for the designer to add tiles without a new cache
+            cacheSize = Math.max(MIN_CAPACITY, total + total / 2);
+            cache = new SpriteCache(cacheSize, false);
+        } else {
+            cache.clear();
+        }
+        for (Chunk chunk : chunkList) {
+            for (int layer = 0; layer < LAYERS; layer++) {
+                int count = chunk.layers[layer].size();
+                if (count == 0) {
+                    chunk.ids[layer] = -1;
+                    continue;
+                }
+                cache.beginCache();
+                chunk.layers[layer].addTo(cache);
+                chunk.ids[layer] = cache.endCache();
+                chunk.capacity[layer] = count;
+            }
+        }
+    }
+
+    /**
+     * Draws the given range of layers of every chunk in view
+     *
+     * Tiles are put in chunks by their centers, so the view should be large
+     * enough to cover the tallest tile sprite. This must be called outside of
+     * a canvas begin-end pair.
+     *
+     * @param canvas The canvas to draw with
+     * @param first  The first layer to draw
+     * @param last   The last layer to draw
+     * @param view   The visible area in world units, or null to draw everything
+     */
+    public void draw(GameCanvas canvas, int first, int last, Rectangle view) {
+        if (cache == null) {
+            return;
+        }
+        canvas.beginCache(cache);
+        for (int layer = first; layer <= last; layer++) {
+            for (int ii = 0; ii < chunkList.size; ii++) {
+                Chunk chunk = chunkList.get(ii);
+                int id = chunk.ids[layer];
+                if (id >= 0 && (view == null || view.overlaps(chunkBounds(chunk)))) {
+                    cache.draw(id);
+                }
+            }
+        }
+        canvas.endCache(cache);
+    }
+
+    /**
+     * Returns the area of the given chunk, in world units
+     */
+    private Rectangle chunkBounds(Chunk chunk) {
+        return boundsCache.set(chunk.cx * CHUNK_SIZE, chunk.cy * CHUNK_SIZE, CHUNK_SIZE, CHUNK_SIZE);
+    }
+
+    /**
+     * Returns the chunk at the given chunk coordinates, making it if needed
+     */
+    private Chunk obtain(int cx, int cy) {
+        Chunk chunk = chunks.get(key(cx, cy));
+        if (chunk == null) {
+            chunk = new Chunk(cx, cy);
+            chunks.put(key(cx, cy), chunk);
+            chunkList.add(chunk);
+        }
+        return chunk;
+    }
+
+    /**
+     * Frees the SpriteCache
+     */
+    public void dispose() {
+        if (cache != null) {
+            cache.dispose();
+            cache = null;
+        }
+        clear();
+    }
+
+    /**
+     * Returns the map key of the chunk at the given chunk coordinates
+     */
+    private static int key(int cx, int cy) {
+        return (cx << 16) ^ (cy & 0xFFFF);
+    }
+}
@@ -0,0 +1,324 @@
+package edu.cornell.gdiac.physics;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.Fixture;
+import com.badlogic.gdx.physics.box2d.RayCastCallback;
+import com.badlogic.gdx.physics.box2d.World;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntMap;
+import edu.cornell.gdiac.physics.host.HostController;
+import edu.cornell.gdiac.physics.obstacle.Obstacle;
+import edu.cornell.gdiac.physics.obstacle.OscWall;
+
+/**
+ * Predicts the path the spirit would take if it were shot now.
+ *
+ * The path is traced with ray-casts against the geometry the spirit bounces
+ * off of (walls, borders, energy pillars and raised OscWalls), reflecting at
+ * each hit. Hosts are ignored since they move.
+ *
+ * Paths are cached per quantized aim direction, traced at the maximum shot
+ * speed and cut short for slower shots, so holding the mouse still costs no
+ * ray-casts at all. A new path is traced a few segments per update rather
+ * than all at once. The cache is thrown away when the shot origin moves or an
+ * OscWall rises or falls.
+ */
+public class TrajectoryPredictor implements RayCastCallback {
+
+    /** The number of aim directions the cache distinguishes */
+    private static final int DIRECTIONS = 720;
+    /** The most ray-casts to do in a single update */
+    private static final int RAYS_PER_UPDATE = 4;
+    /** The most paths to keep before the cache is emptied */
+    private static final int CACHE_SIZE = 64;
+    /** How far the origin may move before cached paths are stale */
+    private static final float MOVE_TOLERANCE = 0.01f;
+    /** How far from a wall to start the ray after a bounce */
+    private static final float BOUNCE_OFFSET = 0.01f;
+    /** The collision categories the spirit always bounces off of */
+    private static final int SOLID_CATEGORIES = Factory.CATEGORY_WALL | Factory.CATEGORY_EDGE
+            | Factory.CATEGORY_ENERGY_PILLAR;
+
+    /** A traced path for one aim direction */
+    private static class Path {
+        /** The x, y coordinates of the start, each bounce and the end */
+        float[] points;
+        /** The distance travelled to reach each point */
+        float[] distances;
+        /** The number of points */
+        int count;
+        /** The direction of the last segment */
+        float dirX;
+        float dirY;
+        /** Whether the path has been traced to the end */
+        boolean done;
+    }
+
+    /** The world to trace in */
+    private World world;
+    /** The OscWalls of the level, which change what the spirit bounces off */
+    private OscWall[] oscWalls;
+    /** Which OscWalls were physical when the cache was filled */
+    private long oscWallState;
+    /** The spirit life at the time of the shot */
+    private float life;
+    /** The maximum number of points in a path */
+    private int maxPoints;
+
+    /** Where the cached paths start */
+    private Vector2 origin;
+    /** The cached paths by direction */
+    private IntMap<Path> cache;
+    /** Paths no longer in the cache, for reuse */
+    private Array<Path> free;
+    /** The path for the current aim, or null */
+    private Path current;
+
+    /** The visible part of the current path, as x, y pairs */
+    private float[] visible;
+    /** The number of visible points */
+    private int visibleCount;
+
+    /** The closest hit of the current ray-cast */
+    private boolean hit;
+    private Vector2 hitPoint;
+    private Vector2 hitNormal;
+    /** Cache for ray-cast end points */
+    private Vector2 rayStart;
+    private Vector2 rayEnd;
+
+    /**
+     * Creates a predictor with nothing to trace against
+     */
+    public TrajectoryPredictor() {
+        origin = new Vector2(Float.NaN, Float.NaN);
+        cache = new IntMap<Path>();
+        free = new Array<Path>();
+        hitPoint = new Vector2();
+        hitNormal = new Vector2();
+        rayStart = new Vector2();
+        rayEnd = new Vector2();
+    }
+
+    /**
+     * Sets the level to trace in, emptying the cache
+     *
+     * @param world    The world holding the level
+     * @param oscWalls The OscWalls of the level
+     * @param life     The spirit life at the time of a shot
+     */
+    public void setLevel(World world, OscWall[] oscWalls, float life) {
+        this.world = world;
+        this.oscWalls = oscWalls;
+        this.life = life;
+        // Every bounce costs life, so a path cannot bounce more often than this
+        maxPoints = (int) (life / Simulation.LIFE_PER_BOUNCE) + 2;
+        visible = new float[maxPoints * 2];
+        clear();
+    }
+
+    /**
+     * Empties the cache
+     */
+    public void clear() {
+        for (IntMap.Entry<Path> e : cache.entries()) {
+            free.add(e.value);
+        }
+        cache.clear();
+        current = null;
+        visibleCount = 0;
+        oscWallState = getOscWallState();
+    }
+
+    /**
+     * Updates the prediction for the current aim
+     *
+     * @param start    The position of the spirit, in world coordinates
+     * @param velocity The velocity the spirit would be shot with
+     */
+    public void update(Vector2 start, Vector2 velocity) {
+        if (world == null) { return; }
+
+        if (!MathUtils.isEqual(start.x, origin.x, MOVE_TOLERANCE)
+                || !MathUtils.isEqual(start.y, origin.y, MOVE_TOLERANCE)
+                || oscWallState != getOscWallState()) {
+            clear();
+            origin.set(start);
+        }
+
+        float speed = velocity.len();
+        if (speed == 0) {
+            current = null;
+            visibleCount = 0;
+            return;
+        }
+
+        int key = MathUtils.round(MathUtils.atan2(velocity.y, velocity.x) / MathUtils.PI2 * DIRECTIONS);
+        key = ((key % DIRECTIONS) + DIRECTIONS) % DIRECTIONS;
+        current = cache.get(key);
+        if (current == null) {
+            if (cache.size >= CACHE_SIZE) { clear(); }
+            current = obtain();
+            float angle = key * MathUtils.PI2 / DIRECTIONS;
+            current.points[0] = origin.x;
+            current.points[1] = origin.y;
+            current.distances[0] = 0;
+            current.count = 1;
+            current.dirX = MathUtils.cos(angle);
+            current.dirY = MathUtils.sin(angle);
+            current.done = false;
+            cache.put(key, current);
+        }
+
+        for (int i = 0; i < RAYS_PER_UPDATE && !current.done; i++) {
+            extend(current);
+        }
+        cutVisible(current, speed);
+    }
+
+    /**
+     * Returns a path from the free list, or a new one
+     */
+    private Path obtain() {
+        if (free.size > 0) { return free.pop(); }
+        Path p = new Path();
+        p.points = new float[maxPoints * 2];
+        p.distances = new float[maxPoints];
+        return p;
+    }
+
+    /**
+     * Traces one more segment of the path at the maximum shot speed
+     */
+    private void extend(Path p) {
+        int last = p.count - 1;
+        // Life left at top speed, after paying for the bounces so far
+        float steps = life - last * Simulation.LIFE_PER_BOUNCE;
+        float reach = HostController.MAXIMUM_SHOT_SPEED * WorldController.WORLD_STEP * steps - p.distances[last];
+        if (reach <= 0 || p.count == maxPoints) {
+            p.done = true;
+            return;
+        }
+
+        float x = p.points[2 * last];
+        float y = p.points[2 * last + 1];
+        rayStart.set(x, y);
+        if (last > 0) { rayStart.add(p.dirX * BOUNCE_OFFSET, p.dirY * BOUNCE_OFFSET); }
+        rayEnd.set(x + p.dirX * reach, y + p.dirY * reach);
+
+        hit = false;
+        world.rayCast(this, rayStart, rayEnd);
+
+        int next = p.count++;
+        if (hit) {
+            p.points[2 * next] = hitPoint.x;
+            p.points[2 * next + 1] = hitPoint.y;
+            p.distances[next] = p.distances[last] + hitPoint.dst(x, y);
+
+            // Reflect the direction about the surface normal
+            float dot = p.dirX * hitNormal.x + p.dirY * hitNormal.y;
+            p.dirX -= 2 * dot * hitNormal.x;
+            p.dirY -= 2 * dot * hitNormal.y;
+        } else {
+            p.points[2 * next] = rayEnd.x;
+            p.points[2 * next + 1] = rayEnd.y;
+            p.distances[next] = p.distances[last] + reach;
+            p.done = true;
+        }
+    }
+
+    /**
+     * Copies the part of the path a shot at the given speed would cover
+     */
+    private void cutVisible(Path p, float speed) {
+        visible[0] = p.points[0];
+        visible[1] = p.points[1];
+        visibleCount = 1;
+        for (int i = 1; i < p.count; i++) {
+            // Segment i-1 starts after i-1 bounces
+            float limit = speed * WorldController.WORLD_STEP * (life - (i - 1) * Simulation.LIFE_PER_BOUNCE);
+            float x0 = p.points[2 * i - 2];
+            float y0 = p.points[2 * i - 1];
+            float x1 = p.points[2 * i];
+            float y1 = p.points[2 * i + 1];
+            if (p.distances[i] <= limit) {
+                visible[2 * visibleCount] = x1;
+                visible[2 * visibleCount + 1] = y1;
+                visibleCount++;
+            } else {
+                float length = p.distances[i] - p.distances[i - 1];
+                float t = length == 0 ? 0 : Math.max(0, limit - p.distances[i - 1]) / length;
+                visible[2 * visibleCount] = x0 + (x1 - x0) * t;
+                visible[2 * visibleCount + 1] = y0 + (y1 - y0) * t;
+                visibleCount++;
+                break;
+            }
+        }
+    }
+
+    /**
+     * Returns a bit for each OscWall that the spirit would bounce off of
+     */
+    private long getOscWallState() {
+        long state = 0;
+        if (oscWalls == null) { return state; }
+        for (int i = 0; i < oscWalls.length; i++) {
+            if (oscWalls[i].isPhysical()) {
+                state ^= 1L << (i % 64);
+            }
+        }
+        return state;
+    }
+
+    /**
+     * Returns whether the spirit bounces off of the given fixture
+     * <p>
+     * The collision category of a fixture is the type of its object, as in
+     * CollisionController.
+     */
+    private boolean isSolid(Fixture fixture, Obstacle obj) {
+        int category = fixture.getFilterData().categoryBits;
+        if ((category & SOLID_CATEGORIES) != 0) {
+            return true;
+        }
+        return category == Factory.CATEGORY_OSC_WALL && ((OscWall) obj).isPhysical();
+    }
+
+    /**
+     * Keeps the closest solid fixture hit by the ray
+     */
+    public float reportRayFixture(Fixture fixture, Vector2 point, Vector2 normal, float fraction) {
+        Object data = fixture.getBody().getUserData();
+        if (fixture.isSensor() || !(data instanceof Obstacle) || !isSolid(fixture, (Obstacle) data)) {
+            return -1;
+        }
+        hit = true;
+        hitPoint.set(point);
+        hitNormal.set(normal);
+        return fraction;
+    }
+
+    /**
+     * Returns whether there is a path to draw
+     */
+    public boolean hasPath() {
+        return current != null && visibleCount > 1;
+    }
+
+    /**
+     * Returns the visible path as x, y pairs in world coordinates
+     * <p>
+     * Only the first getPointCount() pairs are valid.
+     */
+    public float[] getPoints() {
+        return visible;
+    }
+
+    /**
+     * Returns the number of points in the visible path
+     */
+    public int getPointCount() {
+        return visibleCount;
+    }
+}
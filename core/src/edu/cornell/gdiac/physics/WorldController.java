@@ -24,8 +24,8 @@ import edu.cornell.gdiac.physics.obstacle.*;
 import edu.cornell.gdiac.util.MusicController;
 import edu.cornell.gdiac.util.PooledList;
 import edu.cornell.gdiac.util.ScreenListener;
+import edu.cornell.gdiac.util.SpriteAtlas;
 
-import java.io.File;
 import java.util.*;
 
 /**
@@ -69,6 +69,8 @@ public abstract class WorldController implements Screen {
 	private static final String BACKG_DAY_FILE = "shared/background.png";
 	/** Texture file for background night image */
 	private static final String BACKG_NIGHT_FILE = "shared/night/background.png";
+	/** Key of the atlas the host, spirit, pedestal, pillar and gate sheets are packed into */
+	private static final String SPRITE_ATLAS = "sprites";
 	/** Texture file for host sprite EAST */
 	private static final String HOST_FILE_E = "host/golemWalk_E.png";
 	/** Texture file for host sprite NORTH */
@@ -217,6 +219,14 @@ public abstract class WorldController implements Screen {
 	private TextureRegion backgroundDayTexture;
 	/** Texture asset for background image */
 	private TextureRegion backgroundNightTexture;
+	/** Blends night textures into day ones once per level */
+	private NightCompositor nightCompositor;
+	/** The background with the night background blended in, or null */
+	private Texture nightBackground;
+	/** The night opacity nightBackground was blended at */
+	private float nightBackgroundOpacity = -1;
+	/** Cache for the night tint when the background could not be blended */
+	private Color nightColorCache = new Color();
 	/** The texture for walls */
 	protected TextureRegion wallDayTex;
 	/** The texture for walls */
@@ -226,65 +236,65 @@ public abstract class WorldController implements Screen {
 	/** The texture for the arrow dash */
 	protected Texture arrowDashTex;
 	/** Texture for Host SpriteSheet EAST*/
-	private static Texture hostTextureE;
+	private static TextureRegion hostTextureE;
 	/** Texture for Host SpriteSheet NORTH*/
-	private static Texture hostTextureN;
+	private static TextureRegion hostTextureN;
 	/** Texture for Host SpriteSheet NORTH EAST*/
-	private static Texture hostTextureNE;
+	private static TextureRegion hostTextureNE;
 	/** Texture for Host SpriteSheet NORTH WEST*/
-	private static Texture hostTextureNW;
+	private static TextureRegion hostTextureNW;
 	/** Texture for Host SpriteSheet SOUTH */
-	private static Texture hostTextureS;
+	private static TextureRegion hostTextureS;
 	/** Texture for Host SpriteSheet SOUTH EAST*/
-	private static Texture hostTextureSE;
+	private static TextureRegion hostTextureSE;
 	/** Texture for Host SpriteSheet SOUTH WEST*/
-	private static Texture hostTextureSW;
+	private static TextureRegion hostTextureSW;
 	/** Texture for Host SpriteSheet WEST*/
-	private static Texture hostTextureW;
+	private static TextureRegion hostTextureW;
 	/** Texture for Host Glyph SpriteSheet EAST*/
-	private static Texture hostGlyphTextureE;
+	private static TextureRegion hostGlyphTextureE;
 	/** Texture for Host Glyph SpriteSheet NORTH*/
-	private static Texture hostGlyphTextureN;
+	private static TextureRegion hostGlyphTextureN;
 	/** Texture for Host Glyph SpriteSheet NORTH EAST*/
-	private static Texture hostGlyphTextureNE;
+	private static TextureRegion hostGlyphTextureNE;
 	/** Texture for Host Glyph SpriteSheet NORTH WEST*/
-	private static Texture hostGlyphTextureNW;
+	private static TextureRegion hostGlyphTextureNW;
 	/** Texture for Host Glyph SpriteSheet SOUTH */
-	private static Texture hostGlyphTextureS;
+	private static TextureRegion hostGlyphTextureS;
 	/** Texture for Host Glyph SpriteSheet SOUTH EAST*/
-	private static Texture hostGlyphTextureSE;
+	private static TextureRegion hostGlyphTextureSE;
 	/** Texture for Host Glyph SpriteSheet SOUTH WEST*/
-	private static Texture hostGlyphTextureSW;
+	private static TextureRegion hostGlyphTextureSW;
 	/** Texture for Host Glyph SpriteSheet WEST*/
-	private static Texture hostGlyphTextureW;
+	private static TextureRegion hostGlyphTextureW;
 	/** Texture for Host death SpriteSheet EAST*/
-	private static Texture hostDeathTextureE;
+	private static TextureRegion hostDeathTextureE;
 	/** Texture for Host death SpriteSheet NORTH*/
-	private static Texture hostDeathTextureN;
+	private static TextureRegion hostDeathTextureN;
 	/** Texture for Host death SpriteSheet NORTH EAST*/
-	private static Texture hostDeathTextureNE;
+	private static TextureRegion hostDeathTextureNE;
 	/** Texture for Host death SpriteSheet NORTH WEST*/
-	private static Texture hostDeathTextureNW;
+	private static TextureRegion hostDeathTextureNW;
 	/** Texture for Host death SpriteSheet SOUTH */
-	private static Texture hostDeathTextureS;
+	private static TextureRegion hostDeathTextureS;
 	/** Texture for Host death SpriteSheet SOUTH EAST*/
-	private static Texture hostDeathTextureSE;
+	private static TextureRegion hostDeathTextureSE;
 	/** Texture for Host death SpriteSheet SOUTH WEST*/
-	private static Texture hostDeathTextureSW;
+	private static TextureRegion hostDeathTextureSW;
 	/** Texture for Host death SpriteSheet WEST*/
-	private static Texture hostDeathTextureW;
+	private static TextureRegion hostDeathTextureW;
 	/** Texture for Host Arms */
-	private static Texture hostArmsTexture;
+	private static TextureRegion hostArmsTexture;
 	/** Texture for Host Gen Possession */
-	private static Texture hostGenPossessionTexture;
+	private static TextureRegion hostGenPossessionTexture;
 	/** Texture for Host New Possession */
-	private static Texture hostNewPossessionTexture;
+	private static TextureRegion hostNewPossessionTexture;
 	/** Texture for Host Waking Up */
-	private static Texture hostWakingUpTexture;
+	private static TextureRegion hostWakingUpTexture;
 	/** Texture for Host Gauge SpriteSheet */
-	private static Texture hostGaugeTexture;
+	private static TextureRegion hostGaugeTexture;
 	/** Texture for Host Shadow */
-	private static Texture hostShadowTexture;
+	private static TextureRegion hostShadowTexture;
 	/** Texture for Wall Day SpriteSheet */
 	private static Texture wallDayTexture;
 	/** Texture for Wall Night SpriteSheet */
@@ -306,15 +316,15 @@ public abstract class WorldController implements Screen {
 	/** Texture for Sand Corner SpriteSheet */
 	private static Texture cornerSandNightTexture;
 	/** Texture for Pedestal SpriteSheet */
-	private static Texture pedestalTexture;
+	private static TextureRegion pedestalTexture;
 	/** Texture for Pedestal SpriteSheet */
-	private static Texture pedestalNightTexture;
+	private static TextureRegion pedestalNightTexture;
 	/** Texture for Spirit Head Texture */
-	private static Texture spiritHeadTexture;
+	private static TextureRegion spiritHeadTexture;
 	/** Texture for Spirit Body Texture */
 	private static Texture spiritBodyTexture;
 	/** Texture for Spirit Tail Texture */
-	private static Texture spiritTailTexture;
+	private static TextureRegion spiritTailTexture;
 	/** Texture for border edges */
 	private static Texture borderEdgeTexture;
 	/** Texture for border night edges */
@@ -324,17 +334,17 @@ public abstract class WorldController implements Screen {
 	/** Texture for border night corners */
 	private static Texture borderCornerNightTexture;
 	/** Texture for Energy Pillar Body Texture */
-	private static Texture energyPillarBody;
+	private static TextureRegion energyPillarBody;
 	/** Texture for Energy Pillar Body Lights Texture */
-	private static Texture energyPillarCharge;
+	private static TextureRegion energyPillarCharge;
 	/** Texture for Energy Pillar Radius Texture */
-	private static Texture energyPillarRadius;
+	private static TextureRegion energyPillarRadius;
 	/** Texture for Osc Wall Horz */
-	private static Texture oscWallHorz;
+	private static TextureRegion oscWallHorz;
 	/** Texture for Osc Wall Horz */
-	private static Texture oscWallHorzNight;
+	private static TextureRegion oscWallHorzNight;
 	/** Texture for Osc Wall Gauge Horz */
-	private static Texture oscWallGaugeHorz;
+	private static TextureRegion oscWallGaugeHorz;
 	/** Texture for Osc Wall Vert */
 	private static Texture oscWallVert;
 	/** Texture for Osc Wall Vert */
@@ -362,22 +372,20 @@ public abstract class WorldController implements Screen {
 	/** Whether to render the HUD */
 	protected boolean renderHUD;
 
-	// These are all lists which are filled each draw frame, in order to draw
-	// all game objects in the correct order
-	/** Border edge objects to be drawn */
-	private PooledList<BorderEdge> edgeDrawLayer;
-	/** Objects to be drawn on below others, like terrain tiles */
-	private PooledList<Obstacle> groundDrawLayer;
-	/** Objects to be drawn above terrain and under everything else */
-	private PooledList<Obstacle> rootsDrawLayer;
-	/** Objects that stick up vertically, and need to be sorted by y pos */
-	private PooledList<Obstacle> threeDimensionalDrawLayer;
-	/** Wall objects to be drawn */
-	private PooledList<Wall> wallDrawLayer;
-	/** Host objects to be drawn */
-	private PooledList<HostModel> hostDrawLayer;
-	/** Objects drawn above everything else (HUD elements, selected objects) */
-	private PooledList<Obstacle> topDrawLayer;
+	/** All game objects, split into the layers they are drawn in */
+	private DrawLayers drawLayers;
+	/** How far past their positions sprites can reach, in world units */
+	private static final float CULL_MARGIN = 4 * Constants.TILE_WIDTH;
+	/** Cache for the visible area of the world */
+	private Rectangle viewCache = new Rectangle();
+	/** Where the render statistics of each level are appended */
+	public static final String RENDER_STATS_FILE = "render_stats.csv";
+	/** Cache for the text of the render statistics overlay */
+	private StringBuilder statsCache = new StringBuilder();
+	/** Ground, roots, edges and wall tops, recorded once instead of drawn every frame */
+	private StaticLayerCache staticTiles;
+	/** How far from a change in the level static tiles may need to be recorded again */
+	private static final float STATIC_DIRTY_RADIUS = 2.5f * Constants.TILE_WIDTH;
 
 	/** The dimensions of the board */
 	protected Vector2 dimensions;
@@ -406,66 +414,50 @@ public abstract class WorldController implements Screen {
 		assets.add(BACKG_DAY_FILE);
 		manager.load(BACKG_NIGHT_FILE,Texture.class);
 		assets.add(BACKG_NIGHT_FILE);
-		manager.load(HOST_FILE_E, Texture.class);
-		assets.add(HOST_FILE_E);
-		manager.load(HOST_FILE_N, Texture.class);
-		assets.add(HOST_FILE_N);
-		manager.load(HOST_FILE_NE, Texture.class);
-		assets.add(HOST_FILE_NE);
-		manager.load(HOST_FILE_NW, Texture.class);
-		assets.add(HOST_FILE_NW);
-		manager.load(HOST_FILE_S, Texture.class);
-		assets.add(HOST_FILE_S);
-		manager.load(HOST_FILE_SE, Texture.class);
-		assets.add(HOST_FILE_SE);
-		manager.load(HOST_FILE_SW, Texture.class);
-		assets.add(HOST_FILE_SW);
-		manager.load(HOST_FILE_W, Texture.class);
-		assets.add(HOST_FILE_W);
-		manager.load(HOST_GLYPH_FILE_E, Texture.class);
-		assets.add(HOST_GLYPH_FILE_E);
-		manager.load(HOST_GLYPH_FILE_N, Texture.class);
-		assets.add(HOST_GLYPH_FILE_N);
-		manager.load(HOST_GLYPH_FILE_NE, Texture.class);
-		assets.add(HOST_GLYPH_FILE_NE);
-		manager.load(HOST_GLYPH_FILE_NW, Texture.class);
-		assets.add(HOST_GLYPH_FILE_NW);
-		manager.load(HOST_GLYPH_FILE_S, Texture.class);
-		assets.add(HOST_GLYPH_FILE_S);
-		manager.load(HOST_GLYPH_FILE_SE, Texture.class);
-		assets.add(HOST_GLYPH_FILE_SE);
-		manager.load(HOST_GLYPH_FILE_SW, Texture.class);
-		assets.add(HOST_GLYPH_FILE_SW);
-		manager.load(HOST_GLYPH_FILE_W, Texture.class);
-		assets.add(HOST_GLYPH_FILE_W);
-		manager.load(HOST_DEATH_FILE_E, Texture.class);
-		assets.add(HOST_DEATH_FILE_E);
-		manager.load(HOST_DEATH_FILE_N, Texture.class);
-		assets.add(HOST_DEATH_FILE_N);
-		manager.load(HOST_DEATH_FILE_NE, Texture.class);
-		assets.add(HOST_DEATH_FILE_NE);
-		manager.load(HOST_DEATH_FILE_NW, Texture.class);
-		assets.add(HOST_DEATH_FILE_NW);
-		manager.load(HOST_DEATH_FILE_S, Texture.class);
-		assets.add(HOST_DEATH_FILE_S);
-		manager.load(HOST_DEATH_FILE_SE, Texture.class);
-		assets.add(HOST_DEATH_FILE_SE);
-		manager.load(HOST_DEATH_FILE_SW, Texture.class);
-		assets.add(HOST_DEATH_FILE_SW);
-		manager.load(HOST_DEATH_FILE_W, Texture.class);
-		assets.add(HOST_DEATH_FILE_W);
-		manager.load(HOST_ARMS_FILE, Texture.class);
-		assets.add(HOST_ARMS_FILE);
-		manager.load(HOST_GEN_POSSESSION_FILE, Texture.class);
-		assets.add(HOST_GEN_POSSESSION_FILE);
-		manager.load(HOST_NEW_POSSESSION_FILE, Texture.class);
-		assets.add(HOST_NEW_POSSESSION_FILE);
-		manager.load(HOST_WAKING_UP_FILE, Texture.class);
-		assets.add(HOST_WAKING_UP_FILE);
-		manager.load(HOST_GAUGE_FILE, Texture.class);
-		assets.add(HOST_GAUGE_FILE);
-		manager.load(HOST_SHADOW_FILE, Texture.class);
-		assets.add(HOST_SHADOW_FILE);
+		// Pack the sprites drawn while playing, so they batch together
+		SpriteAtlas.Parameters sprites = new SpriteAtlas.Parameters();
+		sprites.files.add(HOST_FILE_E);
+		sprites.files.add(HOST_GLYPH_FILE_E);
+		sprites.files.add(HOST_FILE_N);
+		sprites.files.add(HOST_GLYPH_FILE_N);
+		sprites.files.add(HOST_FILE_NE);
+		sprites.files.add(HOST_GLYPH_FILE_NE);
+		sprites.files.add(HOST_FILE_NW);
+		sprites.files.add(HOST_GLYPH_FILE_NW);
+		sprites.files.add(HOST_FILE_S);
+		sprites.files.add(HOST_GLYPH_FILE_S);
+		sprites.files.add(HOST_FILE_SE);
+		sprites.files.add(HOST_GLYPH_FILE_SE);
+		sprites.files.add(HOST_FILE_SW);
+		sprites.files.add(HOST_GLYPH_FILE_SW);
+		sprites.files.add(HOST_FILE_W);
+		sprites.files.add(HOST_GLYPH_FILE_W);
+		sprites.files.add(HOST_DEATH_FILE_E);
+		sprites.files.add(HOST_DEATH_FILE_N);
+		sprites.files.add(HOST_DEATH_FILE_NE);
+		sprites.files.add(HOST_DEATH_FILE_NW);
+		sprites.files.add(HOST_DEATH_FILE_S);
+		sprites.files.add(HOST_DEATH_FILE_SE);
+		sprites.files.add(HOST_DEATH_FILE_SW);
+		sprites.files.add(HOST_DEATH_FILE_W);
+		sprites.files.add(OSC_WALL_HORZ_FILE);
+		sprites.files.add(OSC_WALL_HORZ_NIGHT_FILE);
+		sprites.files.add(OSC_WALL_HORZ_GAUGE_FILE);
+		sprites.files.add(SPIRIT_HEAD_FILE);
+		sprites.files.add(SPIRIT_TAIL_FILE);
+		sprites.files.add(ENERGY_PILLAR_RADIUS_FILE);
+		sprites.files.add(PEDESTAL_FILE);
+		sprites.files.add(PEDESTAL_NIGHT_FILE);
+		sprites.files.add(HOST_WAKING_UP_FILE);
+		sprites.files.add(HOST_GEN_POSSESSION_FILE);
+		sprites.files.add(HOST_NEW_POSSESSION_FILE);
+		sprites.files.add(HOST_ARMS_FILE);
+		sprites.files.add(HOST_GAUGE_FILE);
+		sprites.files.add(ENERGY_PILLAR_BODY_FILE);
+		sprites.files.add(ENERGY_PILLAR_BODY_CHARGE_FILE);
+		sprites.files.add(HOST_SHADOW_FILE);
+		manager.load(SPRITE_ATLAS, SpriteAtlas.class, sprites);
+		assets.add(SPRITE_ATLAS);
 		manager.load(WALL_DAY_FILE, Texture.class);
 		assets.add(WALL_DAY_FILE);
 		manager.load(WALL_NIGHT_FILE, Texture.class);
@@ -490,14 +482,6 @@ public abstract class WorldController implements Screen {
 		assets.add(ARROW_HEAD_FILE);
 		manager.load(ARROW_DASH_FILE, Texture.class);
 		assets.add(ARROW_DASH_FILE);
-		manager.load(PEDESTAL_FILE, Texture.class);
-		assets.add(PEDESTAL_FILE);
-		manager.load(PEDESTAL_NIGHT_FILE, Texture.class);
-		assets.add(PEDESTAL_NIGHT_FILE);
-		manager.load(SPIRIT_HEAD_FILE, Texture.class);
-		assets.add(SPIRIT_HEAD_FILE);
-		manager.load(SPIRIT_TAIL_FILE, Texture.class);
-		assets.add(SPIRIT_TAIL_FILE);
 		manager.load(BORDER_EDGE_FILE, Texture.class);
 		assets.add(BORDER_EDGE_FILE);
 		manager.load(BORDER_EDGE_NIGHT_FILE, Texture.class);
@@ -506,18 +490,6 @@ public abstract class WorldController implements Screen {
 		assets.add(BORDER_CORNER_FILE);
 		manager.load(BORDER_CORNER_NIGHT_FILE, Texture.class);
 		assets.add(BORDER_CORNER_NIGHT_FILE);
-		manager.load(ENERGY_PILLAR_BODY_CHARGE_FILE, Texture.class);
-		assets.add(ENERGY_PILLAR_BODY_CHARGE_FILE);
-		manager.load(ENERGY_PILLAR_BODY_FILE, Texture.class);
-		assets.add(ENERGY_PILLAR_BODY_FILE);
-		manager.load(ENERGY_PILLAR_RADIUS_FILE, Texture.class);
-		assets.add(ENERGY_PILLAR_RADIUS_FILE);
-		manager.load(OSC_WALL_HORZ_FILE, Texture.class);
-		assets.add(OSC_WALL_HORZ_FILE);
-		manager.load(OSC_WALL_HORZ_NIGHT_FILE, Texture.class);
-		assets.add(OSC_WALL_HORZ_NIGHT_FILE);
-		manager.load(OSC_WALL_HORZ_GAUGE_FILE, Texture.class);
-		assets.add(OSC_WALL_HORZ_GAUGE_FILE);
 		manager.load(OSC_WALL_VERT_FILE, Texture.class);
 		assets.add(OSC_WALL_VERT_FILE);
 		manager.load(OSC_WALL_VERT_NIGHT_FILE, Texture.class);
@@ -577,36 +549,37 @@ public abstract class WorldController implements Screen {
 
 		worldAssetState = AssetState.COMPLETE;
 
-		hostTextureE = manager.get(HOST_FILE_E,Texture.class);
-		hostTextureN = manager.get(HOST_FILE_N, Texture.class);
-		hostTextureNE = manager.get(HOST_FILE_NE, Texture.class);
-		hostTextureNW = manager.get(HOST_FILE_NW, Texture.class);
-		hostTextureS = manager.get(HOST_FILE_S, Texture.class);
-		hostTextureSE = manager.get(HOST_FILE_SE, Texture.class);
-		hostTextureSW = manager.get(HOST_FILE_SW, Texture.class);
-		hostTextureW = manager.get(HOST_FILE_W, Texture.class);
-		hostGlyphTextureE = manager.get(HOST_GLYPH_FILE_E,Texture.class);
-		hostGlyphTextureN = manager.get(HOST_GLYPH_FILE_N, Texture.class);
-		hostGlyphTextureNE = manager.get(HOST_GLYPH_FILE_NE, Texture.class);
-		hostGlyphTextureNW = manager.get(HOST_GLYPH_FILE_NW, Texture.class);
-		hostGlyphTextureS = manager.get(HOST_GLYPH_FILE_S, Texture.class);
-		hostGlyphTextureSE = manager.get(HOST_GLYPH_FILE_SE, Texture.class);
-		hostGlyphTextureSW = manager.get(HOST_GLYPH_FILE_SW, Texture.class);
-		hostGlyphTextureW = manager.get(HOST_GLYPH_FILE_W, Texture.class);
-		hostDeathTextureE = manager.get(HOST_DEATH_FILE_E,Texture.class);
-		hostDeathTextureN = manager.get(HOST_DEATH_FILE_N, Texture.class);
-		hostDeathTextureNE = manager.get(HOST_DEATH_FILE_NE, Texture.class);
-		hostDeathTextureNW = manager.get(HOST_DEATH_FILE_NW, Texture.class);
-		hostDeathTextureS = manager.get(HOST_DEATH_FILE_S, Texture.class);
-		hostDeathTextureSE = manager.get(HOST_DEATH_FILE_SE, Texture.class);
-		hostDeathTextureSW = manager.get(HOST_DEATH_FILE_SW, Texture.class);
-		hostDeathTextureW = manager.get(HOST_DEATH_FILE_W, Texture.class);
-		hostArmsTexture = manager.get(HOST_ARMS_FILE, Texture.class);
-		hostNewPossessionTexture = manager.get(HOST_NEW_POSSESSION_FILE, Texture.class);
-		hostGenPossessionTexture = manager.get(HOST_GEN_POSSESSION_FILE, Texture.class);
-		hostWakingUpTexture = manager.get(HOST_WAKING_UP_FILE, Texture.class);
-		hostGaugeTexture = manager.get(HOST_GAUGE_FILE, Texture.class);
-		hostShadowTexture = manager.get(HOST_SHADOW_FILE, Texture.class);
+		SpriteAtlas sprites = manager.get(SPRITE_ATLAS, SpriteAtlas.class);
+		hostTextureE = sprites.findRegion(HOST_FILE_E);
+		hostTextureN = sprites.findRegion(HOST_FILE_N);
+		hostTextureNE = sprites.findRegion(HOST_FILE_NE);
+		hostTextureNW = sprites.findRegion(HOST_FILE_NW);
+		hostTextureS = sprites.findRegion(HOST_FILE_S);
+		hostTextureSE = sprites.findRegion(HOST_FILE_SE);
+		hostTextureSW = sprites.findRegion(HOST_FILE_SW);
+		hostTextureW = sprites.findRegion(HOST_FILE_W);
+		hostGlyphTextureE = sprites.findRegion(HOST_GLYPH_FILE_E);
+		hostGlyphTextureN = sprites.findRegion(HOST_GLYPH_FILE_N);
+		hostGlyphTextureNE = sprites.findRegion(HOST_GLYPH_FILE_NE);
+		hostGlyphTextureNW = sprites.findRegion(HOST_GLYPH_FILE_NW);
+		hostGlyphTextureS = sprites.findRegion(HOST_GLYPH_FILE_S);
+		hostGlyphTextureSE = sprites.findRegion(HOST_GLYPH_FILE_SE);
+		hostGlyphTextureSW = sprites.findRegion(HOST_GLYPH_FILE_SW);
+		hostGlyphTextureW = sprites.findRegion(HOST_GLYPH_FILE_W);
+		hostDeathTextureE = sprites.findRegion(HOST_DEATH_FILE_E);
+		hostDeathTextureN = sprites.findRegion(HOST_DEATH_FILE_N);
+		hostDeathTextureNE = sprites.findRegion(HOST_DEATH_FILE_NE);
+		hostDeathTextureNW = sprites.findRegion(HOST_DEATH_FILE_NW);
+		hostDeathTextureS = sprites.findRegion(HOST_DEATH_FILE_S);
+		hostDeathTextureSE = sprites.findRegion(HOST_DEATH_FILE_SE);
+		hostDeathTextureSW = sprites.findRegion(HOST_DEATH_FILE_SW);
+		hostDeathTextureW = sprites.findRegion(HOST_DEATH_FILE_W);
+		hostArmsTexture = sprites.findRegion(HOST_ARMS_FILE);
+		hostNewPossessionTexture = sprites.findRegion(HOST_NEW_POSSESSION_FILE);
+		hostGenPossessionTexture = sprites.findRegion(HOST_GEN_POSSESSION_FILE);
+		hostWakingUpTexture = sprites.findRegion(HOST_WAKING_UP_FILE);
+		hostGaugeTexture = sprites.findRegion(HOST_GAUGE_FILE);
+		hostShadowTexture = sprites.findRegion(HOST_SHADOW_FILE);
 		wallDayTexture = manager.get(WALL_DAY_FILE, Texture.class);
 		wallNightTexture = manager.get(WALL_NIGHT_FILE, Texture.class);
 		waterTexture = manager.get(WATER_FILE, Texture.class);
@@ -617,20 +590,20 @@ public abstract class WorldController implements Screen {
 		sandNightTexture = manager.get(SAND_NIGHT_FILE, Texture.class);
 		cornerSandTexture = manager.get(CORNER_SAND_FILE, Texture.class);
 		cornerSandNightTexture = manager.get(CORNER_SAND_NIGHT_FILE, Texture.class);
-		pedestalTexture = manager.get(PEDESTAL_FILE, Texture.class);
-		pedestalNightTexture = manager.get(PEDESTAL_NIGHT_FILE, Texture.class);
-		spiritHeadTexture = manager.get(SPIRIT_HEAD_FILE, Texture.class);
-		spiritTailTexture = manager.get(SPIRIT_TAIL_FILE, Texture.class);
+		pedestalTexture = sprites.findRegion(PEDESTAL_FILE);
+		pedestalNightTexture = sprites.findRegion(PEDESTAL_NIGHT_FILE);
+		spiritHeadTexture = sprites.findRegion(SPIRIT_HEAD_FILE);
+		spiritTailTexture = sprites.findRegion(SPIRIT_TAIL_FILE);
 		borderEdgeTexture = manager.get(BORDER_EDGE_FILE, Texture.class);
 		borderEdgeNightTexture = manager.get(BORDER_EDGE_NIGHT_FILE, Texture.class);
 		borderCornerTexture = manager.get(BORDER_CORNER_FILE, Texture.class);
 		borderCornerNightTexture = manager.get(BORDER_CORNER_NIGHT_FILE, Texture.class);
-		energyPillarBody = manager.get(ENERGY_PILLAR_BODY_FILE, Texture.class);
-		energyPillarCharge = manager.get(ENERGY_PILLAR_BODY_CHARGE_FILE, Texture.class);
-		energyPillarRadius = manager.get(ENERGY_PILLAR_RADIUS_FILE, Texture.class);
-		oscWallHorz = manager.get(OSC_WALL_HORZ_FILE, Texture.class);
-		oscWallHorzNight = manager.get(OSC_WALL_HORZ_NIGHT_FILE, Texture.class);
-		oscWallGaugeHorz = manager.get(OSC_WALL_HORZ_GAUGE_FILE, Texture.class);
+		energyPillarBody = sprites.findRegion(ENERGY_PILLAR_BODY_FILE);
+		energyPillarCharge = sprites.findRegion(ENERGY_PILLAR_BODY_CHARGE_FILE);
+		energyPillarRadius = sprites.findRegion(ENERGY_PILLAR_RADIUS_FILE);
+		oscWallHorz = sprites.findRegion(OSC_WALL_HORZ_FILE);
+		oscWallHorzNight = sprites.findRegion(OSC_WALL_HORZ_NIGHT_FILE);
+		oscWallGaugeHorz = sprites.findRegion(OSC_WALL_HORZ_GAUGE_FILE);
 		oscWallVert = manager.get(OSC_WALL_VERT_FILE, Texture.class);
 		oscWallVertNight = manager.get(OSC_WALL_VERT_NIGHT_FILE, Texture.class);
 		oscWallVertGauge = manager.get(OSC_WALL_VERT_GAUGE_FILE, Texture.class);
@@ -651,6 +624,8 @@ public abstract class WorldController implements Screen {
 				energyPillarCharge, energyPillarRadius, oscWallVert, oscWallVertNight, oscWallVertGauge,
 				oscWallHorz, oscWallHorzNight, oscWallGaugeHorz, rootsTexture, rootsNightTexture);
 
+		factory.setNightCompositor(nightCompositor);
+
 		// Set the proper textures in the factory
 		loader = new Loader(factory);
 	}
@@ -724,6 +699,8 @@ public abstract class WorldController implements Screen {
 	public static final int WORLD_VELOC = 6;
 	/** Number of position iterations for the constrain solvers */
 	public static final int WORLD_POSIT = 2;
+	/** The most simulation steps to take in one frame before dropping time */
+	public static final int MAX_STEPS_PER_FRAME = 5;
 	
 	/** Width of the game world in Box2d units */
 	protected static final float DEFAULT_WIDTH  = 32.0f;
@@ -756,8 +733,14 @@ public abstract class WorldController implements Screen {
 	protected boolean failed;
 	/** Whether or not debug mode is active */
 	private boolean debug;
+	/** Whether the render statistics are shown and written out per level */
+	private boolean showStats;
 	/** Countdown active for winning or losing */
 	private int countdown;
+	/** Frame time not yet consumed by fixed simulation steps */
+	private float accumulator;
+	/** Fraction of a step between the last simulation step and this frame */
+	protected float alpha;
 	/** Controls the menu */
 	public boolean menu;
 	/** Current level */
@@ -767,6 +750,8 @@ public abstract class WorldController implements Screen {
 
 	/** list of level files*/
 	protected ArrayList<FileHandle> levels;
+	/** The catalog entries of the level files, in the same order */
+	protected ArrayList<LevelCatalog.Entry> levelEntries;
 
 	/** Input if paused was pressed */
 	protected boolean pressedPause = false;
@@ -797,32 +782,18 @@ public abstract class WorldController implements Screen {
 		debug = value;
 	}
 
+	/**
+	 * Sets levels to the preset or custom levels, sorted by name
+	 *
+	 * The levels come from the level catalog, which keeps them up to date in
+	 * the background, so this does not touch the file system.
+	 *
+	 * @param custom Whether to use the custom levels instead of the presets
+	 */
 	public void getLevels(boolean custom) {
-		if (custom) {
-			FileHandle folder = Gdx.files.local("Custom");
-			ArrayList<File> levelFiles = new ArrayList<File>(Arrays.asList(folder.file().listFiles(Constants.filenameFilter)));
-			levels = new ArrayList<FileHandle>();
-			for (File f : levelFiles) {
-				levels.add(Gdx.files.local("Custom/" + f.getName()));
-			}
-			System.out.println("(Custom) level size: " + levels.size());
-		}
-		else {
-			levels = new ArrayList<FileHandle>();
-			for (int i = 1; i <= NUM_LEVELS; i++) {
-				// Ensure one digit number has a leading 0 in the string
-				String num = i < 10 ? "0" + i : "" + i;
-				levels.add(Gdx.files.internal("levels/" + num + ".lvl"));
-			}
-			System.out.println("(preset) level size: " + levels.size());
-		}
-		Collections.sort(levels, new Comparator<FileHandle>() {
-			@Override
-			public int compare(FileHandle o1, FileHandle o2) {
-				String name1 = o1.nameWithoutExtension(), name2 = o2.nameWithoutExtension();
-				return name1.compareTo(name2);
-			}
-		});
+		LevelCatalog.Listing listing = LevelCatalog.getInstance().getLevels(custom);
+		levels = listing.files;
+		levelEntries = listing.entries;
 	}
 
 	/**
@@ -945,6 +916,7 @@ public abstract class WorldController implements Screen {
 		this.canvas = canvas;
 		this.scale.x = canvas.getWidth()/bounds.getWidth();
 		this.scale.y = canvas.getHeight()/bounds.getHeight();
+		invalidateStaticTiles();
 	}
 	
 	/**
@@ -1006,13 +978,9 @@ public abstract class WorldController implements Screen {
 		dimensions = new Vector2();
 		lowerLeft = new Vector2();
 		footprints = new ArrayList<>();
-		topDrawLayer = new PooledList<>();
-		edgeDrawLayer = new PooledList<>();
-		groundDrawLayer = new PooledList<>();
-		rootsDrawLayer = new PooledList<>();
-		hostDrawLayer = new PooledList<>();
-		wallDrawLayer = new PooledList<>();
-		threeDimensionalDrawLayer = new PooledList<>();
+		drawLayers = new DrawLayers();
+		staticTiles = new StaticLayerCache();
+		nightCompositor = new NightCompositor();
 
 
 		hud = new HUD();
@@ -1031,6 +999,8 @@ public abstract class WorldController implements Screen {
 		world.dispose();
 		hud.dispose();
 		tutorial.dispose();
+		staticTiles.dispose();
+		nightCompositor.dispose();
 		objects = null;
 		addQueue = null;
 		bounds = null;
@@ -1054,6 +1024,15 @@ public abstract class WorldController implements Screen {
 		addQueue.add(obj);
 	}
 
+	/**
+	 * Adds every object created by actions since the last step to the world
+	 */
+	protected void addQueuedObjects() {
+		while (!addQueue.isEmpty()) {
+			addObject(addQueue.poll());
+		}
+	}
+
 	/**
 	 * Immediately adds the object to the physics world
 	 *
@@ -1065,6 +1044,43 @@ public abstract class WorldController implements Screen {
 		obj.activatePhysics(world);
 	}
 
+	/**
+	 * Records every static tile again the next time the level is drawn.
+	 *
+	 * Call this whenever a new level is loaded.
+	 */
+	protected void invalidateStaticTiles() {
+		staticTiles.clear();
+		drawLayers.invalidate();
+	}
+
+	/**
+	 * Records the static tiles near the given position again the next time
+	 * the level is drawn.
+	 *
+	 * Call this after tiles near the position are added, removed, moved or
+	 * given new frames.
+	 *
+	 * @param x The x coordinate of the change
+	 * @param y The y coordinate of the change
+	 */
+	protected void invalidateStaticTiles(float x, float y) {
+		staticTiles.markDirty(x - STATIC_DIRTY_RADIUS, y - STATIC_DIRTY_RADIUS,
+				x + STATIC_DIRTY_RADIUS, y + STATIC_DIRTY_RADIUS);
+		drawLayers.invalidate();
+	}
+
+	/**
+	 * Sorts every object into its draw layer again the next time the level
+	 * is drawn.
+	 *
+	 * Adding and removing objects is noticed on its own. Call this when an
+	 * object changes layer otherwise, such as when it is selected.
+	 */
+	protected void invalidateDrawLayers() {
+		drawLayers.invalidate();
+	}
+
 	/**
 	 * Returns true if the object is in bounds.
 	 *
@@ -1086,6 +1102,16 @@ public abstract class WorldController implements Screen {
 	 * This method disposes of the world and creates a new one.
 	 */
 	public abstract void reset();
+
+	/**
+	 * Plays the current level again from the start.
+	 *
+	 * By default this is a full reset. Modes that can restore a level in place
+	 * should override this.
+	 */
+	public void retry() {
+		reset();
+	}
 	
 	/**
 	 * Returns whether to process the update loop
@@ -1114,10 +1140,13 @@ public abstract class WorldController implements Screen {
 		if (input.didDebug()) {
 			debug = !debug;
 		}
+		if (input.didStats()) {
+			showStats = !showStats;
+		}
 		
 		// Handle resets
 		if (input.didReset()) {
-			reset();
+			retry();
 		}
 
 		if ((input.didPause() || hud.getPauseClicked()) && renderHUD) {
@@ -1200,9 +1229,11 @@ public abstract class WorldController implements Screen {
 	 * @param dt Number of seconds since last animation frame
 	 */
 	public void postUpdate(float dt) {
-		// Add any objects created by actions
-		while (!addQueue.isEmpty()) {
-			addObject(addQueue.poll());
+		addQueuedObjects();
+
+		// Record where everything was so drawing can interpolate
+		for(Obstacle obj : objects) {
+			obj.storePreviousPosition();
 		}
 
 		// Turn the physics engine crank.
@@ -1237,16 +1268,20 @@ public abstract class WorldController implements Screen {
 	 */
 	public void draw(float delta) {
 		canvas.clear(currentLevel, renderHUD && !inCustom);
-
-		// Clear the lists so they can be repopulated
-		edgeDrawLayer.clear();
-		groundDrawLayer.clear();
-		rootsDrawLayer.clear();
-		threeDimensionalDrawLayer.clear();
-		hostDrawLayer.clear();
-		wallDrawLayer.clear();
-		topDrawLayer.clear();
-
+		RenderStats stats = canvas.getStats();
+		stats.beginFrame();
+
+		// Night only changes between levels, so blend the background once
+		boolean night = renderHUD && !inCustom;
+		if (night) {
+			float opacity = 1 - currentLevel/32.0f;
+			if (opacity != nightBackgroundOpacity) {
+				nightBackground = nightCompositor.composite(backgroundDayTexture.getTexture(),
+						backgroundNightTexture.getTexture(), opacity);
+				nightBackgroundOpacity = opacity;
+			}
+		}
+		Texture background = night && nightBackground != null ? nightBackground : backgroundDayTexture.getTexture();
 
 		canvas.begin();
 
@@ -1262,12 +1297,12 @@ public abstract class WorldController implements Screen {
 				// Draw only the part of the texture that is in game, using the
 				// texture coordinates
 
-				canvas.draw(backgroundDayTexture.getTexture(), Color.WHITE,
+				canvas.draw(background, Color.WHITE,
 						(scale.x * lowerLeft.x) + x, (scale.y * lowerLeft.y) + y,  width, height,
 						0.f, 0.f, width / canvas.getWidth(), height / canvas.getHeight());
 
-				if (renderHUD && !inCustom) {
-					canvas.draw(backgroundNightTexture.getTexture(), new Color(1,1,1,1 - currentLevel/32.0f),
+				if (night && nightBackground == null) {
+					canvas.draw(backgroundNightTexture.getTexture(), nightColorCache.set(1,1,1,1 - currentLevel/32.0f),
 							(scale.x * lowerLeft.x) + x, (scale.y * lowerLeft.y) + y,  width, height,
 							0.f, 0.f, width / canvas.getWidth(), height / canvas.getHeight());
 				}
@@ -1275,72 +1310,62 @@ public abstract class WorldController implements Screen {
 		}
 		canvas.end();
 
-		for(Obstacle obj : objects) {
-			if(obj.inHUD || obj.selected) {
-				topDrawLayer.add(obj);
-			} else if(obj instanceof Terrain || obj instanceof BorderCorner) {
-				groundDrawLayer.add(obj);
-			} else if(obj instanceof DecorativeRoots) {
-				rootsDrawLayer.add(obj);
-			} else if(obj instanceof BorderEdge) {
-				edgeDrawLayer.add((BorderEdge)obj);
-			} else {
-				threeDimensionalDrawLayer.add(obj);
-				if(obj instanceof HostModel) {
-					hostDrawLayer.add((HostModel)obj);
-				} else if(obj instanceof Wall) {
-					wallDrawLayer.add((Wall)obj);
-				}
-			}
-		}
-
-		canvas.begin();
+		// Only draw what the camera can see
+		canvas.getViewBounds(viewCache);
+		viewCache.set(viewCache.x/scale.x - CULL_MARGIN, viewCache.y/scale.y - CULL_MARGIN,
+				viewCache.width/scale.x + 2*CULL_MARGIN, viewCache.height/scale.y + 2*CULL_MARGIN);
+		drawLayers.update(objects, alpha, viewCache);
 
-		Collections.sort(threeDimensionalDrawLayer, new Comparator<Obstacle>() {
-			@Override
-			public int compare(Obstacle ob1, Obstacle ob2) {
-				// Want to sort them so furthest away is in front, so those are
-				// drawn first
-				float diff = ob2.getY() - ob1.getY();
+		staticTiles.update(objects, canvas);
+		staticTiles.draw(canvas, StaticLayerCache.GROUND, StaticLayerCache.EDGE_TOP, viewCache);
 
-				if(diff > 0) return 1;
-				else if(diff < 0) return -1;
-				else return 0;
-			}
-		});
+		stats.setLayer(RenderStats.Layer.GROUND);
+		canvas.begin();
 
-		for(Obstacle obj : groundDrawLayer) {
-			obj.draw(canvas);
-		}
-		for(Obstacle obj : rootsDrawLayer) {
-			obj.draw(canvas);
+		Array<Obstacle> ground = drawLayers.getGround();
+		for(int ii = 0; ii < ground.size; ii++) {
+			ground.items[ii].draw(canvas);
 		}
-		for(BorderEdge edge : edgeDrawLayer) {
-			edge.drawTop(canvas);
+		Array<Obstacle> roots = drawLayers.getRoots();
+		for(int ii = 0; ii < roots.size; ii++) {
+			roots.items[ii].draw(canvas);
 		}
-		for(Obstacle obj : threeDimensionalDrawLayer) {
-			obj.draw(canvas);
+		Array<BorderEdge> edges = drawLayers.getEdges();
+		for(int ii = 0; ii < edges.size; ii++) {
+			edges.items[ii].drawTop(canvas);
 		}
-		for(Wall wall : wallDrawLayer) {
-			wall.drawTop(canvas);
+		stats.setLayer(RenderStats.Layer.DEPTH);
+		drawLayers.drawDepthSorted(canvas);
+		canvas.end();
+
+		staticTiles.draw(canvas, StaticLayerCache.WALL_TOP, StaticLayerCache.EDGE_BOTTOM, viewCache);
+
+		stats.setLayer(RenderStats.Layer.TOP);
+		canvas.begin();
+		Array<Wall> walls = drawLayers.getWalls();
+		for(int ii = 0; ii < walls.size; ii++) {
+			walls.items[ii].drawTop(canvas);
 		}
-		for(BorderEdge edge : edgeDrawLayer) {
-			edge.drawNotTop(canvas);
+		for(int ii = 0; ii < edges.size; ii++) {
+			edges.items[ii].drawNotTop(canvas);
 		}
-		for(HostModel host : hostDrawLayer) {
-			host.drawCharge(canvas);
+		Array<HostModel> hosts = drawLayers.getHosts();
+		for(int ii = 0; ii < hosts.size; ii++) {
+			hosts.items[ii].drawCharge(canvas);
 		}
-		for(Obstacle obj : topDrawLayer) {
-			obj.draw(canvas);
+		Array<Obstacle> top = drawLayers.getTop();
+		for(int ii = 0; ii < top.size; ii++) {
+			top.items[ii].draw(canvas);
 		}
 
 		// Draw footprints
-		for (FootPrintModel fp : footprints) {
-			fp.draw(canvas);
+		for (int ii = 0; ii < footprints.size(); ii++) {
+			footprints.get(ii).draw(canvas);
 		}
 		canvas.end();
 
 		// Draw the arrow
+		stats.setLayer(RenderStats.Layer.OVERLAY);
 		if (arrow != null) { arrow.draw(canvas); }
 
 		if (debug) {
@@ -1358,6 +1383,54 @@ public abstract class WorldController implements Screen {
 				tutorial.updateTutorial(delta);
 			}
 		}
+
+		stats.endFrame();
+		if (showStats) {
+			drawStats(stats);
+		}
+	}
+
+	/**
+	 * Draws the render statistics of the frame at the top of the screen.
+	 *
+	 * @param stats The statistics of the frame
+	 */
+	private void drawStats(RenderStats stats) {
+		if (displayFont == null) {
+			return;
+		}
+		statsCache.setLength(0);
+		statsCache.append("draw calls ").append(stats.getDrawCalls())
+				.append("  flushes ").append(stats.getFlushes())
+				.append("  texture switches ").append(stats.getTextureSwitches())
+				.append("\nsprites");
+		for (RenderStats.Layer layer : RenderStats.Layer.values()) {
+			statsCache.append(' ').append(layer.name().toLowerCase()).append(' ').append(stats.getSprites(layer));
+		}
+		statsCache.append("  debug shapes ").append(stats.getDebugShapes());
+
+		canvas.getViewBounds(viewCache);
+		canvas.begin();
+		canvas.drawText(statsCache.toString(), displayFont,
+				viewCache.x + viewCache.width / 2, viewCache.y + viewCache.height - displayFont.getLineHeight());
+		canvas.end();
+	}
+
+	/**
+	 * Writes the render statistics of the level being left, and starts
+	 * counting again for the next one.
+	 *
+	 * Statistics are only written while the overlay is shown, as one row
+	 * per level of RENDER_STATS_FILE.
+	 *
+	 * @param level The name of the level being left
+	 */
+	protected void writeRenderStats(String level) {
+		RenderStats stats = canvas.getStats();
+		if (showStats) {
+			stats.write(Gdx.files.local(RENDER_STATS_FILE), level);
+		}
+		stats.resetLevel();
 	}
 	
 	/**
@@ -1379,17 +1452,43 @@ public abstract class WorldController implements Screen {
 	 * We defer to the other methods update() and draw().  However, it is VERY important
 	 * that we only quit AFTER a draw.
 	 *
+	 * The simulation always advances in steps of WORLD_STEP, regardless of the
+	 * frame rate. Leftover frame time is carried to the next frame, and the
+	 * remaining fraction of a step is used to interpolate drawing positions.
+	 *
 	 * @param delta Number of seconds since last animation frame
 	 */
 	public void render(float delta) {
 		if (active) {
-			updateGP = preUpdate(delta);
+			accumulator += delta;
+			int steps = 0;
+			while (accumulator >= WORLD_STEP && steps < MAX_STEPS_PER_FRAME) {
+				accumulator -= WORLD_STEP;
+				steps++;
+
+				// Input is polled per step. Presses are edges against the previous poll,
+				// so a frame with no steps defers a press to the next step, and the
+				// later steps of a busy frame see the key as held rather than pressed
+				updateGP = preUpdate(WORLD_STEP);
+
+				/** If the game isnt paused or switching screens, continue updating GP */
+				if ((updateGP && !isPaused) || pressedPause) {
+					update(WORLD_STEP); // This is the one that must be defined.
+					postUpdate(WORLD_STEP);
+				}
+
+				// Stop stepping once we are switching screens or pausing
+				if (!updateGP || pressedPause) {
+					accumulator = 0;
+					break;
+				}
+			}
 
-			/** If the game isnt paused or switching screens, continue updating GP */
-			if ((updateGP && !isPaused) || pressedPause) {
-				update(delta); // This is the one that must be defined.
-				postUpdate(delta);
+			// Drop any backlog from a long stall rather than spiralling
+			if (steps == MAX_STEPS_PER_FRAME) {
+				accumulator = Math.min(accumulator, WORLD_STEP);
 			}
+			alpha = Math.min(accumulator / WORLD_STEP, 1.0f);
 
 			draw(delta);
 
@@ -1432,7 +1531,7 @@ public abstract class WorldController implements Screen {
 		if (hud.getRetryClicked()) {
 			isPaused = false;
 			hud.reset();
-			reset();
+			retry();
 		}
 		if (hud.getPlayClicked()) {
 			hud.resumeGame();
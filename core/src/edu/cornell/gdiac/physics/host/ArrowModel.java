@@ -5,6 +5,7 @@ import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.math.Vector2;
 
 import edu.cornell.gdiac.physics.GameCanvas;
+import edu.cornell.gdiac.physics.TrajectoryPredictor;
 
 
 public class ArrowModel {
@@ -14,6 +15,9 @@ public class ArrowModel {
     private Vector2 velocityRepresented;
     /** The true velocity if the spirit was shot cache */
     private Vector2 velocityRepresentedCache;
+    /** The velocities represented before any is set, reused on reset */
+    private Vector2 noVelocity;
+    private Vector2 noVelocityCache;
     /** The horizontal scaling of this arrow */
     private float sx;
     /** The texture for the arrow head*/
@@ -22,15 +26,44 @@ public class ArrowModel {
     private Texture arrTextureDash;
     /** Whether the arrow would have passed the minimum velocity for a shot*/
     private boolean pastThreshold;
+    /** The predicted path of the shot, or null if there is none */
+    private TrajectoryPredictor trajectory;
+    /** The scale from world to screen coordinates for the path */
+    private Vector2 trajectoryScale;
+    /** The color of the path dashes (reused every frame) */
+    private Color trajectoryColor = new Color(Color.WHITE);
+
+    /** The distance between the starts of two path dashes, in pixels */
+    private static final float TRAJECTORY_SPACING = 24f;
+    /** The length of a path dash, in pixels */
+    private static final float TRAJECTORY_DASH = 10f;
+    /** The opacity of the path at the spirit; it fades to nothing at the end */
+    private static final float TRAJECTORY_ALPHA = 0.6f;
+    /** The color of an arrow too short to shoot */
+    private static final Color BELOW_THRESHOLD_COLOR = new Color(0, 0, 0, 0.3f);
 
 
     /** Creates an instance of an arrow to show direction */
     public ArrowModel(Texture arrTextHead, Texture arrTextDash, Vector2 golemPos) {
         arrTextureHead = arrTextHead;
         arrTextureDash = arrTextDash;
+        noVelocity = new Vector2(0,0);
+        noVelocityCache = new Vector2(0,0);
+        reset(golemPos);
+    }
+
+    /**
+     * Puts the arrow back the way it was when created, so it can be reused
+     *
+     * @param golemPos The start position of this arrow
+     */
+    public void reset(Vector2 golemPos) {
         start = golemPos;
-        velocityRepresented = new Vector2(0,0);
-        velocityRepresentedCache = new Vector2(0,0);
+        velocityRepresented = noVelocity.setZero();
+        velocityRepresentedCache = noVelocityCache.setZero();
+        pastThreshold = false;
+        sx = 0;
+        trajectory = null;
     }
 
     public void setCurrLoc(Vector2 golemPos) {
@@ -42,10 +75,11 @@ public class ArrowModel {
 
         // Determine the color based on whether the velocity passes threshold
         if (pastThreshold) { c =Color.WHITE; }
-        else { c = new Color(0, 0, 0, 0.3f); }
+        else { c = BELOW_THRESHOLD_COLOR; }
 
         // Draw the arrow
         canvas.begin();
+        if (pastThreshold) { drawTrajectory(canvas); }
         float lengthArrow = sx * arrTextureDash.getWidth();
         canvas.draw(arrTextureDash, c, 0, arrTextureDash.getHeight()/2, start.x + velocityRepresentedCache.setLength(15f).x,
                 start.y + + velocityRepresentedCache.setLength(15f).y,  velocityRepresented.angleRad(), sx, .10f);
@@ -55,6 +89,57 @@ public class ArrowModel {
         canvas.end();
     }
 
+    /**
+     * Sets the predicted path to draw along with the arrow
+     *
+     * @param trajectory The predictor holding the path, or null for none
+     * @param scale      The scale from world to screen coordinates
+     */
+    public void setTrajectory(TrajectoryPredictor trajectory, Vector2 scale) {
+        this.trajectory = trajectory;
+        this.trajectoryScale = scale;
+    }
+
+    /**
+     * Draws the predicted path as a fading line of dashes
+     */
+    private void drawTrajectory(GameCanvas canvas) {
+        if (trajectory == null || !trajectory.hasPath()) { return; }
+
+        float[] points = trajectory.getPoints();
+        int count = trajectory.getPointCount();
+
+        // Total screen length, so the dashes can fade out towards the end
+        float total = 0;
+        for (int i = 1; i < count; i++) {
+            total += Vector2.dst(points[2 * i - 2] * trajectoryScale.x, points[2 * i - 1] * trajectoryScale.y,
+                    points[2 * i] * trajectoryScale.x, points[2 * i + 1] * trajectoryScale.y);
+        }
+        if (total == 0) { return; }
+
+        float dashScale = TRAJECTORY_DASH / arrTextureDash.getWidth();
+        float travelled = 0;
+        // Distance into the current segment of the next dash
+        float offset = TRAJECTORY_SPACING;
+        for (int i = 1; i < count; i++) {
+            float x0 = points[2 * i - 2] * trajectoryScale.x;
+            float y0 = points[2 * i - 1] * trajectoryScale.y;
+            float dx = points[2 * i] * trajectoryScale.x - x0;
+            float dy = points[2 * i + 1] * trajectoryScale.y - y0;
+            float length = (float) Math.sqrt(dx * dx + dy * dy);
+            if (length == 0) { continue; }
+            float angle = (float) Math.atan2(dy, dx);
+
+            for (; offset < length; offset += TRAJECTORY_SPACING) {
+                trajectoryColor.a = TRAJECTORY_ALPHA * (1 - (travelled + offset) / total);
+                canvas.draw(arrTextureDash, trajectoryColor, 0, arrTextureDash.getHeight() / 2,
+                        x0 + dx * offset / length, y0 + dy * offset / length, angle, dashScale, .08f);
+            }
+            offset -= length;
+            travelled += length;
+        }
+    }
+
     public void setVelocityRepresented(Vector2 velocity, boolean metThreshold) {
         // Set velocityRepresented to the actual velocity if the shot was fired
         velocityRepresented = velocity;
@@ -5,6 +5,7 @@ import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.physics.box2d.BodyDef;
 import edu.cornell.gdiac.physics.GameCanvas;
 import edu.cornell.gdiac.physics.InputController;
+import edu.cornell.gdiac.physics.InputSource;
 import edu.cornell.gdiac.physics.obstacle.EnergyPillar;
 import edu.cornell.gdiac.physics.spirit.SpiritModel;
 
@@ -28,6 +29,10 @@ public class HostController {
      * The arrow created by the shot
      */
     private ArrowModel arrow;
+    /**
+     * The arrow reused for every shot, so aiming does not allocate
+     */
+    private ArrowModel arrowCache;
 
     private HostModel pedestal;
 
@@ -58,7 +63,7 @@ public class HostController {
     /**
      * Get user input through the controller
      */
-    private InputController input;
+    private InputSource input;
 
     // Cache variables
 
@@ -68,6 +73,11 @@ public class HostController {
 
     private Vector2 spiritCache;
 
+    /**
+     * The velocity the spirit would be shot with right now, capped to the maximum
+     */
+    private Vector2 aimVelocity;
+
     /**
      * Constant to change the speed of golem movement
      */
@@ -76,17 +86,17 @@ public class HostController {
     /**
      * Minimum speed for shot spirit
      */
-    private static final float MINIMUM_SHOT_SPEED = 7f;
+    public static final float MINIMUM_SHOT_SPEED = 7f;
 
     /**
      * Maximum speed for shot spirit
      */
-    private static final float MAXIMUM_SHOT_SPEED = 21f;
+    public static final float MAXIMUM_SHOT_SPEED = 21f;
 
     /**
      * Multiplier for velocity of spirit when shot
      */
-    private static final float SHOOTING_MULTIPLIER = 2.1f;
+    public static final float SHOOTING_MULTIPLIER = 2.1f;
 
     /**
      * Minimum distance to target before going to next instruction, for autonomous mode
@@ -108,27 +118,39 @@ public class HostController {
      */
     private int numHosts;
 
-    private GameCanvas canvas;
-
     /**
      * Creates and initialize a new instance of a HostController
      */
     public HostController(ArrayList<HostModel> h, Vector2 scale, Texture arrowHeadTexture, Texture arrowDashTexture, HostModel pedestal, GameCanvas c, EnergyPillar[] energyPillars) {
-        input = InputController.getInstance();
+        this(h, scale, arrowHeadTexture, arrowDashTexture, pedestal, new Vector2(c.getWidth() / 2, c.getHeight() / 2), energyPillars, InputController.getInstance());
+    }
+
+    /**
+     * Creates and initialize a new instance of a HostController
+     * <p>
+     * This version does not need a canvas, so it can be used without a window.
+     * The arrow textures may be null if the arrow is never drawn.
+     *
+     * @param spiritCenter The screen position that shots are aimed relative to
+     * @param input        The source of movement and aiming input
+     */
+    public HostController(ArrayList<HostModel> h, Vector2 scale, Texture arrowHeadTexture, Texture arrowDashTexture, HostModel pedestal, Vector2 spiritCenter, EnergyPillar[] energyPillars, InputSource input) {
+        this.input = input;
         hosts = h;
         arrowHead = arrowHeadTexture;
         arrowDash = arrowDashTexture;
         possessedBlownUp = false;
         launched = false;
         this.scale = scale;
-        spiritCenter = new Vector2(c.getWidth() / 2, c.getHeight() / 2);
+        this.spiritCenter = new Vector2(spiritCenter);
         mousePosCache = new Vector2();
         velocityCache = new Vector2();
         spiritCache = new Vector2();
+        aimVelocity = new Vector2();
+        arrowCache = new ArrowModel(arrowHead, arrowDash, spiritCache);
         this.pedestal = pedestal;
         numHosts = h.size();
         moved = false;
-        canvas = c;
         this.energyPillars = energyPillars;
     }
 
@@ -240,12 +262,14 @@ public class HostController {
                     float vy = SHOOTING_MULTIPLIER * shootVector.y / scale.y;
 
                     float magnitude = (float) Math.sqrt(Math.abs(vx * vx + vy * vy));
+                    aimVelocity.set(vx, vy).limit(MAXIMUM_SHOT_SPEED);
 
                     // Spirit Controller that deals with shooting the spirit
 
                     // Player input is pressed, so makes a new arrow
                     if (input.didLeftClick()) {
-                        arrow = new ArrowModel(arrowHead, arrowDash, spiritCache.set(spirit.getPosition().scl(scale.x, scale.y)));
+                        arrow = arrowCache;
+                        arrow.reset(spiritCache.set(spirit.getPosition().scl(scale.x, scale.y)));
                     }
 
                     // Arrow has been created, and mouse is held down so update the arrow
@@ -353,7 +377,8 @@ public class HostController {
         }
 
         //update other robots
-        for (HostModel h : hosts) {
+        for (int ii = 0; ii < hosts.size(); ii++) {
+            HostModel h = hosts.get(ii);
 
             // Update the body type of each host
             if ((h != possessed && !h.isMoving() && h.getBodyType() != BodyDef.BodyType.StaticBody) ||
@@ -392,14 +417,21 @@ public class HostController {
         return arrow;
     }
 
+    /**
+     * Returns the velocity the spirit would be shot with if the mouse were released now
+     */
+    public Vector2 getAimVelocity() {
+        return aimVelocity;
+    }
+
     public boolean getPossessedBlownUp() {
         return possessedBlownUp;
     }
 
     public boolean checkAllPossessed() {
         int counter = 0;
-        for (HostModel h : hosts) {
-            if (h.beenPossessed()) {
+        for (int ii = 0; ii < hosts.size(); ii++) {
+            if (hosts.get(ii).beenPossessed()) {
                 counter++;
             }
         }
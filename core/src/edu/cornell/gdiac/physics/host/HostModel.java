@@ -14,8 +14,10 @@ import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.Affine2;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.physics.box2d.World;
+import com.badlogic.gdx.utils.Array;
 import edu.cornell.gdiac.physics.GameCanvas;
 import edu.cornell.gdiac.physics.obstacle.BoxObstacle;
+import edu.cornell.gdiac.physics.obstacle.EnergyPillar;
 import edu.cornell.gdiac.util.FilmStrip;
 
 /**
@@ -245,6 +247,14 @@ public class HostModel extends BoxObstacle {
      */
     private static final Color unpossessedGlyphColor = Color.valueOf("#938282");
 
+    /**
+     * The gauge color while charging in an energy pillar
+     */
+    private static final Color pillarChargeColor = new Color(255f/256f, 191f/256f, 124f/256f,1);
+
+    /** Cache for the gauge color, which changes with the charge */
+    private Color warningColorCache = new Color();
+
 
     // FRAMES FOR SPRITE SHEET
 
@@ -389,6 +399,10 @@ public class HostModel extends BoxObstacle {
      * Whether the host is in a pillar or not
      */
     private boolean inPillar;
+    /**
+     * The energy pillars whose charge field this host is touching
+     */
+    private Array<EnergyPillar> pillarsInRange = new Array<EnergyPillar>(false, 4);
 
     /**
      * Whether return was a fizzle
@@ -1215,6 +1229,39 @@ public class HostModel extends BoxObstacle {
         return this.inPillar;
     }
 
+    /**
+     * Records that the host entered the charge field of a pillar
+     *
+     * @param pillar The pillar whose field was entered
+     */
+    public void enterPillarField(EnergyPillar pillar) {
+        if (!pillarsInRange.contains(pillar, true)) {
+            pillarsInRange.add(pillar);
+        }
+    }
+
+    /**
+     * Records that the host left the charge field of a pillar
+     *
+     * @param pillar The pillar whose field was left
+     */
+    public void exitPillarField(EnergyPillar pillar) {
+        pillarsInRange.removeValue(pillar, true);
+    }
+
+    /**
+     * Returns the pillars whose charge field the host is touching
+     * <p>
+     * The field covers the largest radius a pillar can grow to, so the host
+     * may still be outside the current radius of these pillars. It is never
+     * inside the radius of any other pillar.
+     *
+     * @return the pillars in range (do not modify)
+     */
+    public Array<EnergyPillar> getPillarsInRange() {
+        return pillarsInRange;
+    }
+
     /**
      * Draws the host object, the charge UI bar, and the shadow.
      *
@@ -1236,17 +1283,17 @@ public class HostModel extends BoxObstacle {
         /**
          * The Warning Color
          */
-        Color warningColor = new Color(64f/256f + Math.min(191/256f, 272/256f * Math.max(0, chargeProgression - 0.3f)),
+        Color warningColor = warningColorCache.set(64f/256f + Math.min(191/256f, 272/256f * Math.max(0, chargeProgression - 0.3f)),
                 198f/256f - Math.min(75f/256f,(75f/256f * chargeProgression)),
                 232f/256f - Math.min(84f/256f,(84f/256f * Math.max(0, chargeProgression - 0.5f))), 1);
 
         if (this.isPedestal) {
             // Make pedestal clear when no longer in possession.
             if (this.isPossessed) {
-                canvas.draw(pedestalHost, Color.WHITE, pedestalHost.getRegionWidth() / 2f, pedestalHost.getRegionHeight() / 2f, getX() * drawScale.x, getY() * drawScale.y, getAngle(), 0.3f, 0.3f);
-                canvas.draw(pedestalHostNight, opacity, pedestalHostNight.getRegionWidth() / 2f, pedestalHostNight.getRegionHeight() / 2f, getX() * drawScale.x, getY() * drawScale.y, getAngle(), 0.3f, 0.3f);
+                canvas.draw(pedestalHost, Color.WHITE, pedestalHost.getRegionWidth() / 2f, pedestalHost.getRegionHeight() / 2f, getDrawX() * drawScale.x, getDrawY() * drawScale.y, getAngle(), 0.3f, 0.3f);
+                canvas.draw(pedestalHostNight, opacity, pedestalHostNight.getRegionWidth() / 2f, pedestalHostNight.getRegionHeight() / 2f, getDrawX() * drawScale.x, getDrawY() * drawScale.y, getAngle(), 0.3f, 0.3f);
             } else {
-                canvas.draw(pedestalHost, Color.CLEAR, pedestalHost.getRegionWidth() / 2f, pedestalHost.getRegionHeight() / 2f, getX() * drawScale.x, getY() * drawScale.y, getAngle(), 0.3f, 0.3f);
+                canvas.draw(pedestalHost, Color.CLEAR, pedestalHost.getRegionWidth() / 2f, pedestalHost.getRegionHeight() / 2f, getDrawX() * drawScale.x, getDrawY() * drawScale.y, getAngle(), 0.3f, 0.3f);
             }
         } else {
             // Draw the host
@@ -1261,21 +1308,21 @@ public class HostModel extends BoxObstacle {
                     }
 
                     if (this.currentCharge < this.maxCharge) {
-                        canvas.draw(hostStrip, Color.WHITE, hostStrip.getRegionWidth() / 2f, hostStrip.getRegionHeight() / 2f, getX() * drawScale.x, getY() * drawScale.y, getAngle(), sx, sy);
-                        canvas.draw(glyphStrip, warningColor, glyphStrip.getRegionWidth() / 2f, glyphStrip.getRegionHeight() / 2f, getX() * drawScale.x, getY() * drawScale.y, getAngle(), sx, sy);
-                        canvas.draw(armStrip, Color.WHITE, armStrip.getRegionWidth() / 2f, armStrip.getRegionHeight() / 2f, getX() * drawScale.x, getY() * drawScale.y, getAngle(), sx, sy);
+                        canvas.draw(hostStrip, Color.WHITE, hostStrip.getRegionWidth() / 2f, hostStrip.getRegionHeight() / 2f, getDrawX() * drawScale.x, getDrawY() * drawScale.y, getAngle(), sx, sy);
+                        canvas.draw(glyphStrip, warningColor, glyphStrip.getRegionWidth() / 2f, glyphStrip.getRegionHeight() / 2f, getDrawX() * drawScale.x, getDrawY() * drawScale.y, getAngle(), sx, sy);
+                        canvas.draw(armStrip, Color.WHITE, armStrip.getRegionWidth() / 2f, armStrip.getRegionHeight() / 2f, getDrawX() * drawScale.x, getDrawY() * drawScale.y, getAngle(), sx, sy);
                         // WHEN GOLEM DIES
                     } else {
                         hostStrip = deadStrip;
-                        canvas.draw(hostStrip, Color.WHITE, deadStrip.getRegionWidth() / 2f, deadStrip.getRegionHeight() / 2f, getX() * drawScale.x, getY() * drawScale.y, getAngle(), sx, sy);
+                        canvas.draw(hostStrip, Color.WHITE, deadStrip.getRegionWidth() / 2f, deadStrip.getRegionHeight() / 2f, getDrawX() * drawScale.x, getDrawY() * drawScale.y, getAngle(), sx, sy);
                     }
 
                 }
                 // When the bot hasn't been possessed the indicator color should be black
                 else {
-                    canvas.draw(hostStrip, Color.WHITE, hostStrip.getRegionWidth() / 2f, hostStrip.getRegionHeight() / 2f, getX() * drawScale.x, getY() * drawScale.y, getAngle(), sx, sy);
-                    canvas.draw(glyphStrip, unpossessedGlyphColor, glyphStrip.getRegionWidth() / 2f, glyphStrip.getRegionHeight() / 2f, getX() * drawScale.x, getY() * drawScale.y, getAngle(), sx, sy);
-                    canvas.draw(armStrip, Color.WHITE, armStrip.getRegionWidth() / 2f, armStrip.getRegionHeight() / 2f, getX() * drawScale.x, getY() * drawScale.y, getAngle(), sx, sy);
+                    canvas.draw(hostStrip, Color.WHITE, hostStrip.getRegionWidth() / 2f, hostStrip.getRegionHeight() / 2f, getDrawX() * drawScale.x, getDrawY() * drawScale.y, getAngle(), sx, sy);
+                    canvas.draw(glyphStrip, unpossessedGlyphColor, glyphStrip.getRegionWidth() / 2f, glyphStrip.getRegionHeight() / 2f, getDrawX() * drawScale.x, getDrawY() * drawScale.y, getAngle(), sx, sy);
+                    canvas.draw(armStrip, Color.WHITE, armStrip.getRegionWidth() / 2f, armStrip.getRegionHeight() / 2f, getDrawX() * drawScale.x, getDrawY() * drawScale.y, getAngle(), sx, sy);
                 }
 
 
@@ -1286,9 +1333,9 @@ public class HostModel extends BoxObstacle {
 
                 if(!this.hasPlayedPossession && this.isPossessed && !animatePossession()) {
                     if(this.isFizzle) {
-                        canvas.draw(possessionStrip, warningColor, possessionStrip.getRegionWidth() / 2f, possessionStrip.getRegionHeight() / 1.8f, getX() * drawScale.x, getY() * drawScale.y, getAngle(), 0.8f, 0.8f);
+                        canvas.draw(possessionStrip, warningColor, possessionStrip.getRegionWidth() / 2f, possessionStrip.getRegionHeight() / 1.8f, getDrawX() * drawScale.x, getDrawY() * drawScale.y, getAngle(), 0.8f, 0.8f);
                     } else {
-                        canvas.draw(possessionStrip, Color.WHITE, possessionStrip.getRegionWidth() / 2f, possessionStrip.getRegionHeight() / 1.8f, getX() * drawScale.x, getY() * drawScale.y, getAngle(), 0.8f, 0.8f);
+                        canvas.draw(possessionStrip, Color.WHITE, possessionStrip.getRegionWidth() / 2f, possessionStrip.getRegionHeight() / 1.8f, getDrawX() * drawScale.x, getDrawY() * drawScale.y, getAngle(), 0.8f, 0.8f);
                     }
                 }
             }
@@ -1303,7 +1350,7 @@ public class HostModel extends BoxObstacle {
     public void drawShadow(GameCanvas canvas) {
         if (!this.isPedestal) {
             setScaling(hostShadow);
-            canvas.draw(hostShadow, Color.BLACK, hostChargeUI.getRegionWidth() / 2f,hostChargeUI.getRegionHeight() / 2f, getX() * drawScale.x, getY() * drawScale.x, getAngle(), 0.9f, 0.9f);
+            canvas.draw(hostShadow, Color.BLACK, hostChargeUI.getRegionWidth() / 2f,hostChargeUI.getRegionHeight() / 2f, getDrawX() * drawScale.x, getDrawY() * drawScale.x, getAngle(), 0.9f, 0.9f);
         }
     }
 
@@ -1317,7 +1364,7 @@ public class HostModel extends BoxObstacle {
          * The Warning Color
          */
         float chargeProgression = (float) currentCharge / maxCharge;
-        Color warningColor = new Color(64f/256f + Math.min(191/256f, 272/256f * Math.max(0, chargeProgression - 0.3f)),
+        Color warningColor = warningColorCache.set(64f/256f + Math.min(191/256f, 272/256f * Math.max(0, chargeProgression - 0.3f)),
                 198f/256f - Math.min(75f/256f,(75f/256f * chargeProgression)),
                 232f/256f - Math.min(84f/256f,(84f/256f * Math.max(0, chargeProgression - 0.5f))), 1);
 
@@ -1334,20 +1381,20 @@ public class HostModel extends BoxObstacle {
                         // Light Blue Color
 
                         if(this.inPillar) {
-                            warningColor = new Color(255f/256f, 191f/256f, 124f/256f,1);
+                            warningColor = pillarChargeColor;
                         }
                         if ((chargeProgression >= 0.83f && chargeProgression <= 0.86f || chargeProgression >= 0.90f && chargeProgression <= 0.93f || chargeProgression >= 0.97f && chargeProgression <= 1f)) {
                             // Color of the 3 flashes
-                            warningColor = new Color (chargeProgression * 255f  / 256f , chargeProgression * 123 / 256f, chargeProgression * 148f/256f, 1);
+                            warningColor = warningColorCache.set(chargeProgression * 255f  / 256f , chargeProgression * 123 / 256f, chargeProgression * 148f/256f, 1);
                         }
                         setScaling(hostChargeUI);
-                        canvas.draw(hostChargeUI, warningColor, hostChargeUI.getRegionWidth() / 2f, hostChargeUI.getRegionHeight() / 2f, getX() * drawScale.x, getY() * drawScale.y, getAngle(), 0.9f, 0.9f);
+                        canvas.draw(hostChargeUI, warningColor, hostChargeUI.getRegionWidth() / 2f, hostChargeUI.getRegionHeight() / 2f, getDrawX() * drawScale.x, getDrawY() * drawScale.y, getAngle(), 0.9f, 0.9f);
                     }
                 }
                 // When the bot hasn't been possessed the indicator color should be black
                 else {
                     setScaling(hostChargeUI);
-                    canvas.draw(hostChargeUI, Color.BLACK, hostChargeUI.getRegionWidth() / 2f,hostChargeUI.getRegionHeight() / 2f, getX() * drawScale.x, getY() * drawScale.x, getAngle(), 0.9f, 0.9f);
+                    canvas.draw(hostChargeUI, Color.BLACK, hostChargeUI.getRegionWidth() / 2f,hostChargeUI.getRegionHeight() / 2f, getDrawX() * drawScale.x, getDrawY() * drawScale.x, getAngle(), 0.9f, 0.9f);
                 }
             }
         }
@@ -1356,5 +1403,107 @@ public class HostModel extends BoxObstacle {
     public Vector2 getVelocity() {
         return new Vector2(this.getVX(), this.getVY());
     }
+
+    /**
+     * Returns every animation strip of this host, some of which may be null
+     */
+    private FilmStrip[] getStrips() {
+        return new FilmStrip[] { hostStripE, hostStripN, hostStripNE, hostStripNW, hostStripS, hostStripSE,
+                hostStripSW, hostStripW, hostWakingUp, hostChargeUI, glyphStripE, glyphStripN, glyphStripNE,
+                glyphStripNW, glyphStripS, glyphStripSE, glyphStripSW, glyphStripW, armStrip, pedestalHost,
+                pedestalHostNight, newPossessionStrip, genPossessionStrip, deadStripE, deadStripN, deadStripNE,
+                deadStripNW, deadStripS, deadStripSE, deadStripSW, deadStripW };
+    }
+
+    /**
+     * The state saved by saveState
+     */
+    private boolean savedHasPlayedPossession;
+    private boolean savedHasPlayedPossessionBefore;
+    private boolean savedIsPossessed;
+    private boolean savedIsAlive;
+    private int savedCurrentCharge;
+    private Vector2 savedForce = new Vector2();
+    private int savedInstructionNumber;
+    private boolean savedHasBeenPossessed;
+    private boolean savedForwardI;
+    private boolean savedMoving;
+    private boolean savedImpact;
+    private boolean savedInPillar;
+    private boolean savedIsFizzle;
+    private int[] savedAnimation = new int[5];
+    private FilmStrip[] savedCurrentStrips = new FilmStrip[4];
+    private int[] savedFrames;
+
+    /**
+     * Remembers the charge, instructions, possession and animation state
+     */
+    public void saveState() {
+        super.saveState();
+        savedHasPlayedPossession = hasPlayedPossession;
+        savedHasPlayedPossessionBefore = hasPlayedPossessionBefore;
+        savedIsPossessed = isPossessed;
+        savedIsAlive = isAlive;
+        savedCurrentCharge = currentCharge;
+        savedForce.set(force);
+        savedInstructionNumber = instructionNumber;
+        savedHasBeenPossessed = hasBeenPossessed;
+        savedForwardI = forwardI;
+        savedMoving = moving;
+        savedImpact = impact;
+        savedInPillar = inPillar;
+        savedIsFizzle = isFizzle;
+
+        savedAnimation[0] = walkFrame;
+        savedAnimation[1] = pedFrames;
+        savedAnimation[2] = armFrame;
+        savedAnimation[3] = posFrame;
+        savedAnimation[4] = wakeFrame;
+        savedCurrentStrips[0] = hostStrip;
+        savedCurrentStrips[1] = glyphStrip;
+        savedCurrentStrips[2] = deadStrip;
+        savedCurrentStrips[3] = possessionStrip;
+
+        FilmStrip[] strips = getStrips();
+        savedFrames = new int[strips.length];
+        for (int i = 0; i < strips.length; i++) {
+            savedFrames[i] = strips[i] == null ? 0 : strips[i].getFrame();
+        }
+    }
+
+    /**
+     * Returns the host to the state remembered by the last saveState
+     */
+    public void restoreState() {
+        super.restoreState();
+        hasPlayedPossession = savedHasPlayedPossession;
+        hasPlayedPossessionBefore = savedHasPlayedPossessionBefore;
+        isPossessed = savedIsPossessed;
+        isAlive = savedIsAlive;
+        currentCharge = savedCurrentCharge;
+        force.set(savedForce);
+        instructionNumber = savedInstructionNumber;
+        hasBeenPossessed = savedHasBeenPossessed;
+        forwardI = savedForwardI;
+        moving = savedMoving;
+        impact = savedImpact;
+        inPillar = savedInPillar;
+        isFizzle = savedIsFizzle;
+
+        walkFrame = savedAnimation[0];
+        pedFrames = savedAnimation[1];
+        armFrame = savedAnimation[2];
+        posFrame = savedAnimation[3];
+        wakeFrame = savedAnimation[4];
+        hostStrip = savedCurrentStrips[0];
+        glyphStrip = savedCurrentStrips[1];
+        deadStrip = savedCurrentStrips[2];
+        possessionStrip = savedCurrentStrips[3];
+
+        FilmStrip[] strips = getStrips();
+        for (int i = 0; i < strips.length; i++) {
+            if (strips[i] != null) { strips[i].setFrame(savedFrames[i]); }
+        }
+    }
 }
 
@@ -4,7 +4,6 @@ import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.Vector2;
 import edu.cornell.gdiac.physics.GameCanvas;
-import edu.cornell.gdiac.util.FilmStrip;
 
 public class BorderCorner extends BoxObstacle {
 
@@ -27,11 +26,11 @@ public class BorderCorner extends BoxObstacle {
     /** The side that this edge goes along */
     private Corner corner;
 
-    /** The filmstrip to be used for rendering this corner */
-    private FilmStrip cornerStrip;
-    /** The filmstrip to be used for rendering this corner */
-    private FilmStrip cornerNightStrip;
-    /** The filmstrip to be used for rendering this corner */
+    /** The frames to be used for rendering corners, shared by every corner */
+    private TextureRegion[] cornerFrames;
+    /** The frames to be used for rendering corners at night */
+    private TextureRegion[] cornerNightFrames;
+    /** The night frame for this corner */
     private TextureRegion cornerNightTexture;
 
 //    /** The frame within the border edge filmstrip to be used */
@@ -42,13 +41,13 @@ public class BorderCorner extends BoxObstacle {
     /** Color of night opacity */
     private Color opacity;
 
-    public BorderCorner(float x, float y, float width, float height, Corner corner, FilmStrip edgeStrip, FilmStrip edgeNightStrip, Color opacity) {
+    public BorderCorner(float x, float y, float width, float height, Corner corner, TextureRegion[] cornerFrames, TextureRegion[] cornerNightFrames, Color opacity) {
         super(x, y, width, height);
         this.opacity = opacity;
-        this.cornerStrip = edgeStrip;
-        this.cornerNightStrip = edgeNightStrip;
-        setTexture(this.cornerStrip);
-        cornerNightTexture = this.cornerNightStrip;
+        this.cornerFrames = cornerFrames;
+        this.cornerNightFrames = cornerNightFrames;
+        setTexture(cornerFrames[0]);
+        cornerNightTexture = cornerNightFrames[0];
         origin.set(cornerNightTexture.getRegionWidth()/2.0f, cornerNightTexture.getRegionHeight()/2.0f);
 
         setCorner(corner);
@@ -59,6 +58,16 @@ public class BorderCorner extends BoxObstacle {
         this.cache = new Vector2();
     }
 
+    /**
+     * Sets the frame drawn by day and by night
+     *
+     * @param frame The frame to set
+     */
+    private void setFrame(int frame) {
+        texture = cornerFrames[frame];
+        cornerNightTexture = cornerNightFrames[frame];
+    }
+
     /**
      * @return The frame for this border corner
      */
@@ -74,20 +83,16 @@ public class BorderCorner extends BoxObstacle {
         this.corner = corner;
         switch(this.corner) {
             case TOP_LEFT:
-                this.cornerStrip.setFrame(0);
-                this.cornerNightStrip.setFrame(0);
+                setFrame(0);
                 break;
             case TOP_RIGHT:
-                this.cornerStrip.setFrame(1);
-                this.cornerNightStrip.setFrame(1);
+                setFrame(1);
                 break;
             case BOTTOM_LEFT:
-                this.cornerStrip.setFrame(2);
-                this.cornerNightStrip.setFrame(2);
+                setFrame(2);
                 break;
             case BOTTOM_RIGHT:
-                this.cornerStrip.setFrame(3);
-                this.cornerNightStrip.setFrame(3);
+                setFrame(3);
                 break;
         }
     }
@@ -206,6 +211,9 @@ public class BorderCorner extends BoxObstacle {
         y *= drawScale.y;
 
         canvas.draw(texture, Color.WHITE, x, y, drawScale.x * CORNER_SCALE * TILE_WIDTH, drawScale.y * CORNER_SCALE * TILE_WIDTH);
+        if (opacity.a == 0) {
+            return;
+        }
         canvas.draw(cornerNightTexture, opacity, x, y, drawScale.x * CORNER_SCALE * TILE_WIDTH, drawScale.y * CORNER_SCALE * TILE_WIDTH);
 
 //        canvas.draw(texture, Color.WHITE,origin.x + TILE_WIDTH,origin.y + TILE_WIDTH,getX()*drawScale.x,getY()*drawScale.y,getAngle(),sx,sy);
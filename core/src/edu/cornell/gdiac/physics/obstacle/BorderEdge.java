@@ -5,7 +5,6 @@ import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.physics.box2d.PolygonShape;
 import edu.cornell.gdiac.physics.GameCanvas;
-import edu.cornell.gdiac.util.FilmStrip;
 
 import java.util.Random;
 
@@ -76,10 +75,12 @@ public class BorderEdge extends BoxObstacle {
      *  adjacent edge must match */
     private boolean startsPair;
 
-    /** The filmstrip to be used for rendering this edge */
-    private FilmStrip edgeStrip;
-    /** The filmstrip to be used for rendering this edge - AT NIGHT*/
-    private FilmStrip nightStrip;
+    /** The frames to be used for rendering edges, shared by every edge */
+    private TextureRegion[] edgeFrames;
+    /** The frames to be used for rendering edges - AT NIGHT*/
+    private TextureRegion[] nightFrames;
+    /** The frame drawn for this edge */
+    private int frame;
 
     // For generating random numbers for the art variants
     private final int seed;
@@ -88,15 +89,15 @@ public class BorderEdge extends BoxObstacle {
     /** A cache vector for computation and for passing as a parameter */
     private Vector2 cache;
 
-    public BorderEdge(float x, float y, float width, float height, Side side, FilmStrip edgeStrip, FilmStrip nightStrip) {
+    public BorderEdge(float x, float y, float width, float height, Side side, TextureRegion[] edgeFrames, TextureRegion[] nightFrames) {
         super(x, y, width, height);
         seed = (int)(Math.random() * 1000);
         random = new Random(seed);
 
-        this.edgeStrip = edgeStrip;
-        setTexture(this.edgeStrip);
-        this.nightStrip = edgeStrip;
-        setNightTexture(this.nightStrip, Color.WHITE);
+        this.edgeFrames = edgeFrames;
+        setTexture(edgeFrames[0]);
+        this.nightFrames = edgeFrames;
+        setNightTexture(edgeFrames[0], Color.WHITE);
         setSide(side);
 
 //        this.frame = frame;
@@ -105,15 +106,15 @@ public class BorderEdge extends BoxObstacle {
         this.cache = new Vector2();
     }
 
-    public BorderEdge(float x, float y, float width, float height, Side side, int frame, FilmStrip edgeStrip, FilmStrip nightStrip, Color opacity) {
+    public BorderEdge(float x, float y, float width, float height, Side side, int frame, TextureRegion[] edgeFrames, TextureRegion[] nightFrames, Color opacity) {
         super(x, y, width, height);
         seed = (int)(Math.random() * 1000);
         random = new Random(seed);
 
-        this.edgeStrip = edgeStrip;
-        this.nightStrip = nightStrip;
-        setTexture(this.edgeStrip);
-        setNightTexture(this.nightStrip, opacity);
+        this.edgeFrames = edgeFrames;
+        this.nightFrames = nightFrames;
+        setTexture(edgeFrames[0]);
+        setNightTexture(nightFrames[0], opacity);
         setSide(side);
 
 //        this.frame = frame;
@@ -123,19 +124,18 @@ public class BorderEdge extends BoxObstacle {
     }
 
     /**
-     * Sets the frame of both the edge strip and the night strip
+     * Sets the frame drawn by day and by night
      *
      * @param frame The frame to set
      */
     private void setFrame(int frame) {
-        edgeStrip.setFrame(frame);
-        nightStrip.setFrame(frame);
+        this.frame = frame;
     }
 
     /**
      * @return The frame for this border edge
      */
-    public int getFrame() { return edgeStrip.getFrame(); }
+    public int getFrame() { return frame; }
 
     /**
      * @return The side for this border edge
@@ -263,7 +263,7 @@ public class BorderEdge extends BoxObstacle {
 
         int frame;
 
-        int adjFrame = leftOrBelow.edgeStrip.getFrame();
+        int adjFrame = leftOrBelow.frame;
         switch(this.side) {
             case TOP:
                 if(adjFrame == 3 || adjFrame == 5 || adjFrame == 7) {
@@ -393,10 +393,13 @@ public class BorderEdge extends BoxObstacle {
             return;
         }
 
-        setScaling(edgeStrip);
-        canvas.draw(edgeStrip, Color.WHITE, origin.x,origin.y,getX()*drawScale.x,getY()*drawScale.y,side.angle,sx,sy);
-        setScaling(nightStrip);
-        canvas.draw(nightStrip, opacity, origin.x,origin.y,getX()*drawScale.x,getY()*drawScale.y,side.angle,sx,sy);
+        setScaling(edgeFrames[frame]);
+        canvas.draw(edgeFrames[frame], Color.WHITE, origin.x,origin.y,getX()*drawScale.x,getY()*drawScale.y,side.angle,sx,sy);
+        if (opacity.a == 0) {
+            return;
+        }
+        setScaling(nightFrames[frame]);
+        canvas.draw(nightFrames[frame], opacity, origin.x,origin.y,getX()*drawScale.x,getY()*drawScale.y,side.angle,sx,sy);
     }
 
     /**
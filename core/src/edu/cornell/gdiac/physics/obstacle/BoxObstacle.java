@@ -234,11 +234,12 @@ public class BoxObstacle extends SimpleObstacle {
 	public void draw(GameCanvas canvas) {
 		if (texture == null) return;
 		setScaling(texture);
-		canvas.draw(texture,Color.WHITE,origin.x,origin.y,getX()*drawScale.x,getY()*drawScale.y,getAngle(),sx,sy);
+		canvas.draw(texture,Color.WHITE,origin.x,origin.y,getDrawX()*drawScale.x,getDrawY()*drawScale.y,getAngle(),sx,sy);
 
-		if (textureNight == null) return;
+		// A clear night texture is already blended into the day one
+		if (textureNight == null || opacity.a == 0) return;
 		setScaling(textureNight);
-		canvas.draw(textureNight,opacity,origin.x,origin.y,getX()*drawScale.x,getY()*drawScale.y,getAngle(),sx,sy);
+		canvas.draw(textureNight,opacity,origin.x,origin.y,getDrawX()*drawScale.x,getDrawY()*drawScale.y,getAngle(),sx,sy);
 	}
 
 	
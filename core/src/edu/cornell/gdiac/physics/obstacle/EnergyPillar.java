@@ -3,6 +3,9 @@ package edu.cornell.gdiac.physics.obstacle;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.Filter;
+import com.badlogic.gdx.physics.box2d.Fixture;
+import com.badlogic.gdx.physics.box2d.FixtureDef;
 import com.badlogic.gdx.physics.box2d.PolygonShape;
 import edu.cornell.gdiac.physics.GameCanvas;
 import edu.cornell.gdiac.util.FilmStrip;
@@ -21,6 +24,17 @@ public class EnergyPillar extends BoxObstacle {
     /** chargeProgression of Possessed Host */
     protected float chargeProgression;
 
+    /** The color of the rune and the charge field */
+    private static final Color warningColor = new Color(200f/256f, 241f/256f, 238f/256f, 1);
+
+    /**
+     * The charge field sensor, covering the largest radius the pillar can
+     * grow to. Its user data is this pillar, so contacts can recognize it.
+     */
+    protected Fixture field;
+    /** The definition of the charge field sensor */
+    protected FixtureDef fieldDef;
+
 
     public EnergyPillar(float width, float height) {
         this(0, 0, width, height);
@@ -46,6 +60,52 @@ public class EnergyPillar extends BoxObstacle {
         return ((this.energyPillarFieldStrip.getRegionHeight() * (this.chargeProgression / 3f)) / drawScale.y)/2f;
     }
 
+    /**
+     * Sets the filter of the charge field sensor
+     * <p>
+     * The sensor is only made if this is set before the pillar is activated.
+     *
+     * @param value the filter for the charge field
+     */
+    public void setFieldFilterData(Filter value) {
+        fieldDef = new FixtureDef();
+        fieldDef.isSensor = true;
+        fieldDef.filter.categoryBits = value.categoryBits;
+        fieldDef.filter.maskBits = value.maskBits;
+        fieldDef.filter.groupIndex = value.groupIndex;
+    }
+
+    /**
+     * Creates the pillar fixture and the charge field sensor
+     */
+    protected void createFixtures() {
+        super.createFixtures();
+        if (body == null || fieldDef == null || energyPillarFieldStrip == null) {
+            return;
+        }
+
+        // The box around the ellipse at full charge (chargeProgression of 1)
+        PolygonShape s = new PolygonShape();
+        s.setAsBox(energyPillarFieldStrip.getRegionWidth() / 3f / drawScale.x / 2f,
+                energyPillarFieldStrip.getRegionHeight() / 3f / drawScale.y / 2f);
+        fieldDef.shape = s;
+        field = body.createFixture(fieldDef);
+        field.setUserData(this);
+        fieldDef.shape = null;
+        s.dispose();
+    }
+
+    /**
+     * Destroys the pillar fixture and the charge field sensor
+     */
+    protected void releaseFixtures() {
+        super.releaseFixtures();
+        if (field != null) {
+            body.destroyFixture(field);
+            field = null;
+        }
+    }
+
     /**
      * sets the FilmStrip for the energy pillar
      *
@@ -75,8 +135,6 @@ public class EnergyPillar extends BoxObstacle {
      * @param canvas Drawing context
      */
     public void draw(GameCanvas canvas) {
-        Color warningColor = new Color(200f/256f, 241f/256f, 238f/256f, 1);
-
 //        setScaling(energyPillarStrip);
         canvas.draw(energyPillarStrip, Color.WHITE, energyPillarStrip.getRegionWidth() / 2f, energyPillarStrip.getRegionHeight() / 2f, getX() * drawScale.x, getY() * drawScale.y, getAngle(), 0.3f, 0.3f);
 //        setScaling(energyPillarRune);
@@ -79,6 +79,26 @@ public abstract class Obstacle {
 	/** A cache value for when the user wants to access the drawing scale */
 	protected Vector2 scaleCache = new Vector2();
 
+	/// Render interpolation
+	/** The position at the start of the most recent physics step */
+	protected Vector2 previousPosition = new Vector2();
+	/** The position to draw at, blended between the last two physics steps */
+	protected Vector2 drawPosition = new Vector2();
+	/** Whether previousPosition has been recorded since activation */
+	private boolean hasPrevious;
+
+	/// Snapshots
+	/** The position saved by saveState */
+	private Vector2 savedPosition = new Vector2();
+	/** The linear velocity saved by saveState */
+	private Vector2 savedVelocity = new Vector2();
+	/** The angle saved by saveState */
+	private float savedAngle;
+	/** The angular velocity saved by saveState */
+	private float savedAngularVelocity;
+	/** The body type saved by saveState */
+	private BodyType savedBodyType;
+
 
 	/// BodyDef Methods
 	/**
@@ -898,6 +918,108 @@ public abstract class Obstacle {
     public void setDrawScale(float x, float y) {
     	drawScale.set(x,y);
     }
+
+	/**
+	 * Records the current position as the start of the next physics step.
+	 *
+	 * This should be called immediately before every world step so that
+	 * interpolate() can blend between the two most recent step results.
+	 */
+	public void storePreviousPosition() {
+		previousPosition.set(getPosition());
+		drawPosition.set(previousPosition);
+		hasPrevious = true;
+	}
+
+	/**
+	 * Computes the drawing position for this frame.
+	 *
+	 * The simulation advances in fixed steps, so a rendered frame usually falls
+	 * between two of them. The drawing position is the linear blend of the
+	 * previous and current step positions by the given fraction.
+	 *
+	 * @param alpha  fraction of a step that has elapsed since the last step (0 to 1)
+	 */
+	public void interpolate(float alpha) {
+		Vector2 current = getPosition();
+		if (hasPrevious) {
+			drawPosition.set(previousPosition).lerp(current, alpha);
+		} else {
+			drawPosition.set(current);
+		}
+	}
+
+	/**
+	 * Returns the x-coordinate to draw this object at
+	 *
+	 * @return the x-coordinate to draw this object at
+	 */
+	public float getDrawX() {
+		return hasPrevious ? drawPosition.x : getX();
+	}
+
+	/**
+	 * Returns the y-coordinate to draw this object at
+	 *
+	 * @return the y-coordinate to draw this object at
+	 */
+	public float getDrawY() {
+		return hasPrevious ? drawPosition.y : getY();
+	}
+
+	/// SNAPSHOT METHODS
+	/**
+	 * Remembers the current state of this object so it can be restored later.
+	 *
+	 * The base class saves the body type, transform and velocities. Subclasses with
+	 * gameplay state of their own should override this and call super.
+	 */
+	public void saveState() {
+		savedPosition.set(getPosition());
+		savedVelocity.set(getLinearVelocity());
+		savedAngle = getAngle();
+		savedAngularVelocity = getAngularVelocity();
+		savedBodyType = getBodyType();
+	}
+
+	/**
+	 * Returns this object to the state remembered by the last saveState.
+	 *
+	 * The body is moved in place, so the object must already be active in
+	 * the world (or not active at all); it is never recreated here.
+	 */
+	public void restoreState() {
+		// Hosts switch between static and dynamic as they are possessed
+		if (savedBodyType != null && getBodyType() != savedBodyType) {
+			setBodyType(savedBodyType);
+		}
+		setPosition(savedPosition);
+		setAngle(savedAngle);
+		setLinearVelocity(savedVelocity);
+		setAngularVelocity(savedAngularVelocity);
+		setAwake(true);
+		markRemoved(false);
+		hasPrevious = false;
+	}
+
+	/**
+	 * Puts an inactive object at rest at the given position, so it can be reused.
+	 *
+	 * Only the state that play changes is reset. The shape, fixture settings
+	 * and textures are left for the caller to set up again.
+	 *
+	 * @param x  The new x-coordinate
+	 * @param y  The new y-coordinate
+	 */
+	public void recycle(float x, float y) {
+		setPosition(x, y);
+		setAngle(0);
+		setLinearVelocity(Vector2.Zero);
+		setAngularVelocity(0);
+		setAwake(true);
+		markRemoved(false);
+		hasPrevious = false;
+	}
     	
 	/// DEBUG METHODS
 	/**
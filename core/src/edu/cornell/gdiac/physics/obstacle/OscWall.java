@@ -46,6 +46,11 @@ public class OscWall extends BoxObstacle {
     /** Opacity of Night */
     protected Color opacity;
 
+    /** The gauge color while the gate is rising */
+    private static final Color GOING_UP_COLOR = Color.valueOf("#9EE1E5");
+    /** The gauge color while the gate is lowered */
+    private static final Color GOING_DOWN_COLOR = Color.valueOf("#A29382");
+
 
     /**
      * These constants can be used for the light indicator as well
@@ -78,6 +83,13 @@ public class OscWall extends BoxObstacle {
     /** Wall up Delay Max */
     private int wallDelayMax = 150;
 
+    /** The phase saved by saveState */
+    private boolean savedIsGoingUp;
+    private boolean savedIsUp;
+    private int savedElapsedFrames;
+    private int savedWallDelayCount;
+    private int savedFrame;
+
     /**
      * Initialize a new OscWall at the Origin
      * @param width the expected width of the OscWall
@@ -237,6 +249,36 @@ public class OscWall extends BoxObstacle {
     }
 
 
+    /**
+     * Remembers where the wall is in its rise and fall cycle
+     */
+    public void saveState() {
+        super.saveState();
+        savedIsGoingUp = isGoingUp;
+        savedIsUp = isUp;
+        savedElapsedFrames = elapsedFrames;
+        savedWallDelayCount = wallDelayCount;
+        savedFrame = mainOscWallStrip == null ? 0 : mainOscWallStrip.getFrame();
+    }
+
+    /**
+     * Returns the wall to the phase remembered by the last saveState
+     */
+    public void restoreState() {
+        super.restoreState();
+        isGoingUp = savedIsGoingUp;
+        isUp = savedIsUp;
+        elapsedFrames = savedElapsedFrames;
+        wallDelayCount = savedWallDelayCount;
+        if (mainOscWallStrip != null && mainOscWallGaugeStrip != null) {
+            mainOscWallStrip.setFrame(savedFrame);
+            mainOscWallGaugeStrip.setFrame(savedFrame);
+            if (mainOscWallNightStrip != null) {
+                mainOscWallNightStrip.setFrame(savedFrame);
+            }
+        }
+    }
+
     /**
      * Set the actual filmstrip of the oscwall depending on the direction of the OscWall
      * @param isVert true if the oscwall is a vertically placed wall
@@ -308,8 +350,8 @@ public class OscWall extends BoxObstacle {
      * @param canvas Drawing context
      */
     public void draw(GameCanvas canvas) {
-        Color goingUpColor = Color.valueOf("#9EE1E5");
-        Color goingDownColor = Color.valueOf("#A29382");
+        Color goingUpColor = GOING_UP_COLOR;
+        Color goingDownColor = GOING_DOWN_COLOR;
         Color mainColor = Color.WHITE;
         float delayPercentage = (float) wallDelayCount / (float) wallDelayMax;
 
@@ -1,11 +1,8 @@
 package edu.cornell.gdiac.physics.obstacle;
 
 import com.badlogic.gdx.graphics.Color;
-import com.badlogic.gdx.math.Vector2;
-import com.badlogic.gdx.physics.box2d.PolygonShape;
 import edu.cornell.gdiac.physics.GameCanvas;
 import edu.cornell.gdiac.physics.obstacle.BoxObstacle;
-import edu.cornell.gdiac.util.FilmStrip;
 
 public class SandTile extends Terrain {
     /**
@@ -28,17 +25,13 @@ public class SandTile extends Terrain {
      * @param frame The frame to set for this terrain tile, between 0 and 15, incl
      */
     public void setFrame(int frame) {
-        terrainStrip.setFrame(frame);
-        terrainNightStrip.setFrame(frame);
         this.frame = frame;
+        texture = terrainFrames[frame];
+        textureNight = terrainNightFrames[frame];
         if(frame==1 || frame==3 || frame==5 || frame==6 || frame==10 || frame>12){
-            PolygonShape s = new PolygonShape();
-            s.setAsBox(getWidth()/4,getHeight()/4,new Vector2(0, getHeight()/4),0);
-            shape = s;
+            shape.setAsBox(getWidth()/4,getHeight()/4,centerCache.set(0, getHeight()/4),0);
         }else{
-            PolygonShape s = new PolygonShape();
-            s.setAsBox(getWidth()/4,getHeight()/2,new Vector2(0, 0),0);
-            shape = s;
+            shape.setAsBox(getWidth()/4,getHeight()/2,centerCache.set(0, 0),0);
         }
     }
 
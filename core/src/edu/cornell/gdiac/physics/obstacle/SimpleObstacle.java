@@ -789,11 +789,11 @@ public abstract class SimpleObstacle extends Obstacle {
 	 */
 	public void draw(GameCanvas canvas) {
 		if (texture != null) {
-			canvas.draw(texture,Color.WHITE,origin.x,origin.y,getX()*drawScale.x,getY()*drawScale.y,getAngle(),1,1);
+			canvas.draw(texture,Color.WHITE,origin.x,origin.y,getDrawX()*drawScale.x,getDrawY()*drawScale.y,getAngle(),1,1);
 		}
 
-		if (textureNight != null) {
-			canvas.draw(textureNight,opacity,origin.x,origin.y,getX()*drawScale.x,getY()*drawScale.y,getAngle(),1,1);
+		if (textureNight != null && opacity.a > 0) {
+			canvas.draw(textureNight,opacity,origin.x,origin.y,getDrawX()*drawScale.x,getDrawY()*drawScale.y,getAngle(),1,1);
 		}
 	}
 	
@@ -866,6 +866,8 @@ public abstract class SimpleObstacle extends Obstacle {
 		if (body != null) {
 			// Snapshot the values
 			setBodyState(body);
+			// Forget the fixtures too, or activating again would destroy stale ones
+			releaseFixtures();
 			world.destroyBody(body);
 			body = null;
 			bodyinfo.active = false;
@@ -0,0 +1,204 @@
+package edu.cornell.gdiac.physics.obstacle;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.BodyDef;
+import com.badlogic.gdx.physics.box2d.Fixture;
+import com.badlogic.gdx.physics.box2d.PolygonShape;
+import edu.cornell.gdiac.physics.GameCanvas;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The collision geometry of many static tiles, merged into a single body.
+ *
+ * Every tile of a level used to be its own body. This obstacle instead takes
+ * the hitboxes of a group of tiles, greedily merges touching rectangles into
+ * larger ones, and puts them all as fixtures on one static body. The tiles
+ * themselves are then only drawn.
+ *
+ * This obstacle draws nothing except in debug mode.
+ */
+public class StaticGeometry extends SimpleObstacle {
+
+    /** Rectangle edges closer than this are treated as touching */
+    private static final float EPSILON = 0.001f;
+
+    /** The merged rectangles, in world coordinates */
+    private ArrayList<Rectangle> rectangles;
+    /** One shape per rectangle, relative to the body origin */
+    private ArrayList<PolygonShape> shapes;
+    /** The fixtures made from the shapes, while active */
+    private ArrayList<Fixture> geometry;
+
+    /** Cache for shape centers */
+    private Vector2 centerCache = new Vector2();
+
+    /**
+     * Creates the merged geometry of the given tiles
+     *
+     * The fixture settings (friction, restitution, sensor, filter) are copied from
+     * the first tile. The tiles are not changed.
+     *
+     * @param tiles The tiles to merge, each with an axis-aligned hitbox
+     * @param name  The name to give the merged body, for collision handling
+     */
+    public StaticGeometry(List<? extends BoxObstacle> tiles, String name) {
+        super(0, 0);
+        setBodyType(BodyDef.BodyType.StaticBody);
+        setName(name);
+
+        ArrayList<Rectangle> hitboxes = new ArrayList<Rectangle>();
+        for (BoxObstacle tile : tiles) {
+            Rectangle r = new Rectangle();
+            if (tile instanceof Wall) {
+                ((Wall) tile).getHitbox(r);
+            } else {
+                r.set(tile.getX() - tile.getWidth() / 2, tile.getY() - tile.getHeight() / 2,
+                        tile.getWidth(), tile.getHeight());
+            }
+            hitboxes.add(r);
+        }
+        if (!tiles.isEmpty()) {
+            BoxObstacle first = tiles.get(0);
+            setFriction(first.getFriction());
+            setRestitution(first.getRestitution());
+            setDensity(first.getDensity());
+            setSensor(first.isSensor());
+            setFilterData(first.getFilterData());
+            setDrawScale(first.getDrawScale());
+        }
+
+        rectangles = merge(hitboxes);
+        shapes = new ArrayList<PolygonShape>();
+        for (Rectangle r : rectangles) {
+            PolygonShape s = new PolygonShape();
+            s.setAsBox(r.width / 2, r.height / 2, r.getCenter(centerCache), 0);
+            shapes.add(s);
+        }
+        geometry = new ArrayList<Fixture>();
+    }
+
+    /**
+     * Returns the number of rectangles left after merging
+     */
+    public int getRectangleCount() {
+        return rectangles.size();
+    }
+
+    /**
+     * Greedily merges touching rectangles
+     *
+     * Rectangles in the same row with the same height are first joined into
+     * strips, and then strips with the same horizontal extent are joined
+     * vertically. This is not the smallest possible cover, but tile maps
+     * shrink by an order of magnitude or more.
+     *
+     * @param rects The rectangles to merge (these are modified)
+     *
+     * @return the merged rectangles
+     */
+    static ArrayList<Rectangle> merge(ArrayList<Rectangle> rects) {
+        Collections.sort(rects, new Comparator<Rectangle>() {
+            public int compare(Rectangle a, Rectangle b) {
+                if (a.y != b.y) { return Float.compare(a.y, b.y); }
+                if (a.height != b.height) { return Float.compare(a.height, b.height); }
+                return Float.compare(a.x, b.x);
+            }
+        });
+        ArrayList<Rectangle> rows = new ArrayList<Rectangle>();
+        Rectangle run = null;
+        for (Rectangle r : rects) {
+            if (run != null && near(run.y, r.y) && near(run.height, r.height) && near(run.x + run.width, r.x)) {
+                run.width = r.x + r.width - run.x;
+            } else {
+                run = r;
+                rows.add(run);
+            }
+        }
+
+        Collections.sort(rows, new Comparator<Rectangle>() {
+            public int compare(Rectangle a, Rectangle b) {
+                if (a.x != b.x) { return Float.compare(a.x, b.x); }
+                if (a.width != b.width) { return Float.compare(a.width, b.width); }
+                return Float.compare(a.y, b.y);
+            }
+        });
+        ArrayList<Rectangle> merged = new ArrayList<Rectangle>();
+        run = null;
+        for (Rectangle r : rows) {
+            if (run != null && near(run.x, r.x) && near(run.width, r.width) && near(run.y + run.height, r.y)) {
+                run.height = r.y + r.height - run.y;
+            } else {
+                run = r;
+                merged.add(run);
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Returns whether two coordinates are the same up to rounding
+     */
+    private static boolean near(float a, float b) {
+        return Math.abs(a - b) < EPSILON;
+    }
+
+    /**
+     * Creates one fixture per merged rectangle
+     */
+    protected void createFixtures() {
+        if (body == null) {
+            return;
+        }
+
+        releaseFixtures();
+
+        for (PolygonShape s : shapes) {
+            fixture.shape = s;
+            geometry.add(body.createFixture(fixture));
+        }
+        markDirty(false);
+    }
+
+    /**
+     * Destroys the fixtures of the body
+     */
+    protected void releaseFixtures() {
+        for (Fixture f : geometry) {
+            body.destroyFixture(f);
+        }
+        geometry.clear();
+    }
+
+    /**
+     * The tiles draw themselves, so there is nothing to draw here
+     */
+    public void draw(GameCanvas canvas) {
+    }
+
+    /**
+     * Draws the outline of every merged rectangle
+     *
+     * @param canvas Drawing context
+     */
+    public void drawDebug(GameCanvas canvas) {
+        for (PolygonShape s : shapes) {
+            canvas.drawPhysics(s, Color.CYAN, getX(), getY(), getAngle(), drawScale.x, drawScale.y);
+        }
+    }
+
+    /**
+     * Frees the shapes; the obstacle cannot be activated afterwards
+     */
+    public void dispose() {
+        for (PolygonShape s : shapes) {
+            s.dispose();
+        }
+        shapes.clear();
+    }
+}
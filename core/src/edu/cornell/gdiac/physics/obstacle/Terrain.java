@@ -1,23 +1,22 @@
 package edu.cornell.gdiac.physics.obstacle;
 
 import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.Vector2;
-import com.badlogic.gdx.physics.box2d.PolygonShape;
 import edu.cornell.gdiac.physics.GameCanvas;
-import edu.cornell.gdiac.util.FilmStrip;
 
 public abstract class Terrain extends BoxObstacle {
 
-    /** The textures for the terrain */
-    protected FilmStrip terrainStrip;
-    /** The textures for the terrain */
-    protected FilmStrip terrainNightStrip;
-    /** The textures for the corner layover that goes over the tile */
-    private FilmStrip cornerStrip;
-    /** The textures for the corner layover that goes over the tile */
-    private FilmStrip cornerNightStrip;
+    /** The frames of the terrain texture, shared by every tile of this kind */
+    protected TextureRegion[] terrainFrames;
+    /** The frames of the terrain night texture, shared by every tile of this kind */
+    protected TextureRegion[] terrainNightFrames;
+    /** The frames of the corner layover that goes over the tile */
+    private TextureRegion[] cornerFrames;
+    /** The frames of the corner layover that goes over the tile */
+    private TextureRegion[] cornerNightFrames;
 
-    /** The frame in the main terrain film strip for this tile */
+    /** The frame in the terrain frames for this tile */
     protected int frame;
 
     private boolean upLeft;
@@ -25,6 +24,9 @@ public abstract class Terrain extends BoxObstacle {
     private boolean downLeft;
     private boolean downRight;
 
+    /** Cache for the center of the hitbox */
+    protected Vector2 centerCache = new Vector2();
+
     /**
      * Creates a new terrain tile at the origin.
      *
@@ -53,6 +55,23 @@ public abstract class Terrain extends BoxObstacle {
      */
     public Terrain(float x, float y, float width, float height) { super(x,y,width,height); }
 
+    /**
+     * Sets up a tile from an old level to be used again
+     *
+     * The frame tables are kept, and the hitbox is set again from the frame.
+     *
+     * @param x       The x position of the tile center
+     * @param y       The y position of the tile center
+     * @param frame   The frame to set for this terrain tile
+     * @param opacity The opacity of the night texture
+     */
+    public void recycle(float x, float y, int frame, Color opacity) {
+        recycle(x, y);
+        setNightTexture(terrainNightFrames[0], opacity);
+        setFrame(frame);
+        setCorners(false, false, false, false);
+    }
+
     /**
      * If the given tile is "similar" to this tile, such that no edge would be
      * needed between them. For example, if this tile is water and the given
@@ -66,38 +85,33 @@ public abstract class Terrain extends BoxObstacle {
     public abstract boolean continuousWithTile(Obstacle obj);
 
     /**
-     * sets the FilmStrip for the terrain
+     * sets the frames for the terrain
      *
-     * @param strip for the terrain
+     * @param frames for the terrain, which may be shared with other tiles
      */
-    public void setTerrainStrip (FilmStrip strip) {
-        terrainStrip = strip;
-        terrainStrip.setFrame(0);
-        this.setTexture(strip);
+    public void setTerrainFrames (TextureRegion[] frames) {
+        terrainFrames = frames;
+        this.setTexture(frames[frame]);
     }
 
     /**
-     * sets the FilmStrip for the terrain
+     * sets the night frames for the terrain
      *
-     * @param nightStrip for the terrain
+     * @param nightFrames for the terrain, which may be shared with other tiles
      */
-    public void setTerrainNightStrip (FilmStrip nightStrip, Color opacity) {
-        terrainNightStrip = nightStrip;
-        terrainNightStrip.setFrame(0);
-        this.setNightTexture(nightStrip, opacity);
-
+    public void setTerrainNightFrames (TextureRegion[] nightFrames, Color opacity) {
+        terrainNightFrames = nightFrames;
+        this.setNightTexture(nightFrames[frame], opacity);
     }
 
     /**
-     * sets the FilmStrip for the corner texture
+     * sets the frames for the corner texture
      *
-     * @param strip for the corner
+     * @param frames for the corner, which may be shared with other tiles
      */
-    public void setCornerStrip (FilmStrip strip, FilmStrip nightStrip) {
-        cornerStrip = strip;
-        cornerStrip.setFrame(0);
-        cornerNightStrip = nightStrip;
-        cornerNightStrip.setFrame(0);
+    public void setCornerFrames (TextureRegion[] frames, TextureRegion[] nightFrames) {
+        cornerFrames = frames;
+        cornerNightFrames = nightFrames;
     }
 
     /**
@@ -125,18 +139,14 @@ public abstract class Terrain extends BoxObstacle {
      * @param updateHitbox If the hitbox should be updated
      */
     public void setFrame(int frame, boolean updateHitbox) {
-        terrainStrip.setFrame(frame);
-        terrainNightStrip.setFrame(frame);
         this.frame = frame;
+        texture = terrainFrames[frame];
+        textureNight = terrainNightFrames[frame];
         if(updateHitbox) {
             if (frame == 1 || frame == 3 || frame == 5 || frame == 6 || frame == 10 || frame > 12) {
-                PolygonShape s = new PolygonShape();
-                s.setAsBox(getWidth() / 2, getHeight() / 4, new Vector2(0, getHeight() / 4), 0);
-                shape = s;
+                shape.setAsBox(getWidth() / 2, getHeight() / 4, centerCache.set(0, getHeight() / 4), 0);
             } else {
-                PolygonShape s = new PolygonShape();
-                s.setAsBox(getWidth() / 2, getHeight() / 2, new Vector2(0, 0), 0);
-                shape = s;
+                shape.setAsBox(getWidth() / 2, getHeight() / 2, centerCache.set(0, 0), 0);
             }
         }
     }
@@ -266,32 +276,33 @@ public abstract class Terrain extends BoxObstacle {
     public void draw(GameCanvas canvas) {
         super.draw(canvas);
 
-        setScaling(cornerStrip);
-        setScaling(cornerNightStrip);
-
         if(upLeft) {
-            cornerStrip.setFrame(0);
-            cornerNightStrip.setFrame(0);
-            canvas.draw(cornerStrip, Color.WHITE, cornerStrip.getRegionWidth() / 2, cornerStrip.getRegionHeight() / 2, getX() * drawScale.x, getY() * drawScale.y, getAngle(), (64.f / cornerStrip.getRegionWidth())+0.01f, (64.f / cornerStrip.getRegionHeight())+0.01f);
-            canvas.draw(cornerNightStrip, opacity, cornerNightStrip.getRegionWidth() / 2, cornerNightStrip.getRegionHeight() / 2, getX() * drawScale.x, getY() * drawScale.y, getAngle(), (64.f / cornerNightStrip.getRegionWidth())+0.01f, (64.f / cornerNightStrip.getRegionHeight())+0.01f);
+            drawCorner(canvas, 0);
         }
         if(upRight) {
-            cornerStrip.setFrame(1);
-            cornerNightStrip.setFrame(1);
-            canvas.draw(cornerStrip, Color.WHITE, cornerStrip.getRegionWidth() / 2, cornerStrip.getRegionHeight() / 2, getX() * drawScale.x, getY() * drawScale.y, getAngle(), (64.f / cornerStrip.getRegionWidth())+0.01f, (64.f / cornerStrip.getRegionHeight())+0.01f);
-            canvas.draw(cornerNightStrip, opacity, cornerNightStrip.getRegionWidth() / 2, cornerNightStrip.getRegionHeight() / 2, getX() * drawScale.x, getY() * drawScale.y, getAngle(), (64.f / cornerNightStrip.getRegionWidth())+0.01f, (64.f / cornerNightStrip.getRegionHeight())+0.01f);
+            drawCorner(canvas, 1);
         }
         if(downLeft) {
-            cornerStrip.setFrame(2);
-            cornerNightStrip.setFrame(2);
-            canvas.draw(cornerStrip, Color.WHITE, cornerStrip.getRegionWidth() / 2, cornerStrip.getRegionHeight() / 2, getX() * drawScale.x, getY() * drawScale.y, getAngle(), (64.f / cornerStrip.getRegionWidth())+0.01f, (64.f / cornerStrip.getRegionHeight())+0.01f);
-            canvas.draw(cornerNightStrip, opacity, cornerNightStrip.getRegionWidth() / 2, cornerNightStrip.getRegionHeight() / 2, getX() * drawScale.x, getY() * drawScale.y, getAngle(), (64.f / cornerNightStrip.getRegionWidth())+0.01f, (64.f / cornerNightStrip.getRegionHeight())+0.01f);
+            drawCorner(canvas, 2);
         }
         if(downRight) {
-            cornerStrip.setFrame(3);
-            cornerNightStrip.setFrame(3);
-            canvas.draw(cornerStrip, Color.WHITE, cornerStrip.getRegionWidth() / 2, cornerStrip.getRegionHeight() / 2, getX() * drawScale.x, getY() * drawScale.y, getAngle(), (64.f / cornerStrip.getRegionWidth())+0.01f, (64.f / cornerStrip.getRegionHeight())+0.01f);
-            canvas.draw(cornerNightStrip, opacity, cornerNightStrip.getRegionWidth() / 2, cornerNightStrip.getRegionHeight() / 2, getX() * drawScale.x, getY() * drawScale.y, getAngle(), (64.f / cornerNightStrip.getRegionWidth())+0.01f, (64.f / cornerNightStrip.getRegionHeight())+0.01f);
+            drawCorner(canvas, 3);
+        }
+    }
+
+    /**
+     * Draws one corner layover over the tile, by day and then by night
+     *
+     * @param canvas The drawing context
+     * @param corner The corner frame to draw
+     */
+    private void drawCorner(GameCanvas canvas, int corner) {
+        TextureRegion day = cornerFrames[corner];
+        TextureRegion night = cornerNightFrames[corner];
+        canvas.draw(day, Color.WHITE, day.getRegionWidth() / 2, day.getRegionHeight() / 2, getX() * drawScale.x, getY() * drawScale.y, getAngle(), (64.f / day.getRegionWidth())+0.01f, (64.f / day.getRegionHeight())+0.01f);
+        if (opacity.a == 0) {
+            return;
         }
+        canvas.draw(night, opacity, night.getRegionWidth() / 2, night.getRegionHeight() / 2, getX() * drawScale.x, getY() * drawScale.y, getAngle(), (64.f / night.getRegionWidth())+0.01f, (64.f / night.getRegionHeight())+0.01f);
     }
 }
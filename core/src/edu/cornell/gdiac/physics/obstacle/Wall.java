@@ -2,10 +2,10 @@ package edu.cornell.gdiac.physics.obstacle;
 
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.physics.box2d.PolygonShape;
 import edu.cornell.gdiac.physics.GameCanvas;
-import edu.cornell.gdiac.util.FilmStrip;
 
 import java.util.Arrays;
 import java.util.Random;
@@ -61,10 +61,10 @@ public class Wall extends BoxObstacle {
     private static int LOWER_LEFT_CORNER =  20;
     private static int LOWER_RIGHT_CORNER = 21;
 
-    /** The texture strip for the wall */
-    protected FilmStrip wallStrip;
-    /** The texture strip for the wall */
-    protected FilmStrip wallNightStrip;
+    /** The frames of the wall texture, shared by every wall */
+    protected TextureRegion[] wallFrames;
+    /** The frames of the wall night texture, shared by every wall */
+    protected TextureRegion[] wallNightFrames;
 
     private boolean isFrontWall;
 
@@ -89,12 +89,12 @@ public class Wall extends BoxObstacle {
     /** Opacity of night wall */
     private Color opacity;
 
-    public Wall(float x, float y, float width, float height, FilmStrip wallStrip, FilmStrip wallNightStrip) {
-        this(x, y, width, height, wallStrip, wallNightStrip, WALL_FRONT,
+    public Wall(float x, float y, float width, float height, TextureRegion[] wallFrames, TextureRegion[] wallNightFrames) {
+        this(x, y, width, height, wallFrames, wallNightFrames, WALL_FRONT,
                 NO_SIDE, NO_SIDE, NO_SIDE, NO_SIDE, NO_SIDE, NO_SIDE, Color.WHITE);
     }
 
-    public Wall(float x, float y, float width, float height, FilmStrip wallStrip, FilmStrip wallNightStrip,
+    public Wall(float x, float y, float width, float height, TextureRegion[] wallFrames, TextureRegion[] wallNightFrames,
                 int primaryFrame, int leftFrame, int rightFrame,
                 int frontEdgeFrame, int backEdgeFrame,
                 int lowerLeftCornerFrame, int lowerRightCornerFrame, Color opacity) {
@@ -102,13 +102,40 @@ public class Wall extends BoxObstacle {
         seed = (int)(Math.random() * 1000);
         random = new Random(seed);
 
-        this.wallStrip = wallStrip;
-        this.wallNightStrip = wallNightStrip;
-        this.opacity = opacity;
+        this.wallFrames = wallFrames;
+        this.wallNightFrames = wallNightFrames;
+        this.cache = new Vector2();
 
-        setTexture(this.wallStrip);
-        setNightTexture(this.wallNightStrip, opacity);
+        setFrames(primaryFrame, leftFrame, rightFrame, frontEdgeFrame, backEdgeFrame,
+                lowerLeftCornerFrame, lowerRightCornerFrame, opacity);
+    }
 
+    /**
+     * Sets up a wall from an old level to be used again
+     *
+     * The frame tables are kept. The hitbox goes back to the full tile, undoing
+     * setAltHitbox.
+     */
+    public void recycle(float x, float y, float width, float height,
+                        int primaryFrame, int leftFrame, int rightFrame,
+                        int frontEdgeFrame, int backEdgeFrame,
+                        int lowerLeftCornerFrame, int lowerRightCornerFrame, Color opacity) {
+        recycle(x, y);
+        setDimension(width, height);
+        setFrames(primaryFrame, leftFrame, rightFrame, frontEdgeFrame, backEdgeFrame,
+                lowerLeftCornerFrame, lowerRightCornerFrame, opacity);
+    }
+
+    /**
+     * Sets the frames drawn for this wall and the night opacity
+     */
+    private void setFrames(int primaryFrame, int leftFrame, int rightFrame,
+                           int frontEdgeFrame, int backEdgeFrame,
+                           int lowerLeftCornerFrame, int lowerRightCornerFrame, Color opacity) {
+        this.opacity = opacity;
+
+        setTexture(wallFrames[0]);
+        setNightTexture(wallNightFrames[0], opacity);
 
         this.primaryFrame = primaryFrame;
         this.leftFrame = leftFrame;
@@ -119,8 +146,6 @@ public class Wall extends BoxObstacle {
         this.lowerRightCornerFrame = lowerRightCornerFrame;
 
         updateFrontWall();
-
-        this.cache = new Vector2();
     }
 
     /**
@@ -175,6 +200,24 @@ public class Wall extends BoxObstacle {
         }
     }
 
+    /**
+     * Puts the world rectangle of this wall's hitbox into the given rectangle
+     *
+     * This is the same hitbox that setAltHitbox gives the wall: only the back
+     * half of a front wall blocks, so things can walk in front of it.
+     *
+     * @param out The rectangle to fill
+     *
+     * @return the rectangle, for chaining
+     */
+    public Rectangle getHitbox(Rectangle out) {
+        float left = getX() - getWidth() / 2;
+        if (isFrontWall()) {
+            return out.set(left, getY(), getWidth(), getHeight() / 2);
+        }
+        return out.set(left, getY() - getHeight() / 2, getWidth(), getHeight());
+    }
+
     /**
      * Sets the hitbox of this wall to be dependent on its texture.
      *
@@ -187,9 +230,7 @@ public class Wall extends BoxObstacle {
     public void setAltHitbox() {
         // Change the hitbox only if this is a front wall
         if (isFrontWall()) {
-            PolygonShape s = new PolygonShape();
-            s.setAsBox(getWidth() / 2, getHeight() / 4, cache.set(0, getHeight() / 4), 0);
-            shape = s;
+            shape.setAsBox(getWidth() / 2, getHeight() / 4, cache.set(0, getHeight() / 4), 0);
         }
     }
 
@@ -321,71 +362,55 @@ public class Wall extends BoxObstacle {
             return;
         }
 
-        // Draw the primary frame
-        wallStrip.setFrame(primaryFrame);
-        wallNightStrip.setFrame(primaryFrame);
-
-//        canvas.draw(texture, Color.WHITE,origin.x,origin.y,getX()*drawScale.x,getY()*drawScale.y,getAngle(),getWidth() * drawScale.x / texture.getRegionWidth(), getHeight() * drawScale.y / texture.getRegionHeight());
+        float x = getX()*drawScale.x;
+        float y = getY()*drawScale.y;
 
-        setScaling(wallStrip);
-        canvas.draw(texture,  Color.WHITE,origin.x,origin.y,getX()*drawScale.x,getY()*drawScale.y,getAngle(),sx,sy);
-        setScaling(wallNightStrip);
-        canvas.draw(textureNight, opacity,origin.x,origin.y,getX()*drawScale.x,getY()*drawScale.y,getAngle(),sx,sy);
+        // Draw the primary frame
+        drawFrame(canvas, primaryFrame, origin.x, origin.y, x, y, opacity);
 
         // Draw the left side
         if(leftFrame != NO_SIDE) {
-            wallStrip.setFrame(leftFrame);
-            wallNightStrip.setFrame(leftFrame);
-//            canvas.draw(texture, Color.WHITE,origin.x,origin.y,getX()*drawScale.x,getY()*drawScale.y,getAngle(),getWidth() * drawScale.x / texture.getRegionWidth(), getHeight() * drawScale.y / texture.getRegionHeight());
-
-            setScaling(wallStrip);
-            canvas.draw(texture,  Color.WHITE,origin.x,origin.y,getX()*drawScale.x,getY()*drawScale.y,getAngle(),sx,sy);
-            setScaling(wallNightStrip);
-            canvas.draw(textureNight, opacity,origin.x,origin.y,getX()*drawScale.x,getY()*drawScale.y,getAngle(),sx,sy);
+            drawFrame(canvas, leftFrame, origin.x, origin.y, x, y, opacity);
         }
 
         // Draw the right side
         if(rightFrame != NO_SIDE) {
-            wallStrip.setFrame(rightFrame);
-            wallNightStrip.setFrame(rightFrame);
-//            canvas.draw(texture, Color.WHITE,origin.x,origin.y,getX()*drawScale.x,getY()*drawScale.y,getAngle(),getWidth() * drawScale.x / texture.getRegionWidth(), getHeight() * drawScale.y / texture.getRegionHeight());
-            canvas.draw(texture,  Color.WHITE,origin.x,origin.y,getX()*drawScale.x,getY()*drawScale.y,getAngle(),sx,sy);
-            canvas.draw(textureNight, opacity,origin.x,origin.y,getX()*drawScale.x,getY()*drawScale.y,getAngle(),sx,sy);
+            drawFrame(canvas, rightFrame, origin.x, origin.y, x, y, opacity);
         }
 
         // Draw the front edge
         if(frontEdgeFrame != NO_SIDE) {
-            wallStrip.setFrame(frontEdgeFrame);
-            wallNightStrip.setFrame(frontEdgeFrame);
-//            canvas.draw(texture, Color.WHITE,origin.x,origin.y,getX()*drawScale.x,getY()*drawScale.y,getAngle(),getWidth() * drawScale.x / texture.getRegionWidth(), getHeight() * drawScale.y / texture.getRegionHeight());
-
-            setScaling(wallStrip);
-            canvas.draw(texture,  Color.WHITE,origin.x,origin.y,getX()*drawScale.x,getY()*drawScale.y,getAngle(),sx,sy);
-            setScaling(wallNightStrip);
-            canvas.draw(textureNight, opacity,origin.x,origin.y,getX()*drawScale.x,getY()*drawScale.y,getAngle(),sx,sy);
+            drawFrame(canvas, frontEdgeFrame, origin.x, origin.y, x, y, opacity);
         }
 
         // Draw the corners
         if(lowerLeftCornerFrame != NO_SIDE) {
-            wallStrip.setFrame(lowerLeftCornerFrame);
-            wallNightStrip.setFrame(lowerLeftCornerFrame);
-//            canvas.draw(texture, Color.WHITE,origin.x,origin.y,getX()*drawScale.x,getY()*drawScale.y,getAngle(),getWidth() * drawScale.x / texture.getRegionWidth(), getHeight() * drawScale.y / texture.getRegionHeight());
-
-            setScaling(wallStrip);
-            canvas.draw(texture,  Color.WHITE,origin.x,origin.y,getX()*drawScale.x,getY()*drawScale.y,getAngle(),sx,sy);
-            setScaling(wallNightStrip);
-            canvas.draw(textureNight, opacity,origin.x,origin.y,getX()*drawScale.x,getY()*drawScale.y,getAngle(),sx,sy);
+            drawFrame(canvas, lowerLeftCornerFrame, origin.x, origin.y, x, y, opacity);
         }
         if(lowerRightCornerFrame != NO_SIDE) {
-            wallStrip.setFrame(lowerRightCornerFrame);
-            wallNightStrip.setFrame(lowerRightCornerFrame);
-//            canvas.draw(texture, Color.WHITE,origin.x,origin.y,getX()*drawScale.x,getY()*drawScale.y,getAngle(),getWidth() * drawScale.x / texture.getRegionWidth(), getHeight() * drawScale.y / texture.getRegionHeight());
-
-            setScaling(wallStrip);
-            canvas.draw(texture,  Color.WHITE,origin.x,origin.y,getX()*drawScale.x,getY()*drawScale.y,getAngle(),sx,sy);
-            setScaling(wallNightStrip);
-            canvas.draw(textureNight, opacity,origin.x,origin.y,getX()*drawScale.x,getY()*drawScale.y,getAngle(),sx,sy);
+            drawFrame(canvas, lowerRightCornerFrame, origin.x, origin.y, x, y, opacity);
+        }
+    }
+
+    /**
+     * Draws one frame of the wall, by day and then by night
+     *
+     * @param canvas  The drawing context
+     * @param frame   The frame to draw
+     * @param ox      The x origin of the frame
+     * @param oy      The y origin of the frame
+     * @param x       The x screen position
+     * @param y       The y screen position
+     * @param opacity The color of the night frame
+     */
+    private void drawFrame(GameCanvas canvas, int frame, float ox, float oy, float x, float y, Color opacity) {
+        setScaling(wallFrames[frame]);
+        canvas.draw(wallFrames[frame], Color.WHITE, ox, oy, x, y, getAngle(), sx, sy);
+        if (opacity.a == 0) {
+            return;
         }
+        setScaling(wallNightFrames[frame]);
+        canvas.draw(wallNightFrames[frame], opacity, ox, oy, x, y, getAngle(), sx, sy);
     }
 
     /**
@@ -421,24 +446,11 @@ public class Wall extends BoxObstacle {
 
         // Draw the back edge
         if(backEdgeFrame != NO_SIDE) {
-            wallStrip.setFrame(backEdgeFrame);
-            wallNightStrip.setFrame(backEdgeFrame);
-//            canvas.draw(texture, Color.WHITE,(int)origin.x,(int)origin.y,getX()*drawScale.x,(getY() + TILE_WIDTH)*drawScale.y,getAngle(),getWidth() * drawScale.x / texture.getRegionWidth(), getHeight() * drawScale.y / texture.getRegionHeight());
-
-            setScaling(wallStrip);
-            canvas.draw(texture,  Color.WHITE,(int)origin.x,(int)origin.y,(int)(getX()*drawScale.x),(int)((getY() + TILE_WIDTH)*drawScale.y),getAngle(),sx,sy);
-            setScaling(wallNightStrip);
-            canvas.draw(textureNight, opacity,(int)origin.x,(int)origin.y,(int)(getX()*drawScale.x),(int)((getY() + TILE_WIDTH)*drawScale.y),getAngle(),sx,sy);
+            drawFrame(canvas, backEdgeFrame, (int)origin.x, (int)origin.y,
+                    (int)(getX()*drawScale.x), (int)((getY() + TILE_WIDTH)*drawScale.y), opacity);
             // Draw the line behind the back edge and the wall, if this is a top wall
             if(!isFrontWall()) {
-                wallStrip.setFrame(BACK_LINE);
-                wallNightStrip.setFrame(BACK_LINE);
-//                canvas.draw(texture, Color.WHITE,origin.x,origin.y,getX()*drawScale.x,getY()*drawScale.y,getAngle(),getWidth() * drawScale.x / texture.getRegionWidth(), getHeight() * drawScale.y / texture.getRegionHeight());
-
-                setScaling(wallStrip);
-                canvas.draw(texture,  Color.WHITE,origin.x,origin.y,getX()*drawScale.x,getY()*drawScale.y,getAngle(),sx,sy);
-                setScaling(wallNightStrip);
-                canvas.draw(textureNight, opacity,origin.x,origin.y,getX()*drawScale.x,getY()*drawScale.y,getAngle(),sx,sy);
+                drawFrame(canvas, BACK_LINE, origin.x, origin.y, getX()*drawScale.x, getY()*drawScale.y, opacity);
             }
         }
     }
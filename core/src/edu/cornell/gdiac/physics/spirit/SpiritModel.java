@@ -41,6 +41,8 @@ public class SpiritModel extends BoxObstacle {
     private boolean didBounce;
     /** Position at Bounce */
     private Vector2 posAtBounce;
+    /** Holds the position at bounce once one is set, so setting one does not allocate */
+    private Vector2 bounceCache = new Vector2();
 
     // Animation related Variables
 
@@ -56,6 +58,22 @@ public class SpiritModel extends BoxObstacle {
     private int framesPerUpdate = 8;
     /** Whether or not animation should be updated on this frame */
     private boolean updateFrame;
+    /** Cache for the colors of the head and tail, which fade with life */
+    private Color lifeColorCache = new Color();
+    private Color tailColorCache = new Color();
+
+    // State saved by saveState
+    private int savedBounces;
+    private boolean savedHasLaunched;
+    private float savedCurrentLife;
+    private boolean savedIsAlive;
+    private boolean savedIsPossessing;
+    private boolean savedGoToCenter;
+    private boolean savedDidBounce;
+    private Vector2 savedPosAtBounce = new Vector2();
+    private int savedElapsedFrames;
+    private int savedHeadFrame;
+    private int savedTailFrame;
 
 
 
@@ -102,10 +120,13 @@ public class SpiritModel extends BoxObstacle {
 
     /**
      * Sets the position of the spirit at bounce
+     * <p>
+     * The position is copied, so a cache vector may be passed in.
+     *
      * @param posAtBounce indicates the position of the spirit at bounce
      */
     public void setPosAtBounce(Vector2 posAtBounce) {
-        this.posAtBounce = posAtBounce;
+        this.posAtBounce = bounceCache.set(posAtBounce);
     }
 
     /**
@@ -213,10 +234,12 @@ public class SpiritModel extends BoxObstacle {
 
     /**
      * returns the velocity vector
+     *
+     * The vector is reused, so it should be copied if it needs to be kept.
      * @return velocity vector
      */
     public Vector2 getVelocity() {
-        return new Vector2(this.getVX(), this.getVY());
+        return velocityCache.set(this.getVX(), this.getVY());
     }
 
     public boolean getIsPossessing() {
@@ -294,6 +317,42 @@ public class SpiritModel extends BoxObstacle {
         }
     }
 
+    /**
+     * Remembers the life, launch and possession state of the spirit
+     */
+    public void saveState() {
+        super.saveState();
+        savedBounces = bounces;
+        savedHasLaunched = hasLaunched;
+        savedCurrentLife = currentLife;
+        savedIsAlive = isAlive;
+        savedIsPossessing = isPossessing;
+        savedGoToCenter = goToCenter;
+        savedDidBounce = didBounce;
+        savedPosAtBounce.set(posAtBounce);
+        savedElapsedFrames = elapsedFrames;
+        savedHeadFrame = spiritHeadStrip == null ? 0 : spiritHeadStrip.getFrame();
+        savedTailFrame = spiritTailStrip == null ? 0 : spiritTailStrip.getFrame();
+    }
+
+    /**
+     * Returns the spirit to the state remembered by the last saveState
+     */
+    public void restoreState() {
+        super.restoreState();
+        bounces = savedBounces;
+        hasLaunched = savedHasLaunched;
+        currentLife = savedCurrentLife;
+        isAlive = savedIsAlive;
+        isPossessing = savedIsPossessing;
+        goToCenter = savedGoToCenter;
+        didBounce = savedDidBounce;
+        posAtBounce = bounceCache.set(savedPosAtBounce);
+        elapsedFrames = savedElapsedFrames;
+        if (spiritHeadStrip != null) { spiritHeadStrip.setFrame(savedHeadFrame); }
+        if (spiritTailStrip != null) { spiritTailStrip.setFrame(savedTailFrame); }
+    }
+
     /**
      * Draws the Spirit
      *
@@ -304,23 +363,23 @@ public class SpiritModel extends BoxObstacle {
         // Color fades as life progression decreases
         float lifeProgression = this.currentLife / this.defaultLife;
         float disFromBounce = (Vector2.dst2(this.getPosition().x, this.getPosition().y, this.getPosAtBounce().x, this.getPosAtBounce().y)) / 8;
-        Color lifeColor = new Color(1, 1, 1, lifeProgression);
-        Color tailColor = new Color(1, 1,1, lifeProgression * disFromBounce);
+        Color lifeColor = lifeColorCache.set(1, 1, 1, lifeProgression);
+        Color tailColor = tailColorCache.set(1, 1,1, lifeProgression * disFromBounce);
 
         // Only draw spirit when it's flying
         if (!isPossessing && !goToCenter) {
 
             if(this.didBounce) {
-                canvas.draw(spiritHeadStrip, lifeColor, spiritHeadStrip.getRegionWidth() - 14, spiritHeadStrip.getRegionHeight() / 2, getX() * drawScale.x, getY() * drawScale.y, this.getVelocity().angleRad(), 0.75f, 0.75f);
-                canvas.draw(spiritTailStrip, Color.CLEAR, spiritTailStrip.getRegionWidth() - 14, spiritTailStrip.getRegionHeight() / 2, getX() * drawScale.x, getY() * drawScale.y, this.getVelocity().angleRad(), 0.75f, 0.75f);
+                canvas.draw(spiritHeadStrip, lifeColor, spiritHeadStrip.getRegionWidth() - 14, spiritHeadStrip.getRegionHeight() / 2, getDrawX() * drawScale.x, getDrawY() * drawScale.y, this.getVelocity().angleRad(), 0.75f, 0.75f);
+                canvas.draw(spiritTailStrip, Color.CLEAR, spiritTailStrip.getRegionWidth() - 14, spiritTailStrip.getRegionHeight() / 2, getDrawX() * drawScale.x, getDrawY() * drawScale.y, this.getVelocity().angleRad(), 0.75f, 0.75f);
             }
             else {
-                canvas.draw(spiritHeadStrip, lifeColor, spiritHeadStrip.getRegionWidth() - 14, spiritHeadStrip.getRegionHeight() / 2, getX() * drawScale.x, getY() * drawScale.y, this.getVelocity().angleRad(), 0.75f, 0.75f);
+                canvas.draw(spiritHeadStrip, lifeColor, spiritHeadStrip.getRegionWidth() - 14, spiritHeadStrip.getRegionHeight() / 2, getDrawX() * drawScale.x, getDrawY() * drawScale.y, this.getVelocity().angleRad(), 0.75f, 0.75f);
                 if(Vector2.dst2(this.getPosition().x, this.getPosition().y, this.getPosAtBounce().x, this.getPosAtBounce().y) >= 8f) {
-                    canvas.draw(spiritTailStrip, lifeColor, spiritTailStrip.getRegionWidth() - 14, spiritTailStrip.getRegionHeight() / 2, getX() * drawScale.x, getY() * drawScale.y, this.getVelocity().angleRad(), 0.75f, 0.75f);
+                    canvas.draw(spiritTailStrip, lifeColor, spiritTailStrip.getRegionWidth() - 14, spiritTailStrip.getRegionHeight() / 2, getDrawX() * drawScale.x, getDrawY() * drawScale.y, this.getVelocity().angleRad(), 0.75f, 0.75f);
                 }
                 else {
-                    canvas.draw(spiritTailStrip, tailColor, spiritHeadStrip.getRegionWidth() - 14, spiritHeadStrip.getRegionHeight() / 2, getX() * drawScale.x, getY() * drawScale.y, this.getVelocity().angleRad(), 0.75f, 0.75f);
+                    canvas.draw(spiritTailStrip, tailColor, spiritHeadStrip.getRegionWidth() - 14, spiritHeadStrip.getRegionHeight() / 2, getDrawX() * drawScale.x, getDrawY() * drawScale.y, this.getVelocity().angleRad(), 0.75f, 0.75f);
                 }
             }
         }
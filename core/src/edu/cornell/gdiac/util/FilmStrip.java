@@ -43,6 +43,10 @@ public class FilmStrip extends TextureRegion {
 	
 	/** The height of a single frame; computed from row count */
 	private int rheight;
+
+	/** The position of the first frame in the texture */
+	private int rx;
+	private int ry;
 	
 	/** The number of frames in this filmstrip */
 	private int size;
@@ -85,6 +89,32 @@ public class FilmStrip extends TextureRegion {
 		rheight = texture.getHeight()/rows;
 		setFrame(0);
 	}
+
+	/**
+	 * Creates a new filmstrip from part of a texture, such as a packed sheet.
+	 * 
+	 * The frames are laid out in the region exactly as they would be in a
+	 * texture of the same size.
+	 * 
+	 * @param region The region of the texture to use
+	 * @param rows The number of rows in the filmstrip
+	 * @param cols The number of columns in the filmstrip
+	 * @param size The number of frames in the filmstrip
+	 */
+	public FilmStrip(TextureRegion region, int rows, int cols, int size) {
+		super(region);
+		if (size > rows*cols) {
+			Gdx.app.error("FilmStrip", "Invalid strip size", new IllegalArgumentException());
+			return;
+		}
+		this.cols = cols;
+		this.size = size;
+		rx = region.getRegionX();
+		ry = region.getRegionY();
+		rwidth  = region.getRegionWidth()/cols;
+		rheight = region.getRegionHeight()/rows;
+		setFrame(0);
+	}
 	
 	/**
 	 * Returns the number of frames in this filmstrip.
@@ -117,9 +147,34 @@ public class FilmStrip extends TextureRegion {
 			return;
 		}
 		this.frame = frame;
-		int x = (frame % cols)*rwidth;
-		int y = (frame / cols)*rheight;
+		int x = rx+(frame % cols)*rwidth;
+		int y = ry+(frame / cols)*rheight;
 		setRegion(x,y,rwidth,rheight);
 	}
 
+	/**
+	 * Returns every frame of the given texture as its own region.
+	 *
+	 * The frames are indexed in the same order as setFrame.  Unlike a
+	 * filmstrip, the result has no active frame, so it can be shared by
+	 * any number of objects that only need to remember a frame number.
+	 * The regions should not be modified.
+	 *
+	 * @param texture The texture image to use
+	 * @param rows The number of rows in the image
+	 * @param cols The number of columns in the image
+	 * @param size The number of frames in the image
+	 *
+	 * @return the frames of the texture
+	 */
+	public static TextureRegion[] split(Texture texture, int rows, int cols, int size) {
+		int rwidth  = texture.getWidth()/cols;
+		int rheight = texture.getHeight()/rows;
+		TextureRegion[] frames = new TextureRegion[size];
+		for (int ii = 0; ii < size; ii++) {
+			frames[ii] = new TextureRegion(texture,(ii % cols)*rwidth,(ii / cols)*rheight,rwidth,rheight);
+		}
+		return frames;
+	}
+
 }
\ No newline at end of file
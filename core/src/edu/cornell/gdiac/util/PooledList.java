@@ -69,6 +69,7 @@ public class PooledList<E> extends AbstractSequentialList<E> implements Iterable
 				tail = prev;
 			}
 			size--;
+			modCount++;
 			memory.free(this);
 		}
 		
@@ -129,6 +130,17 @@ public class PooledList<E> extends AbstractSequentialList<E> implements Iterable
 		size = 0;
 	}
 	
+	/**
+	 * Returns the number of times an element was added or removed.
+	 *
+	 * This is a cheap way to tell whether the contents have changed.
+	 *
+	 * @return the number of times an element was added or removed
+	 */
+	public int getModificationCount() {
+		return modCount;
+	}
+
 	/**
 	 * Returns the number of elements in this list.
 	 *
@@ -210,6 +222,7 @@ public class PooledList<E> extends AbstractSequentialList<E> implements Iterable
 			head.prev = null;
 		}
 		size--;
+		modCount++;
 		memory.free(last);
 		return value;
 	}
@@ -231,6 +244,7 @@ public class PooledList<E> extends AbstractSequentialList<E> implements Iterable
 			tail.next = null;
 		}
 		size--;
+		modCount++;
 		memory.free(last);
 		return value;
 	}
@@ -256,6 +270,7 @@ public class PooledList<E> extends AbstractSequentialList<E> implements Iterable
 		}
 		tail = entry;
 		size++;
+		modCount++;
 		return true;
 	}
 
@@ -309,6 +324,7 @@ public class PooledList<E> extends AbstractSequentialList<E> implements Iterable
 			entry.next = curr;
 		}
 		size++;
+		modCount++;
 	}
 	
 	/**
@@ -371,6 +387,7 @@ public class PooledList<E> extends AbstractSequentialList<E> implements Iterable
 			curr.next.prev = curr.prev;
 		}
 		size--;
+		modCount++;
 		memory.free(last);
 		return value;
 	}
@@ -514,6 +531,7 @@ public class PooledList<E> extends AbstractSequentialList<E> implements Iterable
 				tail = entry;
 			}
 			size++;
+			modCount++;
 		}
 		
 		/**
@@ -629,6 +647,7 @@ public class PooledList<E> extends AbstractSequentialList<E> implements Iterable
 			memory.free(last);
 			last = null;
 			size--;
+			modCount++;
 		}
 
 		/**
@@ -697,6 +716,7 @@ public class PooledList<E> extends AbstractSequentialList<E> implements Iterable
 				tail = entry;
 			}
 			size++;
+			modCount++;
 		}
 		
 		/**
@@ -812,6 +832,7 @@ public class PooledList<E> extends AbstractSequentialList<E> implements Iterable
 			memory.free(last);
 			last = null;
 			size--;
+			modCount++;
 		}
 
 		/**
@@ -0,0 +1,143 @@
+package edu.cornell.gdiac.util;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.assets.AssetDescriptor;
+import com.badlogic.gdx.assets.AssetLoaderParameters;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.assets.loaders.AsynchronousAssetLoader;
+import com.badlogic.gdx.assets.loaders.FileHandleResolver;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.PixmapPacker;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.ObjectMap;
+
+/**
+ * Spritesheets packed together into a few large textures.
+ *
+ * The sheets are packed when the atlas is loaded, so the images stay as
+ * separate files. Each sheet is looked up by its file name, and its region
+ * can be used anywhere the whole texture was used before (see FilmStrip).
+ * Sprites from the same page can be drawn without flushing the batch.
+ *
+ * The atlas is loaded through the asset manager, with the Loader below:
+ *
+ *     manager.setLoader(SpriteAtlas.class, new SpriteAtlas.Loader(resolver));
+ *     manager.load(name, SpriteAtlas.class, parameters);
+ *
+ * where the name is only a key and the parameters list the sheets to pack.
+ */
+public class SpriteAtlas implements Disposable {
+	/** The size of a page; every desktop GPU supports textures this large */
+	public static final int PAGE_SIZE = 4096;
+	/** Pixels left between sheets, so filtering never samples a neighbour */
+	private static final int PADDING = 2;
+
+	/** The page textures */
+	private Array<Texture> pages;
+	/** The region of each sheet, by file name */
+	private ObjectMap<String, TextureRegion> regions;
+
+	/**
+	 * Creates an atlas from the pages of a packer, which may then be disposed
+	 *
+	 * @param packer The packer holding the sheets
+	 */
+	private SpriteAtlas(PixmapPacker packer) {
+		pages = new Array<Texture>();
+		regions = new ObjectMap<String, TextureRegion>();
+		for (PixmapPacker.Page page : packer.getPages()) {
+			Texture texture = new Texture(page.getPixmap());
+			pages.add(texture);
+			for (ObjectMap.Entry<String, ? extends Rectangle> e : page.getRects().entries()) {
+				Rectangle r = e.value;
+				regions.put(e.key, new TextureRegion(texture, (int)r.x, (int)r.y, (int)r.width, (int)r.height));
+			}
+		}
+	}
+
+	/**
+	 * Returns the region of the given sheet, or null if it was not packed
+	 *
+	 * The region is shared, so it should not be modified.
+	 *
+	 * @param file The file name of the sheet
+	 *
+	 * @return the region of the given sheet
+	 */
+	public TextureRegion findRegion(String file) {
+		TextureRegion region = regions.get(file);
+		if (region == null) {
+			Gdx.app.error("SpriteAtlas", "Sheet not packed: " + file, new IllegalArgumentException());
+		}
+		return region;
+	}
+
+	/**
+	 * Returns the number of page textures
+	 *
+	 * @return the number of page textures
+	 */
+	public int getPageCount() {
+		return pages.size;
+	}
+
+	/**
+	 * Frees the page textures
+	 */
+	public void dispose() {
+		for (Texture page : pages) {
+			page.dispose();
+		}
+		pages.clear();
+		regions.clear();
+	}
+
+	/**
+	 * The sheets to pack into an atlas
+	 */
+	public static class Parameters extends AssetLoaderParameters<SpriteAtlas> {
+		/** The file names of the sheets, best given from largest to smallest */
+		public Array<String> files = new Array<String>();
+	}
+
+	/**
+	 * Asset loader that packs sheets into an atlas
+	 *
+	 * The images are read and packed on the loading thread, one at a time, so
+	 * only the pages are ever held in memory. The pages are uploaded on the
+	 * rendering thread.
+	 */
+	public static class Loader extends AsynchronousAssetLoader<SpriteAtlas, Parameters> {
+		/** The sheets packed so far */
+		private PixmapPacker packer;
+
+		public Loader(FileHandleResolver resolver) {
+			super(resolver);
+		}
+
+		public Array<AssetDescriptor> getDependencies(String fileName, FileHandle file, Parameters parameter) {
+			return null;
+		}
+
+		public void loadAsync(AssetManager manager, String fileName, FileHandle file, Parameters parameter) {
+			packer = new PixmapPacker(PAGE_SIZE, PAGE_SIZE, Pixmap.Format.RGBA8888, PADDING, false);
+			for (String sheet : parameter.files) {
+				Pixmap pixmap = new Pixmap(resolve(sheet));
+				packer.pack(sheet, pixmap);
+				pixmap.dispose();
+			}
+		}
+
+		public SpriteAtlas loadSync(AssetManager manager, String fileName, FileHandle file, Parameters parameter) {
+			SpriteAtlas atlas = new SpriteAtlas(packer);
+			packer.dispose();
+			packer = null;
+			return atlas;
+		}
+	}
+}
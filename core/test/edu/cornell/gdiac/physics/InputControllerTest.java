@@ -0,0 +1,116 @@
+package edu.cornell.gdiac.physics;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Input;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks that ESC and Z are reported once per press however the frames are
+ * split into simulation steps.
+ *
+ * The game polls input once per step, and a frame may take no steps at all or
+ * several. Each frame is driven here the way WorldController.render drives it,
+ * with the keyboard replaced by a stub whose keys are set by the test.
+ */
+public class InputControllerTest {
+
+    /** The keys currently held on the stub keyboard */
+    private Set<Integer> held;
+    private Input previousInput;
+    private InputController input;
+
+    @Before
+    public void setUp() {
+        held = new HashSet<Integer>();
+        previousInput = Gdx.input;
+        Gdx.input = (Input) Proxy.newProxyInstance(InputControllerTest.class.getClassLoader(),
+                new Class<?>[] { Input.class }, new InvocationHandler() {
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        if (method.getName().equals("isKeyPressed")) {
+                            return held.contains(args[0]);
+                        }
+                        Class<?> type = method.getReturnType();
+                        if (type == int.class) { return 0; }
+                        if (type == long.class) { return 0L; }
+                        if (type == float.class) { return 0f; }
+                        if (type == boolean.class) { return false; }
+                        return null;
+                    }
+                });
+        input = new InputController();
+    }
+
+    @After
+    public void tearDown() {
+        Gdx.input = previousInput;
+    }
+
+    /**
+     * Plays one frame of the given number of steps.
+     *
+     * @return the steps that saw a pause and a zoom, as {pauses, zooms}
+     */
+    private int[] frame(int steps) {
+        int[] seen = new int[2];
+        for (int ii = 0; ii < steps; ii++) {
+            input.readInput();
+            if (input.didPause()) { seen[0]++; }
+            if (input.didZoom()) { seen[1]++; }
+        }
+        return seen;
+    }
+
+    @Test
+    public void pressInBusyFrameIsSeenOnce() {
+        frame(1);
+        held.add(Input.Keys.ESCAPE);
+        held.add(Input.Keys.Z);
+        int[] seen = frame(WorldController.MAX_STEPS_PER_FRAME);
+        assertEquals(1, seen[0]);
+        assertEquals(1, seen[1]);
+
+        // Held keys are not pressed again
+        seen = frame(WorldController.MAX_STEPS_PER_FRAME);
+        assertEquals(0, seen[0]);
+        assertEquals(0, seen[1]);
+    }
+
+    @Test
+    public void pressInEmptyFrameIsDeferred() {
+        frame(1);
+        held.add(Input.Keys.ESCAPE);
+        held.add(Input.Keys.Z);
+        int[] seen = frame(0);
+        assertEquals(0, seen[0]);
+        assertEquals(0, seen[1]);
+
+        seen = frame(2);
+        assertEquals(1, seen[0]);
+        assertEquals(1, seen[1]);
+    }
+
+    @Test
+    public void releaseAndPressAgainIsSeenAgain() {
+        held.add(Input.Keys.ESCAPE);
+        assertEquals(1, frame(3)[0]);
+
+        held.remove(Input.Keys.ESCAPE);
+        assertEquals(0, frame(0)[0]);
+        assertEquals(0, frame(1)[0]);
+
+        held.add(Input.Keys.ESCAPE);
+        assertEquals(1, frame(4)[0]);
+        assertEquals(0, frame(0)[0]);
+        assertEquals(0, frame(2)[0]);
+    }
+}
@@ -0,0 +1,188 @@
+package edu.cornell.gdiac.physics;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.GL30;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.Box2D;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Steps every shipped level headlessly and checks that a steady-state step
+ * allocates nothing.
+ *
+ * There is no window, so OpenGL is replaced by a stub that does nothing and
+ * every texture the factory needs is a blank placeholder. Allocations are
+ * counted by the JVM for the current thread. Each level is played through
+ * once unmeasured, so the JIT has compiled the step and every code path has
+ * been linked, then restarted and played again. The bytes allocated by the
+ * last steps of the second play must be zero.
+ *
+ * This must run with the assets folder as the working directory.
+ */
+public class SimulationAllocationTest {
+
+    /** The steps given to the spirit to settle into the pedestal */
+    private static final int SETTLE_STEPS = 600;
+    /** The steps taken before measuring */
+    private static final int WARMUP_STEPS = 2400;
+    /** The steps measured */
+    private static final int MEASURED_STEPS = 600;
+    /** The size of the placeholder textures, enough to split every film strip */
+    private static final int PLACEHOLDER_SIZE = 256;
+
+    private static HeadlessApplication application;
+    private static Texture placeholder;
+    private static Loader loader;
+    private static com.sun.management.ThreadMXBean threads;
+
+    @BeforeClass
+    public static void setUp() throws Exception {
+        application = new HeadlessApplication(new ApplicationAdapter() {}, new HeadlessApplicationConfiguration());
+        GL20 gl = (GL20) Proxy.newProxyInstance(SimulationAllocationTest.class.getClassLoader(),
+                new Class<?>[] { GL20.class, GL30.class }, new InvocationHandler() {
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        Class<?> type = method.getReturnType();
+                        if (type == int.class) { return 0; }
+                        if (type == float.class) { return 0f; }
+                        if (type == boolean.class) { return false; }
+                        return null;
+                    }
+                });
+        Gdx.gl = gl;
+        Gdx.gl20 = gl;
+        Box2D.init();
+
+        placeholder = new Texture(new Pixmap(PLACEHOLDER_SIZE, PLACEHOLDER_SIZE, Pixmap.Format.RGBA8888));
+        loader = new Loader(makeFactory());
+        threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assertTrue("Thread allocation counting is not supported", threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        if (application != null) {
+            application.exit();
+        }
+    }
+
+    /**
+     * Makes a factory whose every texture is the placeholder
+     */
+    private static Factory makeFactory() throws Exception {
+        Constructor<?> constructor = Factory.class.getConstructors()[0];
+        Class<?>[] types = constructor.getParameterTypes();
+        Object[] args = new Object[types.length];
+        for (int i = 0; i < types.length; i++) {
+            if (types[i] == Vector2.class) {
+                args[i] = new Vector2(1, 1);
+            } else if (types[i] == Texture.class) {
+                args[i] = placeholder;
+            } else {
+                args[i] = new TextureRegion(placeholder);
+            }
+        }
+        return (Factory) constructor.newInstance(args);
+    }
+
+    /**
+     * Returns the bytes allocated so far by the current thread
+     */
+    private static long allocated() {
+        return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Returns the bytes allocated by the given number of steps
+     *
+     * The cost of reading the counter itself is measured and taken off.
+     */
+    private static long measure(Simulation sim, ScriptedInput input, boolean pressed, int steps) {
+        long start = allocated();
+        long overhead = allocated() - start;
+        start = allocated();
+        for (int i = 0; i < steps; i++) {
+            input.advance();
+            input.setMousePressed(pressed);
+            sim.step(WorldController.WORLD_STEP);
+        }
+        return allocated() - start - overhead;
+    }
+
+    /**
+     * Plays the current level from its start
+     *
+     * @param pressed Whether the mouse is held down, aiming a shot, once the spirit settles
+     *
+     * @return the bytes allocated by the last MEASURED_STEPS steps
+     */
+    private static long play(Simulation sim, ScriptedInput input, boolean pressed) {
+        input.reset();
+        input.setMousePosition(3, 2);
+        measure(sim, input, false, SETTLE_STEPS);
+        measure(sim, input, pressed, WARMUP_STEPS);
+        return measure(sim, input, pressed, MEASURED_STEPS);
+    }
+
+    /**
+     * Loads each shipped level and runs the given script on it
+     *
+     * @param pressed Whether the mouse is held down, aiming a shot, once the spirit settles
+     */
+    private void checkLevels(boolean pressed) {
+        ScriptedInput input = new ScriptedInput();
+        Simulation sim = new Simulation(input, new Vector2(1, 1), Vector2.Zero);
+        sim.setTrajectoryPredictor(new TrajectoryPredictor());
+
+        ArrayList<String> failures = new ArrayList<String>();
+        FileHandle[] files = Gdx.files.internal("levels").list(Constants.filenameFilter);
+        assertTrue("No levels found", files.length > 0);
+        for (FileHandle file : files) {
+            Level level = loader.loadLevel(file, 0, false);
+            sim.load(level);
+            play(sim, input, pressed);
+            assertTrue(file.name() + " could not restart", sim.restart());
+            long bytes = play(sim, input, pressed);
+            if (pressed) {
+                assertTrue(file.name() + " is not aiming", sim.getArrow() != null);
+            }
+            if (bytes != 0) {
+                failures.add(file.name() + " allocated " + bytes + " bytes");
+            }
+
+            sim.dispose();
+            loader.freeLevel(level);
+        }
+        assertEquals("Steady-state steps allocated", new ArrayList<String>(), failures);
+    }
+
+    @Test
+    public void idleStepsDoNotAllocate() {
+        checkLevels(false);
+    }
+
+    @Test
+    public void aimingStepsDoNotAllocate() {
+        checkLevels(true);
+    }
+}
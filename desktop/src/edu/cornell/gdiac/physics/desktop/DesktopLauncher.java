@@ -38,6 +38,15 @@ public class DesktopLauncher {
 		config.height = 576;
 		config.resizable = false;
 		config.title = "modosu";
-		new LwjglApplication(new GDXRoot(), config);
+
+		// Run with --solve to check that every level can be completed,
+		// or with --replay <file> to play back a recording without drawing
+		boolean solve = false;
+		String replay = null;
+		for (int i = 0; i < arg.length; i++) {
+			if (arg[i].equals("--solve")) { solve = true; }
+			if (arg[i].equals("--replay") && i + 1 < arg.length) { replay = arg[++i]; }
+		}
+		new LwjglApplication(new GDXRoot(solve, replay), config);
 	}
 }
\ No newline at end of file